@@ -0,0 +1,163 @@
+package com.operatorchoreography.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.operatorchoreography.generator.model.OperatorTemplateParams;
+import com.operatorchoreography.generator.service.OperatorTemplateParamsService;
+import com.operatorchoreography.generator.service.OperatorTemplatesService;
+import com.operatorchoreography.service.ExecutionMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 基准测试公共支撑
+ * 只注册被测执行器及其依赖的最小Spring上下文，数据库服务用内存桩代替；
+ * 执行器每次调用都会输出INFO日志，测量前统一调到WARN，避免结果被控制台输出主导
+ */
+final class BenchmarkSupport {
+
+    /**
+     * jolt_mapping_rules_examples.sql 中 mapping_rules 的 INSERT 语句：模板ID和规则JSON
+     */
+    private static final Pattern MAPPING_RULES_PATTERN = Pattern.compile(
+            "\\(\\s*(\\d+),\\s*'mapping_rules'.*?'(\\[.*?\\])'", Pattern.DOTALL);
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 日志级别调到WARN
+     */
+    static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    /**
+     * 创建包含执行指标（SimpleMeterRegistry）和给定组件的Spring上下文
+     * @param templateParams 模板ID -> 模板参数，作为 OperatorTemplateParamsService 桩的数据
+     * @param componentClasses 被测组件
+     */
+    static AnnotationConfigApplicationContext newContext(Map<Long, List<OperatorTemplateParams>> templateParams,
+                                                         Class<?>... componentClasses) {
+        quietLogging();
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        context.registerBean(OperatorTemplateParamsService.class, () -> templateParamsService(templateParams));
+        context.registerBean(OperatorTemplatesService.class, () -> unsupported(OperatorTemplatesService.class));
+        context.register(ExecutionMetrics.class);
+        context.register(componentClasses);
+        context.refresh();
+        return context;
+    }
+
+    /**
+     * 模板参数服务桩：只支持按模板ID读取参数和映射规则
+     */
+    static OperatorTemplateParamsService templateParamsService(Map<Long, List<OperatorTemplateParams>> templateParams) {
+        return (OperatorTemplateParamsService) Proxy.newProxyInstance(
+                OperatorTemplateParamsService.class.getClassLoader(),
+                new Class<?>[]{OperatorTemplateParamsService.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getParametersByTemplateId":
+                            return templateParams.getOrDefault((Long) args[0], Collections.emptyList());
+                        case "getMappingRules":
+                            return templateParams.getOrDefault((Long) args[0], Collections.emptyList()).stream()
+                                    .filter(p -> "mapping_rules".equals(p.getParamKey()))
+                                    .map(OperatorTemplateParams::getDefaultValue)
+                                    .findFirst()
+                                    .orElse(null);
+                        case "toString":
+                            return "OperatorTemplateParamsService(benchmark)";
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            throw new UnsupportedOperationException("基准测试桩不支持: " + method.getName());
+                    }
+                });
+    }
+
+    /**
+     * 不支持任何调用的服务桩，只用于满足依赖注入
+     */
+    static <T> T unsupported(Class<T> serviceClass) {
+        return serviceClass.cast(Proxy.newProxyInstance(
+                serviceClass.getClassLoader(),
+                new Class<?>[]{serviceClass},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "toString":
+                            return serviceClass.getSimpleName() + "(benchmark)";
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            throw new UnsupportedOperationException("基准测试桩不支持: " + method.getName());
+                    }
+                }));
+    }
+
+    /**
+     * 创建模板参数
+     */
+    static OperatorTemplateParams param(Long templateId, String key, String defaultValue) {
+        OperatorTemplateParams param = new OperatorTemplateParams();
+        param.setTemplateId(templateId);
+        param.setParamKey(key);
+        param.setDefaultValue(defaultValue);
+        return param;
+    }
+
+    /**
+     * 读取 jolt_mapping_rules_examples.sql 中的示例JOLT规则
+     * @return 模板ID -> 规则JSON
+     */
+    static Map<Long, String> loadMappingRuleExamples() throws Exception {
+        String sql;
+        try (InputStream in = BenchmarkSupport.class.getResourceAsStream("/jolt_mapping_rules_examples.sql")) {
+            if (in == null) {
+                throw new IllegalStateException("未找到 jolt_mapping_rules_examples.sql");
+            }
+            sql = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        Map<Long, String> rules = new HashMap<>();
+        Matcher matcher = MAPPING_RULES_PATTERN.matcher(sql);
+        while (matcher.find()) {
+            rules.put(Long.valueOf(matcher.group(1)), matcher.group(2));
+        }
+        return rules;
+    }
+
+    /**
+     * 生成 size 条记录
+     */
+    static List<Map<String, Object>> records(int size) {
+        List<Map<String, Object>> records = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> record = new HashMap<>();
+            record.put("name", "user" + i);
+            record.put("age", 18 + i % 60);
+            record.put("email", "user" + i + "@example.com");
+            record.put("phone", "138" + String.format("%08d", i));
+            record.put("birthday", "1990-01-" + String.format("%02d", 1 + i % 28));
+            records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,73 @@
+package com.operatorchoreography.benchmark;
+
+import com.operatorchoreography.engine.DagScheduler;
+import com.operatorchoreography.generator.model.WorkflowConnections;
+import com.operatorchoreography.generator.model.WorkflowNodes;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 执行队列构建（拓扑排序）基准测试
+ * 分层DAG：每层若干节点，每个节点连向下一层的两个节点；节点列表打乱顺序，模拟数据库返回的无序节点
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuildExecutionQueueBenchmark {
+
+    private static final int LAYER_WIDTH = 10;
+
+    /**
+     * 节点数
+     */
+    @Param({"10", "100", "1000"})
+    private int nodeCount;
+
+    private DagScheduler dagScheduler;
+    private List<WorkflowNodes> nodes;
+    private List<WorkflowConnections> connections;
+
+    @Setup
+    public void setup() {
+        dagScheduler = new DagScheduler();
+        nodes = new ArrayList<>(nodeCount);
+        connections = new ArrayList<>();
+        for (long id = 1; id <= nodeCount; id++) {
+            WorkflowNodes node = new WorkflowNodes();
+            node.setId(id);
+            node.setWorkflowId(1L);
+            node.setNodeName("node" + id);
+            nodes.add(node);
+        }
+        long connectionId = 1;
+        for (int i = 0; i < nodeCount; i++) {
+            int nextLayerStart = (i / LAYER_WIDTH + 1) * LAYER_WIDTH;
+            for (int k = 0; k < 2; k++) {
+                int target = nextLayerStart + (i + k) % LAYER_WIDTH;
+                if (target < nodeCount) {
+                    WorkflowConnections connection = new WorkflowConnections();
+                    connection.setId(connectionId++);
+                    connection.setWorkflowId(1L);
+                    connection.setSourceNodeId((long) i + 1);
+                    connection.setTargetNodeId((long) target + 1);
+                    connections.add(connection);
+                }
+            }
+        }
+        Collections.shuffle(nodes, new Random(42));
+        Collections.shuffle(connections, new Random(42));
+    }
+
+    @Benchmark
+    public List<WorkflowNodes> buildExecutionQueue() {
+        return dagScheduler.buildExecutionQueue(nodes, connections);
+    }
+}
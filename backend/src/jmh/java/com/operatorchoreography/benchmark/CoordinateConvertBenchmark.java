@@ -0,0 +1,96 @@
+package com.operatorchoreography.benchmark;
+
+import com.operatorchoreography.executor.CoordinateConvertExecutor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 坐标转换基准测试
+ * 对比逐点调用执行器与批量原始数组转换（WGS84 -> BD09，经过GCJ02两步转换）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoordinateConvertBenchmark {
+
+    private static final Long TEMPLATE_ID = 1L;
+    private static final String FROM_CRS = "WGS84";
+    private static final String TO_CRS = "BD09";
+
+    /**
+     * 坐标点数
+     */
+    @Param({"10000", "100000"})
+    private int pointCount;
+
+    private AnnotationConfigApplicationContext applicationContext;
+    private CoordinateConvertExecutor coordinateConvertExecutor;
+    private double[] longitudes;
+    private double[] latitudes;
+    private Map<String, Object> batchInput;
+
+    @Setup
+    public void setup() {
+        applicationContext = BenchmarkSupport.newContext(Collections.emptyMap(), CoordinateConvertExecutor.class);
+        coordinateConvertExecutor = applicationContext.getBean(CoordinateConvertExecutor.class);
+
+        longitudes = new double[pointCount];
+        latitudes = new double[pointCount];
+        for (int i = 0; i < pointCount; i++) {
+            // 国内范围内均匀分布
+            longitudes[i] = 73.0 + (i * 0.618034 % 1.0) * 62.0;
+            latitudes[i] = 18.0 + (i * 0.414214 % 1.0) * 35.0;
+        }
+        batchInput = new HashMap<>();
+        batchInput.put("longitudes", longitudes);
+        batchInput.put("latitudes", latitudes);
+        batchInput.put("fromCrs", FROM_CRS);
+        batchInput.put("toCrs", TO_CRS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    /**
+     * 逐点调用执行器（单点输入）
+     */
+    @Benchmark
+    public Object pointByPoint() throws Exception {
+        Object last = null;
+        for (int i = 0; i < pointCount; i++) {
+            Map<String, Object> input = new HashMap<>();
+            input.put("longitude", longitudes[i]);
+            input.put("latitude", latitudes[i]);
+            input.put("fromCrs", FROM_CRS);
+            input.put("toCrs", TO_CRS);
+            last = coordinateConvertExecutor.execute(input, TEMPLATE_ID);
+        }
+        return last;
+    }
+
+    /**
+     * 执行器批量模式（经纬度列输入）
+     */
+    @Benchmark
+    public Object executeBatch() throws Exception {
+        return coordinateConvertExecutor.execute(batchInput, TEMPLATE_ID);
+    }
+
+    /**
+     * 直接调用原始数组批量转换
+     */
+    @Benchmark
+    public double[][] convertBatch() {
+        return coordinateConvertExecutor.convertBatch(longitudes, latitudes, FROM_CRS, TO_CRS);
+    }
+}
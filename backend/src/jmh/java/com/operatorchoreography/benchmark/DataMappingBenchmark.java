@@ -0,0 +1,137 @@
+package com.operatorchoreography.benchmark;
+
+import com.bazaarvoice.jolt.Chainr;
+import com.bazaarvoice.jolt.JsonUtils;
+import com.operatorchoreography.executor.DataMappingExecutor;
+import com.operatorchoreography.generator.model.OperatorTemplateParams;
+import com.operatorchoreography.service.JoltChainrCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JOLT数据映射基准测试
+ * 规则取自 jolt_mapping_rules_examples.sql 的四个示例（字段重命名、数组转换+默认值、计算、扁平化），
+ * 对比执行器完整路径（规则缓存）与每次编译规则的开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataMappingBenchmark {
+
+    /**
+     * 示例规则对应的模板ID
+     */
+    @Param({"1", "2", "3", "4"})
+    private long templateId;
+
+    private AnnotationConfigApplicationContext applicationContext;
+    private DataMappingExecutor dataMappingExecutor;
+    private String joltSpec;
+    private Map<String, Object> inputData;
+
+    @Setup
+    public void setup() throws Exception {
+        Map<Long, String> examples = BenchmarkSupport.loadMappingRuleExamples();
+        joltSpec = examples.get(templateId);
+        if (joltSpec == null) {
+            throw new IllegalStateException("示例中未找到模板的映射规则: templateId=" + templateId);
+        }
+        Map<Long, List<OperatorTemplateParams>> templateParams = new HashMap<>();
+        templateParams.put(templateId, List.of(BenchmarkSupport.param(templateId, "mapping_rules", joltSpec)));
+        applicationContext = BenchmarkSupport.newContext(templateParams, DataMappingExecutor.class, JoltChainrCache.class);
+        dataMappingExecutor = applicationContext.getBean(DataMappingExecutor.class);
+
+        inputData = new HashMap<>();
+        inputData.put("inputData", sampleInput(templateId));
+    }
+
+    @TearDown
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    /**
+     * 执行器完整路径：读取模板规则、命中已编译的 Chainr、转换并包装结果
+     */
+    @Benchmark
+    public Object execute() throws Exception {
+        return dataMappingExecutor.execute(inputData, templateId);
+    }
+
+    /**
+     * 每次调用都解析并编译规则（缓存前的路径）
+     */
+    @Benchmark
+    public Object compileEachCall() {
+        Chainr chainr = Chainr.fromSpec(JsonUtils.jsonToList(joltSpec));
+        return chainr.transform(inputData.get("inputData"));
+    }
+
+    /**
+     * 与各示例规则匹配的输入数据
+     */
+    private static Map<String, Object> sampleInput(long templateId) {
+        Map<String, Object> input = new HashMap<>();
+        if (templateId == 1L) {
+            input.put("name", "张三");
+            input.put("age", 30);
+            input.put("email", "zhangsan@example.com");
+            input.put("phone", "13800138000");
+            Map<String, Object> address = new HashMap<>();
+            address.put("street", "中山路1号");
+            address.put("city", "上海");
+            address.put("zipcode", "200000");
+            input.put("address", address);
+        } else if (templateId == 2L) {
+            List<Map<String, Object>> users = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                Map<String, Object> user = new HashMap<>();
+                user.put("name", "user" + i);
+                user.put("age", 20 + i);
+                user.put("skills", List.of("java", "sql", "jolt"));
+                users.add(user);
+            }
+            input.put("users", users);
+        } else if (templateId == 3L) {
+            Map<String, Object> order = new HashMap<>();
+            order.put("id", "ORD-0001");
+            order.put("customer", "张三");
+            order.put("total", 299.5);
+            List<Map<String, Object>> items = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                Map<String, Object> item = new HashMap<>();
+                item.put("name", "商品" + i);
+                item.put("price", 9.9 + i);
+                item.put("quantity", 1 + i % 5);
+                items.add(item);
+            }
+            order.put("items", items);
+            input.put("order", order);
+        } else {
+            Map<String, Object> contactInfo = new HashMap<>();
+            contactInfo.put("email", "lisi@example.com");
+            contactInfo.put("phone", "13900139000");
+            Map<String, Object> profile = new HashMap<>();
+            profile.put("firstName", "四");
+            profile.put("lastName", "李");
+            profile.put("contactInfo", contactInfo);
+            Map<String, Object> preferences = new HashMap<>();
+            preferences.put("language", "zh-CN");
+            preferences.put("timezone", "Asia/Shanghai");
+            Map<String, Object> user = new HashMap<>();
+            user.put("profile", profile);
+            user.put("preferences", preferences);
+            input.put("user", user);
+        }
+        return input;
+    }
+}
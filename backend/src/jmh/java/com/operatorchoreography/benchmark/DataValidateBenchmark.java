@@ -0,0 +1,95 @@
+package com.operatorchoreography.benchmark;
+
+import com.operatorchoreography.executor.DataValidateExecutor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 数据校验基准测试
+ * 单条记录校验与批量记录校验（预编译规则，超过阈值时并行）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataValidateBenchmark {
+
+    private static final Long TEMPLATE_ID = 1L;
+
+    /**
+     * 批量校验的记录数
+     */
+    @Param({"100", "10000"})
+    private int recordCount;
+
+    private AnnotationConfigApplicationContext applicationContext;
+    private DataValidateExecutor dataValidateExecutor;
+    private Map<String, Object> singleInput;
+    private Map<String, Object> bulkInput;
+
+    @Setup
+    public void setup() {
+        applicationContext = BenchmarkSupport.newContext(Collections.emptyMap(), DataValidateExecutor.class);
+        dataValidateExecutor = applicationContext.getBean(DataValidateExecutor.class);
+
+        List<Map<String, Object>> rules = List.of(
+                rule("name", "string", true),
+                rule("age", "integer", true, 0, 150),
+                rule("email", "email", true),
+                rule("phone", "phone", false),
+                rule("birthday", "date", false));
+        List<Map<String, Object>> records = BenchmarkSupport.records(recordCount);
+
+        singleInput = new HashMap<>();
+        singleInput.put("inputData", records.get(0));
+        singleInput.put("validationRules", rules);
+
+        bulkInput = new HashMap<>();
+        bulkInput.put("records", records);
+        bulkInput.put("validationRules", rules);
+    }
+
+    @TearDown
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    /**
+     * 单条记录校验
+     */
+    @Benchmark
+    public Object validateSingle() throws Exception {
+        return dataValidateExecutor.execute(singleInput, TEMPLATE_ID);
+    }
+
+    /**
+     * 批量记录校验
+     */
+    @Benchmark
+    public Object validateBulk() throws Exception {
+        return dataValidateExecutor.execute(bulkInput, TEMPLATE_ID);
+    }
+
+    private static Map<String, Object> rule(String field, String type, boolean required) {
+        Map<String, Object> rule = new HashMap<>();
+        rule.put("field", field);
+        rule.put("type", type);
+        rule.put("required", required);
+        return rule;
+    }
+
+    private static Map<String, Object> rule(String field, String type, boolean required, double minValue, double maxValue) {
+        Map<String, Object> rule = rule(field, type, required);
+        rule.put("minValue", minValue);
+        rule.put("maxValue", maxValue);
+        return rule;
+    }
+}
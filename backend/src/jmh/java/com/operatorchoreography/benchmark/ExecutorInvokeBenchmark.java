@@ -0,0 +1,112 @@
+package com.operatorchoreography.benchmark;
+
+import com.operatorchoreography.executor.ExecutorManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 执行器调用基准测试
+ * 对比旧的每次反射查找调用路径与 ExecutorManager 缓存的执行器函数，
+ * 以及 executeOperator 完整分派（结果包装、算子指标）的开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutorInvokeBenchmark {
+
+    private static final String EXECUTOR_CLASS = NoopExecutor.class.getName();
+    private static final String EXECUTOR_METHOD = "execute";
+    private static final Long TEMPLATE_ID = 1L;
+
+    private AnnotationConfigApplicationContext applicationContext;
+    private ExecutorManager executorManager;
+    private ExecutorManager.ExecutorInvoker cachedInvoker;
+    private Object cachedExecutor;
+    private Method cachedMethod;
+    private Map<String, Object> inputData;
+
+    /**
+     * 空执行器，只返回输入，测量结果只包含调用分派开销
+     */
+    public static class NoopExecutor {
+        public Map<String, Object> execute(Map<String, Object> inputData, Long templateId) {
+            return inputData;
+        }
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        applicationContext = BenchmarkSupport.newContext(Collections.emptyMap(), ExecutorManager.class, NoopExecutor.class);
+        executorManager = applicationContext.getBean(ExecutorManager.class);
+        cachedInvoker = executorManager.resolveInvoker(EXECUTOR_CLASS, EXECUTOR_METHOD);
+        cachedExecutor = applicationContext.getBean(NoopExecutor.class);
+        cachedMethod = NoopExecutor.class.getMethod(EXECUTOR_METHOD, Map.class, Long.class);
+        inputData = new HashMap<>();
+        inputData.put("value", 42);
+    }
+
+    @TearDown
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    /**
+     * 旧路径：每次调用都 Class.forName + getBean + getMethod + Method.invoke
+     */
+    @Benchmark
+    public Object reflectiveLookupPerCall() throws Exception {
+        Class<?> clazz = Class.forName(EXECUTOR_CLASS);
+        Object executor = applicationContext.getBean(clazz);
+        Method method = clazz.getMethod(EXECUTOR_METHOD, Map.class, Long.class);
+        return method.invoke(executor, inputData, TEMPLATE_ID);
+    }
+
+    /**
+     * 仅缓存 Method，仍使用反射调用
+     */
+    @Benchmark
+    public Object cachedMethodInvoke() throws Exception {
+        return cachedMethod.invoke(cachedExecutor, inputData, TEMPLATE_ID);
+    }
+
+    /**
+     * 新路径：按(类名, 方法名)从缓存获取执行器并调用
+     */
+    @Benchmark
+    public Object invokerCacheLookup() throws Exception {
+        return executorManager.resolveInvoker(EXECUTOR_CLASS, EXECUTOR_METHOD).invoke(inputData, TEMPLATE_ID);
+    }
+
+    /**
+     * 执行计划中预解析的执行器，直接调用
+     */
+    @Benchmark
+    public Object preResolvedInvoker() throws Exception {
+        return cachedInvoker.invoke(inputData, TEMPLATE_ID);
+    }
+
+    /**
+     * executeOperator 完整分派：按类名解析执行器、调用、包装为 ExecutorResult 并记录算子指标
+     */
+    @Benchmark
+    public Object executeOperator() throws Exception {
+        return executorManager.executeOperator(EXECUTOR_CLASS, EXECUTOR_METHOD, inputData, TEMPLATE_ID, "noop");
+    }
+
+    /**
+     * executeOperator 使用预解析的执行器
+     */
+    @Benchmark
+    public Object executeOperatorPreResolved() {
+        return executorManager.executeOperator(cachedInvoker, inputData, TEMPLATE_ID, "noop");
+    }
+}
@@ -0,0 +1,131 @@
+package com.operatorchoreography.benchmark;
+
+import com.operatorchoreography.executor.DownstreamOperatorInvoker;
+import com.operatorchoreography.executor.ExecutorManager;
+import com.operatorchoreography.executor.MySqlInsertExecutor;
+import com.operatorchoreography.executor.MySqlQueryExecutor;
+import com.operatorchoreography.generator.model.OperatorTemplateParams;
+import com.operatorchoreography.service.ConcurrencyLimiter;
+import com.operatorchoreography.service.DynamicDataSourceService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MySQL执行器基准测试
+ * 使用MySQL兼容模式的内存H2数据库，测量执行器自身开销（模板参数、数据源句柄、SQL构建、结果包装），
+ * 不代表真实MySQL的网络和磁盘耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MySqlExecutorBenchmark {
+
+    private static final Long TEMPLATE_ID = 1L;
+    private static final String TABLE = "bench_user";
+    private static final int TABLE_ROWS = 10000;
+    private static final int INSERT_ROWS = 500;
+    private static final String DATASOURCE = "{\"url\":\"jdbc:h2:mem:bench_mysql;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1\","
+            + "\"driver-class-name\":\"org.h2.Driver\",\"username\":\"sa\",\"password\":\"\",\"maxPoolSize\":4}";
+
+    private AnnotationConfigApplicationContext applicationContext;
+    private MySqlQueryExecutor mySqlQueryExecutor;
+    private MySqlInsertExecutor mySqlInsertExecutor;
+    private Map<String, Object> pageQueryInput;
+    private Map<String, Object> upsertInput;
+    private Map<String, Object> jdbcBatchInput;
+
+    @Setup
+    public void setup() throws Exception {
+        Map<Long, List<OperatorTemplateParams>> templateParams = new HashMap<>();
+        templateParams.put(TEMPLATE_ID, List.of(
+                BenchmarkSupport.param(TEMPLATE_ID, "datasource", DATASOURCE),
+                BenchmarkSupport.param(TEMPLATE_ID, "table", TABLE)));
+        applicationContext = BenchmarkSupport.newContext(templateParams,
+                MySqlQueryExecutor.class, MySqlInsertExecutor.class, DynamicDataSourceService.class,
+                ConcurrencyLimiter.class, DownstreamOperatorInvoker.class, ExecutorManager.class);
+        mySqlQueryExecutor = applicationContext.getBean(MySqlQueryExecutor.class);
+        mySqlInsertExecutor = applicationContext.getBean(MySqlInsertExecutor.class);
+
+        JdbcTemplate jdbcTemplate = applicationContext.getBean(DynamicDataSourceService.class)
+                .getJdbcTemplate(templateParams.get(TEMPLATE_ID));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + TABLE);
+        // 与业务表一致使用字符串主键，批量插入未提供id时由执行器生成UUID
+        jdbcTemplate.execute("CREATE TABLE " + TABLE + " (id VARCHAR(36) PRIMARY KEY, "
+                + "name VARCHAR(64), age INT, email VARCHAR(128) UNIQUE, phone VARCHAR(32), birthday VARCHAR(16))");
+        List<Map<String, Object>> rows = BenchmarkSupport.records(TABLE_ROWS);
+        List<Object[]> batchArgs = new ArrayList<>(TABLE_ROWS);
+        for (int i = 0; i < TABLE_ROWS; i++) {
+            Map<String, Object> row = rows.get(i);
+            batchArgs.add(new Object[]{rowId(i), row.get("name"), row.get("age"), row.get("email"), row.get("phone"), row.get("birthday")});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO " + TABLE + " (id, name, age, email, phone, birthday) VALUES (?, ?, ?, ?, ?, ?)",
+                batchArgs);
+
+        pageQueryInput = new HashMap<>();
+        pageQueryInput.put("sql_statement", "SELECT * FROM " + TABLE + " WHERE age >= ? ORDER BY id LIMIT 1000");
+        pageQueryInput.put("query_params", Map.of("age", 18));
+
+        // 重复写入已有记录（email唯一），走 ON DUPLICATE KEY UPDATE 更新分支，表大小保持不变
+        List<Map<String, Object>> insertRows = new ArrayList<>(rows.subList(0, INSERT_ROWS));
+        upsertInput = new HashMap<>();
+        upsertInput.put("inputData", insertRows);
+        upsertInput.put("table", TABLE);
+        jdbcBatchInput = new HashMap<>(upsertInput);
+        jdbcBatchInput.put("mode", "jdbcBatch");
+    }
+
+    @TearDown
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    /**
+     * 按主键查询单行
+     */
+    @Benchmark
+    public Object queryById() throws Exception {
+        Map<String, Object> input = new HashMap<>();
+        input.put("sql_statement", "SELECT * FROM " + TABLE + " WHERE id = ?");
+        input.put("query_params", Map.of("id", rowId(ThreadLocalRandom.current().nextInt(TABLE_ROWS))));
+        return mySqlQueryExecutor.execute(input, TEMPLATE_ID);
+    }
+
+    /**
+     * 查询1000行
+     */
+    @Benchmark
+    public Object queryPage() throws Exception {
+        return mySqlQueryExecutor.execute(pageQueryInput, TEMPLATE_ID);
+    }
+
+    /**
+     * 批量插入（多行VALUES + ON DUPLICATE KEY UPDATE）
+     */
+    @Benchmark
+    public Object batchInsertMultiValues() throws Exception {
+        return mySqlInsertExecutor.batchInsert(upsertInput, TEMPLATE_ID);
+    }
+
+    /**
+     * 批量插入（JDBC批处理 + ON DUPLICATE KEY UPDATE）
+     */
+    @Benchmark
+    public Object batchInsertJdbcBatch() throws Exception {
+        return mySqlInsertExecutor.batchInsert(jdbcBatchInput, TEMPLATE_ID);
+    }
+
+    private static String rowId(int index) {
+        return "user-" + index;
+    }
+}
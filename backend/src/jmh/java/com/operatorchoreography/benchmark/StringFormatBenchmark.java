@@ -0,0 +1,69 @@
+package com.operatorchoreography.benchmark;
+
+import com.operatorchoreography.executor.StringFormatExecutor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 字符串格式化基准测试
+ * 模板占位符替换与printf风格格式化
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringFormatBenchmark {
+
+    private static final Long TEMPLATE_ID = 1L;
+
+    private StringFormatExecutor stringFormatExecutor;
+    private Map<String, Object> templateInput;
+    private Map<String, Object> printfInput;
+
+    @Setup
+    public void setup() {
+        BenchmarkSupport.quietLogging();
+        stringFormatExecutor = new StringFormatExecutor();
+
+        Map<String, Object> formatData = new HashMap<>();
+        formatData.put("name", "张三");
+        formatData.put("orderId", "ORD-0001");
+        formatData.put("amount", 299.5);
+        formatData.put("city", "上海");
+        templateInput = new HashMap<>();
+        templateInput.put("inputString", "尊敬的${name}，您在${city}的订单${orderId}已支付${amount}元，订单${orderId}将尽快发货");
+        templateInput.put("formatData", formatData);
+        templateInput.put("formatType", "template");
+
+        Map<String, Object> printfData = new LinkedHashMap<>();
+        printfData.put("name", "张三");
+        printfData.put("orderId", "ORD-0001");
+        printfData.put("amount", 299.5);
+        printfInput = new HashMap<>();
+        printfInput.put("inputString", "尊敬的%s，订单%s已支付%.2f元");
+        printfInput.put("formatData", printfData);
+        printfInput.put("formatType", "printf");
+    }
+
+    /**
+     * ${key} 占位符替换
+     */
+    @Benchmark
+    public Object formatTemplate() throws Exception {
+        return stringFormatExecutor.execute(templateInput, TEMPLATE_ID);
+    }
+
+    /**
+     * printf风格格式化
+     */
+    @Benchmark
+    public Object formatPrintf() throws Exception {
+        return stringFormatExecutor.execute(printfInput, TEMPLATE_ID);
+    }
+}
@@ -2,6 +2,7 @@ package com.operatorchoreography.controller;
 
 import com.operatorchoreography.common.Result;
 import com.operatorchoreography.executor.DataMappingExecutor;
+import com.operatorchoreography.service.JoltChainrCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -24,6 +25,9 @@ public class JoltTestController {
     @Autowired
     private DataMappingExecutor dataMappingExecutor;
 
+    @Autowired
+    private JoltChainrCache joltChainrCache;
+
     /**
      * 获取JOLT测试样例列表
      */
@@ -187,6 +191,15 @@ public class JoltTestController {
         }
     }
 
+    /**
+     * 获取JOLT转换链缓存统计
+     */
+    @Operation(summary = "获取JOLT转换链缓存统计", description = "获取已编译JOLT规则缓存的命中、未命中及淘汰次数")
+    @GetMapping("/cache/stats")
+    public Result<Map<String, Object>> getCacheStats() {
+        return Result.success(joltChainrCache.getStats());
+    }
+
     // ========== 私有方法 ==========
 
     /**
@@ -285,7 +298,7 @@ public class JoltTestController {
      */
     private Map<String, Object> executeJoltTransformation(Object joltSpecJson, Object inputData) throws Exception {
         try {
-            com.bazaarvoice.jolt.Chainr chainr = com.bazaarvoice.jolt.Chainr.fromSpec(joltSpecJson);
+            com.bazaarvoice.jolt.Chainr chainr = joltChainrCache.getChainr(null, joltSpecJson);
             Object transformedData = chainr.transform(inputData);
             
             Map<String, Object> result = new HashMap<>();
@@ -0,0 +1,178 @@
+package com.operatorchoreography.engine;
+
+import com.operatorchoreography.executor.ExecutionContext;
+import com.operatorchoreography.executor.ExecutorResult;
+import com.operatorchoreography.executor.ExecutorStatus;
+import com.operatorchoreography.expression.CompiledExpression;
+import com.operatorchoreography.generator.model.WorkflowConnections;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 编译后的节点连线
+ * 连线条件和数据映射在编译执行计划时解析，执行时只求值，创建后不再修改：
+ * <ul>
+ *     <li>connection_type：CONTROL 只控制执行顺序不传递数据；ERROR 只在上游失败时通过，传递上游的错误信息；
+ *     其余（DATA、DATA_FLOW、未配置）为数据连线</li>
+ *     <li>condition_expression：上游成功后求值，为假时连线不通过；所有入边都不通过的节点记为跳过，不会执行</li>
+ *     <li>data_mapping：{"目标字段": "表达式"}，只把映射出的字段传给下游；常量写作 {"目标字段": {"value": 常量}}
+ *     （字符串常量必须用该形式），其他非字符串的值也作为常量</li>
+ *     <li>source_port：未配置数据映射时，只传递上游输出中该字段的值（上游输出没有该字段时传递完整输出）</li>
+ *     <li>target_port：传递的数据放在下游 inputData 的该字段下，未配置时与其他入边的数据按字段合并</li>
+ * </ul>
+ * 条件和数据映射中的字段路径相对上游节点的完整输出，input 引用工作流输入（上游输出没有同名字段时）
+ */
+@Slf4j
+public final class ConnectionRoute {
+
+    /**
+     * 连线类型
+     */
+    public enum Kind {
+        DATA,
+        CONTROL,
+        ERROR
+    }
+
+    private static final String INPUT_VARIABLE = "input";
+
+    private final WorkflowConnections connection;
+    private final Kind kind;
+    private final CompiledExpression condition;
+    private final Map<String, Object> mappings;
+
+    /**
+     * @param connection 连线
+     * @param condition 编译后的连线条件，未配置时为null
+     * @param mappings 目标字段 -> 编译后的表达式或常量，未配置时为null
+     */
+    public ConnectionRoute(WorkflowConnections connection, CompiledExpression condition, Map<String, Object> mappings) {
+        this.connection = connection;
+        this.kind = resolveKind(connection.getConnectionType());
+        this.condition = condition;
+        this.mappings = mappings != null ? Collections.unmodifiableMap(new LinkedHashMap<>(mappings)) : null;
+    }
+
+    public static Kind resolveKind(String connectionType) {
+        if ("CONTROL".equalsIgnoreCase(connectionType)) {
+            return Kind.CONTROL;
+        }
+        if ("ERROR".equalsIgnoreCase(connectionType)) {
+            return Kind.ERROR;
+        }
+        return Kind.DATA;
+    }
+
+    public WorkflowConnections getConnection() {
+        return connection;
+    }
+
+    public Long getSourceNodeId() {
+        return connection.getSourceNodeId();
+    }
+
+    public Long getTargetNodeId() {
+        return connection.getTargetNodeId();
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getTargetPort() {
+        return isBlank(connection.getTargetPort()) ? null : connection.getTargetPort();
+    }
+
+    /**
+     * 上游结束后连线是否通过
+     * 上游被跳过时不通过；上游失败时只有 ERROR 连线和不带条件的普通连线通过（保持 on_error=CONTINUE 时下游继续执行）
+     * @param sourceResult 上游结果
+     * @param workflowInput 工作流输入
+     */
+    public boolean isTaken(ExecutorResult sourceResult, Map<String, Object> workflowInput) {
+        if (sourceResult == null || sourceResult.getStatus() == ExecutorStatus.SKIPPED) {
+            return false;
+        }
+        if (kind == Kind.ERROR) {
+            return !sourceResult.isSuccess();
+        }
+        if (condition == null) {
+            return true;
+        }
+        if (!sourceResult.isSuccess()) {
+            return false;
+        }
+        try {
+            return condition.evaluateBoolean(evaluationContext(sourceResult.getOutputData(), workflowInput));
+        } catch (Exception e) {
+            log.warn("连线条件求值失败，按不通过处理: connectionId={}, 条件: {}, 错误: {}",
+                    connection.getId(), condition, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 沿连线传递给下游的数据，已通过的连线才调用
+     * @return 传递的数据，不传递数据时返回null
+     */
+    public Map<String, Object> payload(ExecutorResult sourceResult, Map<String, Object> workflowInput) {
+        if (kind == Kind.CONTROL) {
+            return null;
+        }
+        if (kind == Kind.ERROR) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("nodeId", sourceResult.getNodeId());
+            error.put("nodeName", sourceResult.getNodeName());
+            error.put("status", sourceResult.getStatus() != null ? sourceResult.getStatus().name() : null);
+            error.put("errorMessage", sourceResult.getErrorMessage());
+            return error;
+        }
+        if (!sourceResult.isSuccess()) {
+            return null;
+        }
+        Map<String, Object> output = sourceResult.getOutputData();
+        if (mappings != null) {
+            Map<String, Object> context = evaluationContext(output, workflowInput);
+            Map<String, Object> mapped = new LinkedHashMap<>();
+            mappings.forEach((field, source) -> mapped.put(field, source instanceof CompiledExpression
+                    ? ((CompiledExpression) source).evaluate(context) : source));
+            return mapped;
+        }
+        String sourcePort = connection.getSourcePort();
+        if (output != null && !isBlank(sourcePort) && output.containsKey(sourcePort)) {
+            Object value = output.get(sourcePort);
+            if (value instanceof Map) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> portValue = (Map<String, Object>) value;
+                return portValue;
+            }
+            return Collections.singletonMap(sourcePort, value);
+        }
+        return output;
+    }
+
+    /**
+     * 求值上下文：上游输出之上的一层，只补充 input 变量，不复制上游输出
+     */
+    private Map<String, Object> evaluationContext(Map<String, Object> output, Map<String, Object> workflowInput) {
+        ExecutionContext context = ExecutionContext.over(output);
+        if (!context.containsKey(INPUT_VARIABLE)) {
+            context.put(INPUT_VARIABLE, workflowInput);
+        }
+        return context;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return connection.getSourceNodeId() + "->" + connection.getTargetNodeId() + "(" + kind
+                + (condition != null ? ", " + condition : "") + ")";
+    }
+}
@@ -0,0 +1,467 @@
+package com.operatorchoreography.engine;
+
+import com.operatorchoreography.executor.ExecutionContext;
+import com.operatorchoreography.executor.ExecutorResult;
+import com.operatorchoreography.executor.ExecutorStatus;
+import com.operatorchoreography.generator.model.WorkflowConnections;
+import com.operatorchoreography.generator.model.WorkflowNodes;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+/**
+ * DAG调度器
+ * 节点的所有上游连线完成后立即派发该节点，相互独立的分支在有界线程池上并发执行
+ * 以I/O为主的节点可以派发到虚拟线程上执行，并发上限由数据源、主机级别的信号量控制，而不是线程池大小
+ * 节点失败且 on_error 为 STOP 时不再派发新的节点，尚未执行的节点记为跳过；CONTINUE/RETRY 时继续执行其他节点
+ * 上游结束时按 {@link ConnectionRoute} 逐条求值出边：数据只沿通过的连线传给对应的下游，
+ * 所有入边都不通过的节点记为跳过且不执行，跳过沿其出边继续传播，未选中的分支整体被剪掉
+ */
+@Slf4j
+@Component
+public class DagScheduler {
+
+    @Value("${workflow.engine.dag.max-parallelism:8}")
+    private int maxParallelism;
+
+    @Value("${workflow.engine.dag.queue-capacity:1000}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor nodeExecutor;
+
+    private ExecutorService virtualNodeExecutor;
+
+    /**
+     * 节点执行回调
+     */
+    @FunctionalInterface
+    public interface NodeTask {
+        /**
+         * 执行单个节点
+         * @param node 节点
+         * @param nodeInput 节点输入（工作流输入 + 通过的入边传递的数据）
+         * @return 执行结果
+         */
+        ExecutorResult execute(WorkflowNodes node, Map<String, Object> nodeInput);
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        nodeExecutor = new ThreadPoolExecutor(
+                maxParallelism, maxParallelism,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "dag-node-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // 队列已满时由提交线程直接执行，形成自然的背压
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        nodeExecutor.allowCoreThreadTimeOut(true);
+        virtualNodeExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("dag-vnode-", 0).factory());
+        log.info("DAG调度器初始化完成: maxParallelism={}, queueCapacity={}", maxParallelism, queueCapacity);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        log.info("关闭DAG调度线程池");
+        nodeExecutor.shutdownNow();
+        virtualNodeExecutor.shutdownNow();
+    }
+
+    /**
+     * 构建节点执行队列（拓扑排序）
+     */
+    public List<WorkflowNodes> buildExecutionQueue(List<WorkflowNodes> nodes, List<WorkflowConnections> connections) {
+        // 构建邻接表和入度表
+        Map<Long, List<Long>> adjacencyList = new HashMap<>();
+        Map<Long, Integer> inDegree = new HashMap<>();
+        Map<Long, WorkflowNodes> nodeMap = new HashMap<>();
+        
+        // 初始化
+        for (WorkflowNodes node : nodes) {
+            nodeMap.put(node.getId(), node);
+            adjacencyList.put(node.getId(), new ArrayList<>());
+            inDegree.put(node.getId(), 0);
+        }
+        
+        // 构建图
+        for (WorkflowConnections connection : connections) {
+            Long fromNodeId = connection.getSourceNodeId();
+            Long toNodeId = connection.getTargetNodeId();
+            
+            if (nodeMap.containsKey(fromNodeId) && nodeMap.containsKey(toNodeId)) {
+                adjacencyList.get(fromNodeId).add(toNodeId);
+                inDegree.put(toNodeId, inDegree.get(toNodeId) + 1);
+            }
+        }
+        
+        // 拓扑排序
+        Queue<Long> queue = new LinkedList<>();
+        List<WorkflowNodes> result = new ArrayList<>();
+        
+        // 找到所有入度为0的节点（起始节点）
+        for (Map.Entry<Long, Integer> entry : inDegree.entrySet()) {
+            if (entry.getValue() == 0) {
+                queue.offer(entry.getKey());
+            }
+        }
+        
+        // 如果没有入度为0的节点，选择第一个节点作为起始点
+        if (queue.isEmpty() && !nodes.isEmpty()) {
+            queue.offer(nodes.get(0).getId());
+        }
+        
+        while (!queue.isEmpty()) {
+            Long currentNodeId = queue.poll();
+            WorkflowNodes currentNode = nodeMap.get(currentNodeId);
+            if (currentNode != null) {
+                result.add(currentNode);
+                
+                // 更新相邻节点的入度
+                for (Long neighborId : adjacencyList.get(currentNodeId)) {
+                    inDegree.put(neighborId, inDegree.get(neighborId) - 1);
+                    if (inDegree.get(neighborId) == 0) {
+                        queue.offer(neighborId);
+                    }
+                }
+            }
+        }
+        
+        // 如果还有节点没有被处理（可能存在环），将剩余节点添加到队列末尾
+        for (WorkflowNodes node : nodes) {
+            if (!result.contains(node)) {
+                result.add(node);
+            }
+        }
+        
+        return result;
+    }
+
+    /**
+     * 按DAG依赖并发执行节点，连线条件和数据映射取自编译后的连线
+     * @param executionQueue 拓扑排序后的节点队列
+     * @param routes 编译后的连线
+     * @param inputData 工作流输入
+     * @param task 节点执行回调
+     * @param onVirtualThread 判断节点是否在虚拟线程上执行
+     * @return 调度结果
+     */
+    public DagExecutionResult executeRoutes(List<WorkflowNodes> executionQueue, List<ConnectionRoute> routes,
+                                            Map<String, Object> inputData, NodeTask task,
+                                            Predicate<WorkflowNodes> onVirtualThread) {
+        int size = executionQueue.size();
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            positions.put(executionQueue.get(i).getId(), i);
+        }
+
+        // 只保留与拓扑顺序一致的边，环上的回边被忽略（与拓扑排序把剩余节点追加到队尾的处理保持一致）
+        // 同一对节点之间可以有多条连线（不同端口），每条连线单独求值
+        List<Edge> edges = new ArrayList<>();
+        List<List<Edge>> upstream = new ArrayList<>(size);
+        List<List<Edge>> downstream = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            upstream.add(new ArrayList<>());
+            downstream.add(new ArrayList<>());
+        }
+        for (ConnectionRoute route : routes) {
+            Integer from = positions.get(route.getSourceNodeId());
+            Integer to = positions.get(route.getTargetNodeId());
+            if (from != null && to != null && from < to) {
+                Edge edge = new Edge(edges.size(), from, to, route);
+                edges.add(edge);
+                downstream.get(from).add(edge);
+                upstream.get(to).add(edge);
+            }
+        }
+        // 入边按上游拓扑顺序排列，多个上游的数据按该顺序合并
+        for (List<Edge> incoming : upstream) {
+            incoming.sort(Comparator.comparingInt(edge -> edge.from));
+        }
+
+        AtomicIntegerArray remaining = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            remaining.set(i, upstream.get(i).size());
+        }
+
+        AtomicReferenceArray<ExecutorResult> results = new AtomicReferenceArray<>(size);
+        AtomicInteger pending = new AtomicInteger(size);
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        if (size == 0) {
+            completion.complete(null);
+        }
+
+        DagRun run = new DagRun(executionQueue, upstream, downstream, new AtomicReferenceArray<>(edges.size()),
+                remaining, results, pending, completion, inputData, task, onVirtualThread);
+        for (int i = 0; i < size; i++) {
+            if (upstream.get(i).isEmpty()) {
+                run.dispatch(i);
+            }
+        }
+
+        try {
+            completion.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("工作流调度被中断", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("工作流调度失败: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        List<ExecutorResult> nodeResults = new ArrayList<>(size);
+        Map<String, Object> finalOutput = ExecutionContext.over(inputData);
+        for (int i = 0; i < size; i++) {
+            ExecutorResult result = results.get(i);
+            nodeResults.add(result);
+            // 与顺序执行保持一致：按拓扑顺序最后一个成功节点的输出作为最终inputData
+            if (result != null && result.isSuccess()) {
+                finalOutput.put("inputData", result.getOutputData());
+            }
+        }
+        return new DagExecutionResult(nodeResults, finalOutput);
+    }
+
+    /**
+     * 拓扑顺序一致的连线
+     */
+    private static final class Edge {
+        private final int index;
+        private final int from;
+        private final int to;
+        private final ConnectionRoute route;
+
+        Edge(int index, int from, int to, ConnectionRoute route) {
+            this.index = index;
+            this.from = from;
+            this.to = to;
+            this.route = route;
+        }
+    }
+
+    /**
+     * 连线已通过但不传递数据（CONTROL 连线、失败上游的普通连线）
+     */
+    private static final Object TAKEN_WITHOUT_DATA = new Object();
+
+    /**
+     * 连线未通过
+     */
+    private static final Object NOT_TAKEN = new Object();
+
+    /**
+     * 单次调度的运行状态
+     */
+    private final class DagRun {
+        private final List<WorkflowNodes> executionQueue;
+        private final List<List<Edge>> upstream;
+        private final List<List<Edge>> downstream;
+        /**
+         * 连线序号 -> 沿该连线传递的数据、TAKEN_WITHOUT_DATA 或 NOT_TAKEN，上游结束时写入
+         */
+        private final AtomicReferenceArray<Object> edgeValues;
+        private final AtomicIntegerArray remaining;
+        private final AtomicReferenceArray<ExecutorResult> results;
+        private final AtomicInteger pending;
+        private final CompletableFuture<Void> completion;
+        private final Map<String, Object> inputData;
+        private final NodeTask task;
+        private final Predicate<WorkflowNodes> onVirtualThread;
+        private volatile String stoppedBy;
+
+        DagRun(List<WorkflowNodes> executionQueue, List<List<Edge>> upstream, List<List<Edge>> downstream,
+               AtomicReferenceArray<Object> edgeValues, AtomicIntegerArray remaining,
+               AtomicReferenceArray<ExecutorResult> results, AtomicInteger pending,
+               CompletableFuture<Void> completion, Map<String, Object> inputData, NodeTask task,
+               Predicate<WorkflowNodes> onVirtualThread) {
+            this.executionQueue = executionQueue;
+            this.upstream = upstream;
+            this.downstream = downstream;
+            this.edgeValues = edgeValues;
+            this.remaining = remaining;
+            this.results = results;
+            this.pending = pending;
+            this.completion = completion;
+            this.inputData = inputData;
+            this.task = task;
+            this.onVirtualThread = onVirtualThread;
+        }
+
+        void dispatch(int index) {
+            try {
+                Executor executor = onVirtualThread.test(executionQueue.get(index)) ? virtualNodeExecutor : nodeExecutor;
+                executor.execute(() -> runNode(index));
+            } catch (RejectedExecutionException e) {
+                completion.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * 执行节点并推进下游；调度自身出错（非节点执行失败）时整次调度失败，避免等待方永久阻塞
+         */
+        private void runNode(int index) {
+            try {
+                complete(index);
+            } catch (Throwable t) {
+                log.error("节点调度失败: {}, 错误: {}", executionQueue.get(index).getNodeName(), t.getMessage(), t);
+                completion.completeExceptionally(t);
+            }
+        }
+
+        private void complete(int index) {
+            WorkflowNodes node = executionQueue.get(index);
+            ExecutorResult result;
+            if (stoppedBy != null) {
+                result = ExecutorResult.skipped("上游节点执行失败，工作流已停止: " + stoppedBy)
+                                       .withNodeInfo(node.getId(), node.getNodeName());
+            } else if (!hasTakenEdge(index)) {
+                result = ExecutorResult.skipped("上游连线条件均未满足，分支未执行")
+                                       .withNodeInfo(node.getId(), node.getNodeName());
+            } else {
+                try {
+                    result = task.execute(node, buildNodeInput(index));
+                } catch (Exception e) {
+                    log.error("节点执行失败: {}, 错误: {}", node.getNodeName(), e.getMessage());
+                    result = ExecutorResult.failure(ExecutorStatus.FAILED.getDescription(), e.getMessage());
+                }
+                if (!result.isSuccess() && isStopOnError(node)) {
+                    log.warn("节点执行失败，按 on_error=STOP 停止派发后续节点: {}", node.getNodeName());
+                    stoppedBy = node.getNodeName();
+                }
+            }
+            results.set(index, result);
+
+            // 先写入所有出边的求值结果，再递减下游计数，下游派发时入边数据均已就绪
+            for (Edge edge : downstream.get(index)) {
+                edgeValues.set(edge.index, evaluateEdge(edge, result));
+            }
+            // 入边数据已合并到下游输入或已判定为跳过，不再持有
+            for (Edge edge : upstream.get(index)) {
+                edgeValues.set(edge.index, null);
+            }
+            for (Edge edge : downstream.get(index)) {
+                if (remaining.decrementAndGet(edge.to) == 0) {
+                    dispatch(edge.to);
+                }
+            }
+            if (pending.decrementAndGet() == 0) {
+                completion.complete(null);
+            }
+        }
+
+        /**
+         * 连线求值，数据映射求值失败时与条件求值失败一致，按不通过处理
+         */
+        private Object evaluateEdge(Edge edge, ExecutorResult result) {
+            if (!edge.route.isTaken(result, inputData)) {
+                return NOT_TAKEN;
+            }
+            Map<String, Object> payload;
+            try {
+                payload = edge.route.payload(result, inputData);
+            } catch (Exception e) {
+                log.warn("连线数据映射求值失败，按不通过处理: {}, 错误: {}", edge.route, e.getMessage());
+                return NOT_TAKEN;
+            }
+            return payload != null ? payload : TAKEN_WITHOUT_DATA;
+        }
+
+        /**
+         * 起始节点（没有入边）总是执行，其余节点至少有一条入边通过才执行
+         */
+        private boolean hasTakenEdge(int index) {
+            List<Edge> incoming = upstream.get(index);
+            if (incoming.isEmpty()) {
+                return true;
+            }
+            for (Edge edge : incoming) {
+                if (edgeValues.get(edge.index) != NOT_TAKEN) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 未配置 on_error 的节点保持继续执行其他节点
+         */
+        private boolean isStopOnError(WorkflowNodes node) {
+            return "STOP".equalsIgnoreCase(node.getOnError());
+        }
+
+        /**
+         * 构建节点输入：只合并通过的入边传递的数据
+         * 单条入边直接传递其数据；多条入边按上游拓扑顺序合并，配置了目标端口的放在该字段下；
+         * 节点输入是工作流输入之上的一层，只记录 inputData 这一项改动，不复制工作流输入
+         */
+        @SuppressWarnings("unchecked")
+        private Map<String, Object> buildNodeInput(int index) {
+            ExecutionContext nodeInput = ExecutionContext.over(inputData);
+            List<Edge> carrying = new ArrayList<>();
+            for (Edge edge : upstream.get(index)) {
+                Object value = edgeValues.get(edge.index);
+                if (value != NOT_TAKEN && value != TAKEN_WITHOUT_DATA && value != null) {
+                    carrying.add(edge);
+                }
+            }
+            if (carrying.size() == 1 && carrying.get(0).route.getTargetPort() == null) {
+                nodeInput.put("inputData", edgeValues.get(carrying.get(0).index));
+            } else if (!carrying.isEmpty()) {
+                // 以第一条入边的数据为底层，其余入边的数据作为改动写入，后面的上游覆盖前面的同名字段
+                Edge first = carrying.get(0);
+                ExecutionContext merged = first.route.getTargetPort() == null
+                        ? ExecutionContext.over((Map<String, Object>) edgeValues.get(first.index))
+                        : ExecutionContext.over(null);
+                for (int i = first.route.getTargetPort() == null ? 1 : 0; i < carrying.size(); i++) {
+                    Edge edge = carrying.get(i);
+                    Map<String, Object> value = (Map<String, Object>) edgeValues.get(edge.index);
+                    if (edge.route.getTargetPort() != null) {
+                        merged.put(edge.route.getTargetPort(), value);
+                    } else {
+                        merged.putAll(value);
+                    }
+                }
+                nodeInput.put("inputData", merged);
+            }
+            return nodeInput;
+        }
+    }
+
+    /**
+     * 调度结果
+     */
+    public static class DagExecutionResult {
+        private final List<ExecutorResult> nodeResults;
+        private final Map<String, Object> finalOutput;
+
+        public DagExecutionResult(List<ExecutorResult> nodeResults, Map<String, Object> finalOutput) {
+            this.nodeResults = nodeResults;
+            this.finalOutput = finalOutput;
+        }
+
+        /**
+         * 按拓扑顺序排列的节点结果
+         */
+        public List<ExecutorResult> getNodeResults() {
+            return nodeResults;
+        }
+
+        /**
+         * 最终输出上下文
+         */
+        public Map<String, Object> getFinalOutput() {
+            return finalOutput;
+        }
+    }
+}
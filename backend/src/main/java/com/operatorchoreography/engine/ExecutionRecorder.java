@@ -0,0 +1,419 @@
+package com.operatorchoreography.engine;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.operatorchoreography.generator.mapper.NodeExecutionsMapper;
+import com.operatorchoreography.generator.mapper.WorkflowExecutionsMapper;
+import com.operatorchoreography.generator.model.NodeExecutions;
+import com.operatorchoreography.generator.model.WorkflowExecutions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 执行记录异步写入器
+ * 节点执行记录和工作流最终状态先进入有界缓冲区，由单个后台线程按条数或时间阈值批量落库：
+ * 节点记录用多行 INSERT，工作流最终状态用 JDBC 批量 UPDATE，执行路径上不再等待数据库。
+ * 同一批次中节点记录先于工作流最终状态写入，查询到执行已结束时其节点记录也已落库。
+ * 认领执行的节点记录和最终状态都按租约条件写入，租约被回收后原执行不会再写入任何记录。
+ * 缓冲区已满时节点记录按 overflow-policy 丢弃或阻塞，工作流最终状态始终阻塞等待，
+ * 避免执行记录停留在 RUNNING
+ */
+@Slf4j
+@Component
+public class ExecutionRecorder {
+
+    /**
+     * 截断后的执行数据中的标记字段，带该字段的节点输出不能作为检查点
+     */
+    public static final String TRUNCATED_MARKER = "_truncated";
+
+    private static final String TYPE_NODE = "node";
+    private static final String TYPE_WORKFLOW = "workflow";
+
+    @Autowired
+    private NodeExecutionsMapper nodeExecutionsMapper;
+
+    @Autowired
+    private WorkflowExecutionsMapper workflowExecutionsMapper;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${workflow.engine.recorder.buffer-capacity:10000}")
+    private int bufferCapacity;
+
+    @Value("${workflow.engine.recorder.batch-size:200}")
+    private int batchSize;
+
+    @Value("${workflow.engine.recorder.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    @Value("${workflow.engine.recorder.max-payload-chars:65535}")
+    private int maxPayloadChars;
+
+    @Value("${workflow.engine.recorder.overflow-policy:BLOCK}")
+    private OverflowPolicy overflowPolicy;
+
+    /**
+     * 缓冲区已满时节点记录的处理策略
+     */
+    public enum OverflowPolicy {
+        /** 阻塞执行线程直到缓冲区有空位 */
+        BLOCK,
+        /** 丢弃该条节点记录并计数 */
+        DROP
+    }
+
+    private BlockingQueue<Object> buffer;
+    private Thread flusher;
+    private volatile boolean running;
+
+    private Counter droppedNodes;
+    private Counter flushedNodes;
+    private Counter flushedWorkflows;
+    private Counter failedNodes;
+    private Counter failedWorkflows;
+    private Counter rejectedNodes;
+    private Counter rejectedWorkflows;
+
+    @PostConstruct
+    public void init() {
+        buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        Gauge.builder("execution.recorder.buffered", buffer, BlockingQueue::size)
+                .description("等待写入的执行记录数")
+                .register(meterRegistry);
+        droppedNodes = Counter.builder("execution.recorder.dropped")
+                .description("缓冲区已满被丢弃的执行记录数")
+                .tag("type", TYPE_NODE)
+                .register(meterRegistry);
+        flushedNodes = flushedCounter(TYPE_NODE);
+        flushedWorkflows = flushedCounter(TYPE_WORKFLOW);
+        failedNodes = failedCounter(TYPE_NODE);
+        failedWorkflows = failedCounter(TYPE_WORKFLOW);
+        rejectedNodes = rejectedCounter(TYPE_NODE);
+        rejectedWorkflows = rejectedCounter(TYPE_WORKFLOW);
+
+        running = true;
+        flusher = new Thread(this::flushLoop, "execution-recorder");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("执行记录写入器已启动: bufferCapacity={}, batchSize={}, flushIntervalMs={}, maxPayloadChars={}, overflowPolicy={}",
+                bufferCapacity, batchSize, flushIntervalMs, maxPayloadChars, overflowPolicy);
+    }
+
+    /**
+     * 停止后台线程并同步写入缓冲区中剩余的记录
+     * 执行引擎依赖本组件，会先于本组件销毁
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Object> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+        log.info("执行记录写入器已停止: 停止时写入记录数={}", remaining.size());
+    }
+
+    /**
+     * 记录已结束的节点执行
+     * @param nodeExecution 节点执行记录（未保存，id为空）
+     */
+    public void recordNode(NodeExecutions nodeExecution) {
+        nodeExecution.setInputData(truncate(nodeExecution.getInputData()));
+        nodeExecution.setOutputData(truncate(nodeExecution.getOutputData()));
+        if (overflowPolicy == OverflowPolicy.DROP) {
+            if (!buffer.offer(nodeExecution)) {
+                droppedNodes.increment();
+                log.debug("执行记录缓冲区已满，丢弃节点执行记录: executionId={}, nodeId={}",
+                        nodeExecution.getExecutionId(), nodeExecution.getNodeId());
+            }
+            return;
+        }
+        put(nodeExecution);
+    }
+
+    /**
+     * 记录工作流执行的最终状态
+     * 认领的执行（workerId不为空）只有仍持有租约时才会写入
+     * @param execution 执行记录（已设置最终状态）
+     */
+    public void recordCompletion(WorkflowExecutions execution) {
+        execution.setOutputData(truncate(execution.getOutputData()));
+        put(execution);
+    }
+
+    /**
+     * 截断超长的执行数据
+     * input_data / output_data 为 JSON 列，截断后仍输出合法的 JSON：保留原长度和开头部分内容；
+     * 输出被截断的节点在恢复执行时会重新执行
+     * @param json 序列化后的执行数据
+     * @return 未超长时原样返回
+     */
+    public String truncate(String json) {
+        if (json == null || maxPayloadChars <= 0 || json.length() <= maxPayloadChars) {
+            return json;
+        }
+        Map<String, Object> marker = new LinkedHashMap<>();
+        marker.put(TRUNCATED_MARKER, true);
+        marker.put("originalLength", json.length());
+        marker.put("preview", json.substring(0, Math.max(0, maxPayloadChars - 100)));
+        try {
+            return objectMapper.writeValueAsString(marker);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void put(Object record) {
+        try {
+            buffer.put(record);
+        } catch (InterruptedException e) {
+            // 执行线程被中断时仍需写入记录，退化为同步写入
+            Thread.currentThread().interrupt();
+            flush(new ArrayList<>(List.of(record)));
+        }
+    }
+
+    /**
+     * 攒批：取到第一条后，在 flush-interval-ms 内凑满 batch-size 条或超时即写入
+     */
+    private void flushLoop() {
+        List<Object> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Object first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    if (buffer.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (remainingNanos <= 0) {
+                        break;
+                    }
+                    Object next = buffer.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // 停止时先写入已取出的记录，缓冲区中剩余的交给 shutdown 处理
+                flush(batch);
+                break;
+            } catch (Exception e) {
+                log.error("执行记录写入线程异常", e);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Object> batch) {
+        List<NodeExecutions> nodes = new ArrayList<>();
+        List<WorkflowExecutions> completions = new ArrayList<>();
+        for (Object record : batch) {
+            if (record instanceof NodeExecutions nodeExecution) {
+                nodes.add(nodeExecution);
+            } else {
+                completions.add((WorkflowExecutions) record);
+            }
+        }
+        if (!nodes.isEmpty()) {
+            flushNodes(nodes);
+        }
+        if (!completions.isEmpty()) {
+            flushCompletions(completions);
+        }
+    }
+
+    /**
+     * 本地执行的节点记录直接多行插入；认领执行的节点记录（workerId不为空）按租约条件逐条插入，
+     * 租约已被回收的执行不能再写入节点记录
+     */
+    private void flushNodes(List<NodeExecutions> nodes) {
+        List<NodeExecutions> local = new ArrayList<>();
+        List<NodeExecutions> claimed = new ArrayList<>();
+        for (NodeExecutions nodeExecution : nodes) {
+            (nodeExecution.getWorkerId() == null ? local : claimed).add(nodeExecution);
+        }
+        if (!local.isEmpty()) {
+            insertNodes(local);
+        }
+        if (!claimed.isEmpty()) {
+            insertClaimedNodes(claimed);
+        }
+    }
+
+    private void insertNodes(List<NodeExecutions> nodes) {
+        try {
+            nodeExecutionsMapper.insertBatch(nodes);
+            flushedNodes.increment(nodes.size());
+            return;
+        } catch (Exception e) {
+            log.warn("批量写入节点执行记录失败，逐条重试: 条数={}, 错误: {}", nodes.size(), e.getMessage());
+        }
+        // 逐条写入，只丢弃本身写不进去的记录
+        for (NodeExecutions nodeExecution : nodes) {
+            try {
+                nodeExecutionsMapper.insert(nodeExecution);
+                flushedNodes.increment();
+            } catch (Exception e) {
+                failedNodes.increment();
+                log.error("保存节点执行记录失败: executionId={}, nodeId={}",
+                        nodeExecution.getExecutionId(), nodeExecution.getNodeId(), e);
+            }
+        }
+    }
+
+    private void insertClaimedNodes(List<NodeExecutions> nodes) {
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH, false)) {
+            NodeExecutionsMapper batchMapper = session.getMapper(NodeExecutionsMapper.class);
+            for (NodeExecutions nodeExecution : nodes) {
+                batchMapper.insertFenced(nodeExecution);
+            }
+            List<BatchResult> results = session.flushStatements();
+            session.commit();
+            int rejected = forEachUnchanged(results, nodes, this::warnLostLease);
+            flushedNodes.increment(nodes.size() - rejected);
+            rejectedNodes.increment(rejected);
+            return;
+        } catch (Exception e) {
+            log.warn("批量写入节点执行记录失败，逐条重试: 条数={}, 错误: {}", nodes.size(), e.getMessage());
+        }
+        for (NodeExecutions nodeExecution : nodes) {
+            try {
+                if (nodeExecutionsMapper.insertFenced(nodeExecution) == 0) {
+                    warnLostLease(nodeExecution);
+                    rejectedNodes.increment();
+                } else {
+                    flushedNodes.increment();
+                }
+            } catch (Exception e) {
+                failedNodes.increment();
+                log.error("保存节点执行记录失败: executionId={}, nodeId={}",
+                        nodeExecution.getExecutionId(), nodeExecution.getNodeId(), e);
+            }
+        }
+    }
+
+    private void flushCompletions(List<WorkflowExecutions> completions) {
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH, false)) {
+            WorkflowExecutionsMapper batchMapper = session.getMapper(WorkflowExecutionsMapper.class);
+            for (WorkflowExecutions execution : completions) {
+                batchMapper.completeExecution(execution);
+            }
+            List<BatchResult> results = session.flushStatements();
+            session.commit();
+            int rejected = forEachUnchanged(results, completions, this::warnLostLease);
+            flushedWorkflows.increment(completions.size() - rejected);
+            rejectedWorkflows.increment(rejected);
+            return;
+        } catch (Exception e) {
+            log.warn("批量更新工作流执行记录失败，逐条重试: 条数={}, 错误: {}", completions.size(), e.getMessage());
+        }
+        for (WorkflowExecutions execution : completions) {
+            try {
+                if (workflowExecutionsMapper.completeExecution(execution) == 0) {
+                    warnLostLease(execution);
+                    rejectedWorkflows.increment();
+                } else {
+                    flushedWorkflows.increment();
+                }
+            } catch (Exception e) {
+                failedWorkflows.increment();
+                log.error("更新工作流执行记录失败: executionId={}", execution.getExecutionId(), e);
+            }
+        }
+    }
+
+    /**
+     * 批量写入中条数为0的认领执行说明租约已被回收，该条记录已丢弃
+     * 驱动返回 SUCCESS_NO_INFO（负数）时无法判断，按已写入处理
+     * @return 被拒绝的记录数
+     */
+    private static <T> int forEachUnchanged(List<BatchResult> results, List<T> records, Consumer<T> action) {
+        int index = 0;
+        int unchanged = 0;
+        for (BatchResult result : results) {
+            for (int count : result.getUpdateCounts()) {
+                if (index < records.size() && count == 0) {
+                    action.accept(records.get(index));
+                    unchanged++;
+                }
+                index++;
+            }
+        }
+        return unchanged;
+    }
+
+    private void warnLostLease(NodeExecutions nodeExecution) {
+        log.warn("执行租约已失效，丢弃节点执行记录: executionId={}, nodeId={}, workerId={}, attempt={}",
+                nodeExecution.getExecutionId(), nodeExecution.getNodeId(), nodeExecution.getWorkerId(),
+                nodeExecution.getAttemptCount());
+    }
+
+    private void warnLostLease(WorkflowExecutions execution) {
+        log.warn("执行租约已失效，丢弃本次执行结果: executionId={}, workerId={}, status={}",
+                execution.getExecutionId(), execution.getWorkerId(), execution.getStatus());
+    }
+
+    private Counter flushedCounter(String type) {
+        return Counter.builder("execution.recorder.flushed")
+                .description("已写入的执行记录数")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private Counter failedCounter(String type) {
+        return Counter.builder("execution.recorder.failed")
+                .description("写入失败的执行记录数")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private Counter rejectedCounter(String type) {
+        return Counter.builder("execution.recorder.rejected")
+                .description("执行租约已失效被拒绝写入的执行记录数")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,633 @@
+package com.operatorchoreography.engine;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.operatorchoreography.common.util.UuidUtils;
+import com.operatorchoreography.executor.ExecutorResult;
+import com.operatorchoreography.executor.ExecutorStatus;
+import com.operatorchoreography.generator.mapper.NodeExecutionsMapper;
+import com.operatorchoreography.generator.mapper.WorkflowsMapper;
+import com.operatorchoreography.generator.model.NodeExecutions;
+import com.operatorchoreography.generator.model.WorkflowExecutions;
+import com.operatorchoreography.generator.model.WorkflowNodes;
+import com.operatorchoreography.generator.model.Workflows;
+import com.operatorchoreography.generator.service.NodeExecutionsService;
+import com.operatorchoreography.generator.service.WorkflowExecutionsService;
+import com.operatorchoreography.service.ExecutionMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 工作流执行引擎
+ * 异步执行工作流DAG，并将执行过程持久化到 workflow_executions / node_executions 表
+ * 提交后立即返回执行ID，调用方通过执行ID轮询结果
+ * 开启执行队列时提交只写入 WAITING 记录，由各实例的 {@link WorkflowQueueWorker} 认领后执行；
+ * 认领的执行写入节点记录和结束状态时都按 worker_id 和认领次数条件写入，租约已被回收的执行不会覆盖新一次执行
+ * 节点执行记录和最终状态交给 {@link ExecutionRecorder} 批量写入
+ * 成功节点的执行记录同时作为检查点：失败的执行可以从失败节点恢复，重新认领的执行也不再从头运行，
+ * 已有检查点的节点直接使用记录中的输出，不再执行
+ */
+@Slf4j
+@Service
+public class WorkflowExecutionEngine {
+
+    @Autowired
+    private WorkflowExecutionsService workflowExecutionsService;
+
+    @Autowired
+    private NodeExecutionsService nodeExecutionsService;
+
+    @Autowired
+    private NodeExecutionsMapper nodeExecutionsMapper;
+
+    @Autowired
+    private DagScheduler dagScheduler;
+
+    @Autowired
+    private WorkflowPlanCache workflowPlanCache;
+
+    @Autowired
+    private WorkflowNodeRunner workflowNodeRunner;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ExecutionMetrics executionMetrics;
+
+    @Autowired
+    private WorkflowExecutionQueue workflowExecutionQueue;
+
+    @Autowired
+    private WorkflowsMapper workflowsMapper;
+
+    @Autowired
+    private ExecutionRecorder executionRecorder;
+
+    @Value("${workflow.engine.queue.enabled:true}")
+    private boolean queueEnabled;
+
+    @Value("${workflow.engine.execution.max-concurrent:16}")
+    private int maxConcurrent;
+
+    @Value("${workflow.engine.execution.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${workflow.engine.execution.history-limit:50}")
+    private int historyLimit;
+
+    @Value("${workflow.engine.virtual-threads.enabled:true}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${workflow.engine.virtual-threads.max-concurrent-workflows:10000}")
+    private int maxConcurrentVirtualWorkflows;
+
+    private ThreadPoolExecutor workflowExecutor;
+
+    /**
+     * 虚拟线程模式的工作流（execution_mode = VIRTUAL）每个实例一个虚拟线程，并发数由信号量限制
+     */
+    private ExecutorService virtualWorkflowExecutor;
+
+    private Semaphore virtualWorkflowPermits;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        workflowExecutor = new ThreadPoolExecutor(
+                maxConcurrent, maxConcurrent,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "workflow-exec-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        workflowExecutor.allowCoreThreadTimeOut(true);
+        virtualWorkflowExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("workflow-vexec-", 0).factory());
+        virtualWorkflowPermits = new Semaphore(maxConcurrentVirtualWorkflows);
+        log.info("工作流执行引擎初始化完成: maxConcurrent={}, queueCapacity={}, 虚拟线程={}, 虚拟线程最大并发={}",
+                maxConcurrent, queueCapacity, virtualThreadsEnabled, maxConcurrentVirtualWorkflows);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        log.info("关闭工作流执行线程池");
+        workflowExecutor.shutdownNow();
+        virtualWorkflowExecutor.shutdownNow();
+    }
+
+    /**
+     * 提交工作流执行
+     * @param workflow 工作流
+     * @param inputData 输入数据
+     * @param triggerType 触发类型: MANUAL,SCHEDULE,API,EVENT
+     * @return 执行实例ID
+     */
+    public String submit(Workflows workflow, Map<String, Object> inputData, String triggerType) {
+        WorkflowExecutions execution = new WorkflowExecutions();
+        execution.setWorkflowId(workflow.getId());
+        execution.setExecutionId(UuidUtils.generateUuid());
+        execution.setTriggerType(triggerType);
+        execution.setStatus("WAITING");
+        execution.setStartTime(LocalDateTime.now());
+        execution.setInputData(toJson(inputData));
+
+        if (queueEnabled) {
+            // 只写入队列，由任一实例的工作节点认领执行
+            workflowExecutionQueue.enqueue(execution);
+            log.info("工作流已加入执行队列: workflowId={}, executionId={}", workflow.getId(), execution.getExecutionId());
+            return execution.getExecutionId();
+        }
+
+        workflowExecutionsService.save(execution);
+        try {
+            dispatch(workflow, () -> run(workflow, execution, inputData));
+        } catch (RejectedExecutionException e) {
+            log.error("工作流执行队列已满: workflowId={}, executionId={}", workflow.getId(), execution.getExecutionId());
+            finish(execution, "FAILED", null, "工作流执行队列已满", null);
+            throw new RuntimeException("工作流执行队列已满，请稍后重试");
+        }
+
+        log.info("工作流已提交执行: workflowId={}, executionId={}", workflow.getId(), execution.getExecutionId());
+        return execution.getExecutionId();
+    }
+
+    /**
+     * 从失败节点恢复执行
+     * 执行记录重新置为待执行，运行时成功节点使用检查点中的输出，失败和未执行的节点重新执行
+     * @param workflow 工作流
+     * @param executionId 执行实例ID
+     */
+    public void resume(Workflows workflow, String executionId) {
+        QueryWrapper<WorkflowExecutions> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("workflow_id", workflow.getId()).eq("execution_id", executionId);
+        WorkflowExecutions execution = workflowExecutionsService.getOne(queryWrapper);
+        if (execution == null) {
+            throw new RuntimeException("执行记录不存在: " + executionId);
+        }
+        if (!"FAILED".equals(execution.getStatus())) {
+            throw new RuntimeException("只能恢复失败的执行，当前状态: " + execution.getStatus());
+        }
+        if (!workflowExecutionQueue.reopen(execution.getId())) {
+            throw new RuntimeException("执行状态已变化，无法恢复: " + executionId);
+        }
+
+        if (queueEnabled) {
+            log.info("工作流执行已重新加入执行队列: workflowId={}, executionId={}", workflow.getId(), executionId);
+            return;
+        }
+
+        // 重新加载：之前认领过的执行在内存中仍带有旧的 worker_id 和认领次数
+        WorkflowExecutions reopened = workflowExecutionsService.getById(execution.getId());
+        Map<String, Object> inputData;
+        try {
+            inputData = toInputMap(reopened.getInputData());
+        } catch (Exception e) {
+            finish(reopened, "FAILED", null, "解析执行输入失败: " + e.getMessage(), null);
+            throw new RuntimeException("解析执行输入失败: " + e.getMessage(), e);
+        }
+        reopened.setInputData(null);
+        try {
+            dispatch(workflow, () -> run(workflow, reopened, inputData));
+        } catch (RejectedExecutionException e) {
+            log.error("工作流执行队列已满: workflowId={}, executionId={}", workflow.getId(), executionId);
+            finish(reopened, "FAILED", null, "工作流执行队列已满", null);
+            throw new RuntimeException("工作流执行队列已满，请稍后重试");
+        }
+        log.info("工作流已提交恢复执行: workflowId={}, executionId={}", workflow.getId(), executionId);
+    }
+
+    /**
+     * 执行从队列认领的工作流
+     * @param execution 已认领的执行记录（RUNNING，持有租约）
+     * @param onComplete 执行结束（含提交失败）后回调，用于归还工作节点的执行槽位
+     */
+    public void executeClaimed(WorkflowExecutions execution, Runnable onComplete) {
+        String executionId = execution.getExecutionId();
+        Workflows workflow;
+        Map<String, Object> inputData;
+        try {
+            QueryWrapper<Workflows> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("id", execution.getWorkflowId()).eq("if_delete", false);
+            workflow = workflowsMapper.selectOne(queryWrapper);
+            inputData = toInputMap(execution.getInputData());
+            // 输入已持久化，结束时不再回写
+            execution.setInputData(null);
+        } catch (Exception e) {
+            log.error("加载认领的工作流执行失败: executionId={}", executionId, e);
+            finish(execution, "FAILED", null, "加载工作流执行失败: " + e.getMessage(), null);
+            onComplete.run();
+            return;
+        }
+        if (workflow == null) {
+            finish(execution, "FAILED", null, "工作流不存在: " + execution.getWorkflowId(), null);
+            onComplete.run();
+            return;
+        }
+
+        try {
+            dispatch(workflow, () -> {
+                try {
+                    run(workflow, execution, inputData);
+                } finally {
+                    onComplete.run();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 本实例执行队列已满，释放租约交给其他实例
+            log.warn("本实例执行队列已满，释放认领的工作流执行: executionId={}", executionId);
+            workflowExecutionQueue.release(execution.getWorkerId(), List.of(execution.getId()));
+            onComplete.run();
+        }
+    }
+
+    /**
+     * 按工作流执行模式提交到平台线程池或虚拟线程
+     */
+    private void dispatch(Workflows workflow, Runnable task) {
+        if (virtualThreadsEnabled && "VIRTUAL".equalsIgnoreCase(workflow.getExecutionMode())) {
+            submitVirtual(task);
+        } else {
+            workflowExecutor.execute(task);
+        }
+    }
+
+    /**
+     * 在虚拟线程上执行工作流，超过并发上限时与平台线程池一样拒绝提交
+     */
+    private void submitVirtual(Runnable task) {
+        if (!virtualWorkflowPermits.tryAcquire()) {
+            throw new RejectedExecutionException("虚拟线程工作流并发已达上限: " + maxConcurrentVirtualWorkflows);
+        }
+        try {
+            virtualWorkflowExecutor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    virtualWorkflowPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            virtualWorkflowPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 执行工作流（在执行线程池或虚拟线程中运行）
+     */
+    private void run(Workflows workflow, WorkflowExecutions execution, Map<String, Object> inputData) {
+        String executionId = execution.getExecutionId();
+        long startNanos = executionMetrics.workflowStarted();
+        try {
+            if (execution.getWorkerId() == null) {
+                // 从队列认领的执行在认领时已置为RUNNING
+                execution.setStatus("RUNNING");
+                execution.setStartTime(LocalDateTime.now());
+                workflowExecutionsService.updateById(execution);
+            }
+
+            WorkflowPlan plan = workflowPlanCache.getPlan(workflow);
+            List<WorkflowNodes> executionQueue = plan.getExecutionQueue();
+            Map<Long, Integer> executionOrder = new HashMap<>();
+            for (int i = 0; i < executionQueue.size(); i++) {
+                executionOrder.put(executionQueue.get(i).getId(), i + 1);
+            }
+
+            Map<Long, ExecutorResult> checkpoints = hasNodeRecords(execution)
+                    ? loadCheckpoints(execution) : Collections.emptyMap();
+
+            DagScheduler.DagExecutionResult dagResult = dagScheduler.executeRoutes(executionQueue, plan.getRoutes(), inputData,
+                    (node, nodeInput) -> {
+                        ExecutorResult checkpoint = checkpoints.get(node.getId());
+                        return checkpoint != null ? checkpoint.withNodeInfo(node.getId(), node.getNodeName())
+                                : runNode(plan, execution, executionOrder.get(node.getId()), node, nodeInput);
+                    },
+                    plan::runsOnVirtualThread);
+            recordSkippedNodes(execution, executionQueue, executionOrder, dagResult.getNodeResults());
+
+            List<String> failedNodes = dagResult.getNodeResults().stream()
+                    .filter(result -> result != null && !result.isSuccess() && result.getStatus() != ExecutorStatus.SKIPPED)
+                    .map(result -> result.getNodeName() + ": " + result.getErrorMessage())
+                    .collect(Collectors.toList());
+
+            if (failedNodes.isEmpty()) {
+                finish(execution, "SUCCESS", dagResult.getFinalOutput(), null, null);
+            } else {
+                finish(execution, "FAILED", dagResult.getFinalOutput(), "节点执行失败: " + String.join("; ", failedNodes), null);
+            }
+            log.info("工作流执行完成: workflowId={}, executionId={}, status={}",
+                    workflow.getId(), executionId, execution.getStatus());
+
+        } catch (Exception e) {
+            log.error("工作流执行失败: workflowId={}, executionId={}", workflow.getId(), executionId, e);
+            finish(execution, "FAILED", null, e.getMessage(), Arrays.toString(e.getStackTrace()));
+        } finally {
+            executionMetrics.workflowFinished(startNanos, workflow.getId(), execution.getStatus(), "EXECUTE");
+        }
+    }
+
+    /**
+     * 执行单个节点并记录节点执行结果
+     * 异步模板的节点先记录为RUNNING并立即返回，后台执行完成后更新该记录
+     */
+    private ExecutorResult runNode(WorkflowPlan plan, WorkflowExecutions execution, Integer executionOrder,
+                                   WorkflowNodes node, Map<String, Object> nodeInput) {
+        String executionId = execution.getExecutionId();
+        LocalDateTime startTime = LocalDateTime.now();
+        if (workflowNodeRunner.isAsync(plan, node)) {
+            ExecutorResult dispatched = ExecutorResult.dispatched()
+                    .withNodeInfo(node.getId(), node.getNodeName())
+                    .withTemplateInfo(node.getTemplateId(), plan.getTemplate(node.getTemplateId()).getTemplateName());
+            // 完成时需要按ID更新，占位记录同步写入
+            NodeExecutions nodeExecution = buildNodeExecution(execution, executionOrder, node, nodeInput,
+                    dispatched, startTime, null);
+            try {
+                if (nodeExecution.getWorkerId() == null) {
+                    nodeExecutionsService.save(nodeExecution);
+                } else if (nodeExecutionsMapper.insertFenced(nodeExecution) == 0) {
+                    log.warn("执行租约已失效，不再记录异步节点: executionId={}, nodeId={}", executionId, node.getId());
+                }
+            } catch (Exception e) {
+                log.error("保存节点执行记录失败: executionId={}, nodeId={}", executionId, node.getId(), e);
+            }
+            workflowNodeRunner.executeAsync(plan, node, nodeInput).thenAccept(result -> {
+                LocalDateTime endTime = LocalDateTime.now();
+                if (nodeExecution.getId() == null) {
+                    return;
+                }
+                fillNodeExecution(nodeExecution, result, startTime, endTime);
+                nodeExecution.setOutputData(executionRecorder.truncate(nodeExecution.getOutputData()));
+                try {
+                    if (nodeExecution.getWorkerId() == null) {
+                        nodeExecutionsService.updateById(nodeExecution);
+                    } else if (nodeExecutionsMapper.updateFenced(nodeExecution) == 0) {
+                        log.warn("执行租约已失效，丢弃异步节点执行结果: executionId={}, nodeId={}",
+                                executionId, node.getId());
+                    }
+                } catch (Exception e) {
+                    log.error("更新异步节点执行记录失败: executionId={}, nodeId={}", executionId, node.getId(), e);
+                }
+            });
+            return dispatched;
+        }
+
+        ExecutorResult result = workflowNodeRunner.execute(plan, node, nodeInput);
+        executionRecorder.recordNode(buildNodeExecution(execution, executionOrder, node, nodeInput,
+                result, startTime, LocalDateTime.now()));
+        return result;
+    }
+
+    /**
+     * 恢复执行或重新认领的执行已有上一次运行的节点记录
+     */
+    private boolean hasNodeRecords(WorkflowExecutions execution) {
+        return (execution.getResumeCount() != null && execution.getResumeCount() > 0)
+                || (execution.getAttemptCount() != null && execution.getAttemptCount() > 1);
+    }
+
+    /**
+     * 加载检查点：之前各次执行中成功且输出完整（未被截断）的节点记录保留并作为该节点的结果，
+     * 其余记录（失败、跳过、未完成的异步节点、输出被截断）删除，对应节点重新执行后重新记录。
+     * 只删除恢复次数、认领次数早于本次执行的记录；之前的执行租约已被回收，其写入按租约条件不会再落库
+     * @return 节点ID -> 恢复的执行结果
+     */
+    private Map<Long, ExecutorResult> loadCheckpoints(WorkflowExecutions execution) {
+        String executionId = execution.getExecutionId();
+        int resumeCount = countOf(execution.getResumeCount());
+        int attemptCount = countOf(execution.getAttemptCount());
+        QueryWrapper<NodeExecutions> nodeQuery = new QueryWrapper<>();
+        nodeQuery.eq("execution_id", executionId);
+        Map<Long, ExecutorResult> checkpoints = new HashMap<>();
+        List<Long> staleIds = new ArrayList<>();
+        for (NodeExecutions nodeExecution : nodeExecutionsService.list(nodeQuery)) {
+            int recordResume = countOf(nodeExecution.getResumeCount());
+            if (recordResume > resumeCount
+                    || (recordResume == resumeCount && countOf(nodeExecution.getAttemptCount()) >= attemptCount)) {
+                continue;
+            }
+            Map<String, Object> output = ExecutorStatus.SUCCESS.name().equals(nodeExecution.getStatus())
+                    && !checkpoints.containsKey(nodeExecution.getNodeId())
+                    ? toCheckpointOutput(nodeExecution.getOutputData()) : null;
+            if (output == null) {
+                staleIds.add(nodeExecution.getId());
+                continue;
+            }
+            checkpoints.put(nodeExecution.getNodeId(), ExecutorResult.success(output)
+                    .withMetadata("restoredFromCheckpoint", true));
+        }
+        if (!staleIds.isEmpty()) {
+            QueryWrapper<NodeExecutions> staleQuery = new QueryWrapper<>();
+            staleQuery.in("id", staleIds)
+                    .and(prior -> prior.lt("resume_count", resumeCount)
+                            .or(sameResume -> sameResume.eq("resume_count", resumeCount).lt("attempt_count", attemptCount)));
+            nodeExecutionsService.remove(staleQuery);
+        }
+        log.info("从检查点恢复执行: executionId={}, resumeCount={}, attemptCount={}, 恢复节点数={}, 重新执行的节点记录数={}",
+                executionId, resumeCount, attemptCount, checkpoints.size(), staleIds.size());
+        return checkpoints;
+    }
+
+    private static int countOf(Integer count) {
+        return count != null ? count : 0;
+    }
+
+    /**
+     * 解析检查点中的节点输出，输出被截断或无法解析时返回null
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> toCheckpointOutput(String json) {
+        if (json == null || json.isEmpty()) {
+            return new HashMap<>();
+        }
+        try {
+            Object output = objectMapper.readValue(json, Object.class);
+            if (!(output instanceof Map) || ((Map<String, Object>) output).containsKey(ExecutionRecorder.TRUNCATED_MARKER)) {
+                return null;
+            }
+            return (Map<String, Object>) output;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 记录被跳过的节点（未选中的分支、工作流停止后未执行的节点），跳过的节点没有经过 runNode
+     */
+    private void recordSkippedNodes(WorkflowExecutions execution, List<WorkflowNodes> executionQueue,
+                                    Map<Long, Integer> executionOrder, List<ExecutorResult> nodeResults) {
+        for (int i = 0; i < executionQueue.size(); i++) {
+            ExecutorResult result = nodeResults.get(i);
+            if (result != null && result.getStatus() == ExecutorStatus.SKIPPED) {
+                WorkflowNodes node = executionQueue.get(i);
+                executionRecorder.recordNode(buildNodeExecution(execution, executionOrder.get(node.getId()), node,
+                        null, result, result.getStartTime(), result.getEndTime()));
+            }
+        }
+    }
+
+    /**
+     * 构建节点执行记录，记录所属的恢复次数、认领次数和持有租约的工作节点
+     */
+    private NodeExecutions buildNodeExecution(WorkflowExecutions execution, Integer executionOrder, WorkflowNodes node,
+                                              Map<String, Object> nodeInput, ExecutorResult result,
+                                              LocalDateTime startTime, LocalDateTime endTime) {
+        NodeExecutions nodeExecution = new NodeExecutions();
+        nodeExecution.setExecutionId(execution.getExecutionId());
+        nodeExecution.setResumeCount(countOf(execution.getResumeCount()));
+        nodeExecution.setAttemptCount(countOf(execution.getAttemptCount()));
+        nodeExecution.setWorkerId(execution.getWorkerId());
+        nodeExecution.setNodeId(node.getId());
+        nodeExecution.setExecutionOrder(executionOrder);
+        nodeExecution.setInputData(executionRecorder.truncate(toJson(nodeInput)));
+        fillNodeExecution(nodeExecution, result, startTime, endTime);
+        return nodeExecution;
+    }
+
+    private void fillNodeExecution(NodeExecutions nodeExecution, ExecutorResult result,
+                                   LocalDateTime startTime, LocalDateTime endTime) {
+        nodeExecution.setStatus(result.getStatus() != null ? result.getStatus().name() : ExecutorStatus.UNKNOWN.name());
+        nodeExecution.setStartTime(startTime);
+        nodeExecution.setEndTime(endTime);
+        nodeExecution.setDurationMs(endTime != null ? Duration.between(startTime, endTime).toMillis() : null);
+        nodeExecution.setOutputData(toJson(result.getOutputData()));
+        nodeExecution.setErrorMessage(result.getErrorMessage());
+        Object retryCount = result.getMetadata() != null ? result.getMetadata().get("retryCount") : null;
+        nodeExecution.setRetryCount(retryCount instanceof Integer ? (Integer) retryCount : 0);
+    }
+
+    /**
+     * 记录工作流执行的最终状态（异步批量写入）
+     */
+    private void finish(WorkflowExecutions execution, String status, Map<String, Object> outputData,
+                        String errorMessage, String errorStack) {
+        LocalDateTime endTime = LocalDateTime.now();
+        execution.setStatus(status);
+        execution.setEndTime(endTime);
+        if (execution.getStartTime() != null) {
+            execution.setDurationMs(Duration.between(execution.getStartTime(), endTime).toMillis());
+        }
+        execution.setOutputData(toJson(outputData));
+        execution.setErrorMessage(errorMessage);
+        execution.setErrorStack(errorStack);
+        executionRecorder.recordCompletion(execution);
+    }
+
+    /**
+     * 查询执行结果（包含节点执行记录）
+     * @param workflowId 工作流ID
+     * @param executionId 执行实例ID
+     * @return 执行结果，不存在时返回null
+     */
+    public Map<String, Object> getExecution(Long workflowId, String executionId) {
+        QueryWrapper<WorkflowExecutions> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("workflow_id", workflowId).eq("execution_id", executionId);
+        WorkflowExecutions execution = workflowExecutionsService.getOne(queryWrapper);
+        if (execution == null) {
+            return null;
+        }
+
+        QueryWrapper<NodeExecutions> nodeQuery = new QueryWrapper<>();
+        nodeQuery.eq("execution_id", executionId).orderByAsc("execution_order");
+        List<Map<String, Object>> nodeResults = nodeExecutionsService.list(nodeQuery).stream()
+                .map(this::toNodeResultMap)
+                .collect(Collectors.toList());
+
+        Map<String, Object> result = toExecutionMap(execution);
+        result.put("inputData", fromJson(execution.getInputData()));
+        result.put("outputData", fromJson(execution.getOutputData()));
+        result.put("errorStack", execution.getErrorStack());
+        result.put("nodeResults", nodeResults);
+        return result;
+    }
+
+    /**
+     * 查询工作流执行历史（按时间倒序）
+     */
+    public List<Map<String, Object>> getHistory(Long workflowId) {
+        QueryWrapper<WorkflowExecutions> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "workflow_id", "execution_id", "trigger_type", "trigger_by", "status",
+                        "start_time", "end_time", "duration_ms", "error_message", "resume_count")
+                   .eq("workflow_id", workflowId)
+                   .orderByDesc("id")
+                   .last("LIMIT " + historyLimit);
+        return workflowExecutionsService.list(queryWrapper).stream()
+                .map(this::toExecutionMap)
+                .collect(Collectors.toList());
+    }
+
+    private Map<String, Object> toExecutionMap(WorkflowExecutions execution) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("executionId", execution.getExecutionId());
+        result.put("workflowId", execution.getWorkflowId());
+        result.put("triggerType", execution.getTriggerType());
+        result.put("triggerBy", execution.getTriggerBy());
+        result.put("status", execution.getStatus());
+        result.put("startTime", execution.getStartTime());
+        result.put("endTime", execution.getEndTime());
+        result.put("durationMs", execution.getDurationMs());
+        result.put("errorMessage", execution.getErrorMessage());
+        result.put("resumeCount", execution.getResumeCount());
+        return result;
+    }
+
+    private Map<String, Object> toNodeResultMap(NodeExecutions nodeExecution) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("nodeId", nodeExecution.getNodeId());
+        result.put("executionOrder", nodeExecution.getExecutionOrder());
+        result.put("status", nodeExecution.getStatus());
+        result.put("startTime", nodeExecution.getStartTime());
+        result.put("endTime", nodeExecution.getEndTime());
+        result.put("durationMs", nodeExecution.getDurationMs());
+        result.put("inputData", fromJson(nodeExecution.getInputData()));
+        result.put("outputData", fromJson(nodeExecution.getOutputData()));
+        result.put("errorMessage", nodeExecution.getErrorMessage());
+        result.put("retryCount", nodeExecution.getRetryCount());
+        return result;
+    }
+
+    private String toJson(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            log.warn("序列化执行数据失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> toInputMap(String json) throws Exception {
+        if (json == null || json.isEmpty()) {
+            return new HashMap<>();
+        }
+        Map<String, Object> inputData = objectMapper.readValue(json, Map.class);
+        return inputData != null ? inputData : new HashMap<>();
+    }
+
+    private Object fromJson(String json) {
+        if (json == null || json.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, Object.class);
+        } catch (Exception e) {
+            return json;
+        }
+    }
+}
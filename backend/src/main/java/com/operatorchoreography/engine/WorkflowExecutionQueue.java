@@ -0,0 +1,152 @@
+package com.operatorchoreography.engine;
+
+import com.operatorchoreography.generator.mapper.WorkflowExecutionsMapper;
+import com.operatorchoreography.generator.model.WorkflowExecutions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 工作流执行队列
+ * 以 workflow_executions 表为持久化队列：提交时写入 WAITING 记录，各实例的工作节点用
+ * SELECT ... FOR UPDATE SKIP LOCKED 认领并写入租约（RUNNING + worker_id + lease_expire_time），
+ * 执行期间定时续租；租约过期的记录由任一实例回收为 WAITING，超过最大认领次数时置为 FAILED。
+ * 租约时间均使用数据库时间，不依赖各实例的时钟
+ */
+@Slf4j
+@Component
+public class WorkflowExecutionQueue {
+
+    @Autowired
+    private WorkflowExecutionsMapper workflowExecutionsMapper;
+
+    /**
+     * 本实例有新提交或空出执行槽位时唤醒工作节点，避免等待下一个轮询周期
+     */
+    private final Semaphore wakeups = new Semaphore(0);
+
+    /**
+     * 写入待执行记录
+     * @param execution 执行记录（状态为WAITING）
+     */
+    public void enqueue(WorkflowExecutions execution) {
+        execution.setStatus("WAITING");
+        execution.setAttemptCount(0);
+        workflowExecutionsMapper.insert(execution);
+        signal();
+    }
+
+    /**
+     * 认领待执行记录
+     * @param workerId 工作节点ID
+     * @param limit 最多认领条数
+     * @param leaseSeconds 租约时长（秒）
+     * @return 认领到的记录（已置为RUNNING）
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public List<WorkflowExecutions> claim(String workerId, int limit, int leaseSeconds) {
+        List<WorkflowExecutions> waiting = workflowExecutionsMapper.selectWaitingForUpdate(limit);
+        if (waiting.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> ids = waiting.stream().map(WorkflowExecutions::getId).collect(Collectors.toList());
+        workflowExecutionsMapper.markClaimed(ids, workerId, leaseSeconds);
+        LocalDateTime now = LocalDateTime.now();
+        for (WorkflowExecutions execution : waiting) {
+            execution.setStatus("RUNNING");
+            execution.setWorkerId(workerId);
+            execution.setStartTime(now);
+            execution.setAttemptCount((execution.getAttemptCount() != null ? execution.getAttemptCount() : 0) + 1);
+            if (execution.getResumeCount() == null) {
+                // 与 completeExecution 的 COALESCE(resume_count, 0) 条件一致
+                execution.setResumeCount(0);
+            }
+        }
+        log.debug("认领工作流执行: workerId={}, 条数={}", workerId, waiting.size());
+        return waiting;
+    }
+
+    /**
+     * 续租
+     * @return 续租成功条数，小于ids数量说明部分租约已被回收
+     */
+    public int renew(String workerId, List<Long> ids, int leaseSeconds) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return workflowExecutionsMapper.renewLeases(ids, workerId, leaseSeconds);
+    }
+
+    /**
+     * 释放租约，记录回到WAITING由其他实例或本实例重新认领
+     * @return 释放条数
+     */
+    public int release(String workerId, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int released = workflowExecutionsMapper.releaseLeases(ids, workerId);
+        if (released > 0) {
+            signal();
+        }
+        return released;
+    }
+
+    /**
+     * 回收租约过期的记录
+     * @param maxAttempts 最大认领次数，达到后不再回收而置为FAILED
+     * @return 回收为WAITING的条数
+     */
+    public int reclaimExpired(int maxAttempts) {
+        int failed = workflowExecutionsMapper.failExpired(maxAttempts,
+                "执行租约过期且已达到最大认领次数: " + maxAttempts);
+        if (failed > 0) {
+            log.warn("租约过期的工作流执行已达到最大认领次数，置为FAILED: 条数={}", failed);
+        }
+        int requeued = workflowExecutionsMapper.requeueExpired(maxAttempts);
+        if (requeued > 0) {
+            log.warn("回收租约过期的工作流执行: 条数={}", requeued);
+            signal();
+        }
+        return requeued;
+    }
+
+    /**
+     * 将失败的执行重新置为待执行，由工作节点认领后从检查点恢复
+     * @param id 执行记录ID
+     * @return 是否成功，记录已不是FAILED状态（例如已被并发恢复）时返回false
+     */
+    public boolean reopen(Long id) {
+        if (workflowExecutionsMapper.reopenFailed(id) == 0) {
+            return false;
+        }
+        signal();
+        return true;
+    }
+
+    /**
+     * 唤醒等待中的工作节点
+     */
+    public void signal() {
+        if (wakeups.availablePermits() == 0) {
+            wakeups.release();
+        }
+    }
+
+    /**
+     * 等待唤醒或超时
+     */
+    public void awaitWork(long timeoutMs) throws InterruptedException {
+        if (wakeups.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+            wakeups.drainPermits();
+        }
+    }
+}
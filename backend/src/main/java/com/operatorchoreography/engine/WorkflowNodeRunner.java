@@ -0,0 +1,271 @@
+package com.operatorchoreography.engine;
+
+import com.operatorchoreography.executor.ExecutorManager;
+import com.operatorchoreography.executor.ExecutorResult;
+import com.operatorchoreography.executor.OperatorResultCache;
+import com.operatorchoreography.generator.model.OperatorTemplates;
+import com.operatorchoreography.generator.model.WorkflowNodes;
+import com.operatorchoreography.service.ExecutionMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * 工作流节点执行器
+ * 根据执行计划中节点绑定的算子模板调用对应的执行器，供工作流测试和正式执行共用
+ * 执行时生效模板的 timeout_seconds（超时后中断执行线程并返回超时结果）、
+ * retry_count（失败后指数退避加随机抖动重试，节点 retry_count 优先）、is_async（后台执行，不阻塞调用方）
+ * 和 is_memoized（相同输入直接返回缓存的执行结果，见 {@link OperatorResultCache}）
+ */
+@Slf4j
+@Component
+public class WorkflowNodeRunner {
+
+    @Autowired
+    private ExecutorManager executorManager;
+
+    @Autowired
+    private ExecutionMetrics executionMetrics;
+
+    @Autowired
+    private OperatorResultCache operatorResultCache;
+
+    @Value("${workflow.engine.retry.base-delay-ms:200}")
+    private long retryBaseDelayMs;
+
+    @Value("${workflow.engine.retry.max-delay-ms:10000}")
+    private long retryMaxDelayMs;
+
+    /**
+     * 带超时的算子调用和异步算子在虚拟线程上执行，超时后中断该线程，调用方线程不被占用
+     */
+    private ExecutorService attemptExecutor;
+
+    @PostConstruct
+    public void init() {
+        attemptExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("node-attempt-", 0).factory());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        attemptExecutor.shutdownNow();
+    }
+
+    /**
+     * 节点绑定的模板是否异步执行
+     */
+    public boolean isAsync(WorkflowPlan plan, WorkflowNodes node) {
+        OperatorTemplates template = plan.getTemplate(node.getTemplateId());
+        return template != null && Boolean.TRUE.equals(template.getIsAsync()) && isTemplateExecutorValid(template);
+    }
+
+    /**
+     * 异步执行节点，立即返回，执行结果（含超时和重试）通过返回的Future获取
+     */
+    public CompletableFuture<ExecutorResult> executeAsync(WorkflowPlan plan, WorkflowNodes node, Map<String, Object> context) {
+        return CompletableFuture.supplyAsync(() -> executeWithRetry(plan, node, context), attemptExecutor);
+    }
+
+    /**
+     * 使用编译后的执行计划执行节点，模板和执行器直接取自计划，不再查询数据库
+     */
+    public ExecutorResult execute(WorkflowPlan plan, WorkflowNodes node, Map<String, Object> context) {
+        if (isAsync(plan, node)) {
+            executeAsync(plan, node, context).thenAccept(result ->
+                    log.info("异步节点执行完成: nodeId={}, nodeName={}, status={}",
+                            node.getId(), node.getNodeName(), result.getStatus()));
+            return ExecutorResult.dispatched()
+                                 .withNodeInfo(node.getId(), node.getNodeName())
+                                 .withTemplateInfo(node.getTemplateId(), plan.getTemplate(node.getTemplateId()).getTemplateName());
+        }
+        return executeWithRetry(plan, node, context);
+    }
+
+    /**
+     * 按重试次数执行节点，失败或超时后指数退避加随机抖动重试
+     */
+    private ExecutorResult executeWithRetry(WorkflowPlan plan, WorkflowNodes node, Map<String, Object> context) {
+        OperatorTemplates template = plan.getTemplate(node.getTemplateId());
+        String templateCode = template != null ? template.getTemplateCode() : null;
+        long startNanos = System.nanoTime();
+        int retries = resolveRetryCount(node, template);
+        ExecutorResult result = executeOnce(plan, node, context);
+        int attempt = 0;
+        while (!result.isSuccess() && attempt < retries && !Thread.currentThread().isInterrupted()) {
+            long delayMs = backoffDelay(attempt);
+            attempt++;
+            log.warn("节点执行失败，{}ms后重试({}/{}): nodeId={}, nodeName={}, 错误: {}",
+                    delayMs, attempt, retries, node.getId(), node.getNodeName(), result.getErrorMessage());
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            executionMetrics.nodeRetried(plan.getWorkflowId(), templateCode);
+            result = executeOnce(plan, node, context);
+        }
+        executionMetrics.nodeFinished(startNanos, plan.getWorkflowId(), templateCode,
+                result.getStatus() != null ? result.getStatus().name() : null);
+        return result.withMetadata("retryCount", attempt);
+    }
+
+    /**
+     * 重试次数：节点配置优先，其次为模板配置
+     */
+    private int resolveRetryCount(WorkflowNodes node, OperatorTemplates template) {
+        if (node.getRetryCount() != null && node.getRetryCount() > 0) {
+            return node.getRetryCount();
+        }
+        if (template != null && template.getRetryCount() != null && template.getRetryCount() > 0) {
+            return template.getRetryCount();
+        }
+        return 0;
+    }
+
+    /**
+     * 指数退避加全抖动：[0, min(最大延迟, 基础延迟 * 2^attempt)] 内随机
+     */
+    private long backoffDelay(int attempt) {
+        long ceiling = Math.min(retryMaxDelayMs, retryBaseDelayMs << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * 执行一次节点，模板配置了超时时间时在截止时间内等待，超时后中断执行线程
+     */
+    private ExecutorResult executeOnce(WorkflowPlan plan, WorkflowNodes node, Map<String, Object> context) {
+        OperatorTemplates template = plan.getTemplate(node.getTemplateId());
+        Integer timeoutSeconds = template != null ? template.getTimeoutSeconds() : null;
+        if (timeoutSeconds == null || timeoutSeconds <= 0) {
+            return invoke(plan, node, context);
+        }
+
+        LocalDateTime startTime = LocalDateTime.now();
+        Future<ExecutorResult> future = attemptExecutor.submit(() -> invoke(plan, node, context));
+        try {
+            return future.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            executionMetrics.nodeTimedOut(plan.getWorkflowId(), template.getTemplateCode());
+            log.error("节点执行超时: nodeId={}, nodeName={}, timeoutSeconds={}", node.getId(), node.getNodeName(), timeoutSeconds);
+            return ExecutorResult.timeout(startTime, LocalDateTime.now())
+                                 .withNodeInfo(node.getId(), node.getNodeName())
+                                 .withTemplateInfo(node.getTemplateId(), template.getTemplateName())
+                                 .withLog("执行超过 " + timeoutSeconds + " 秒，已取消");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return ExecutorResult.cancelled()
+                                 .withNodeInfo(node.getId(), node.getNodeName())
+                                 .withTemplateInfo(node.getTemplateId(), template.getTemplateName());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            log.error("执行器调用失败: templateId={}, 错误: {}", node.getTemplateId(), cause.getMessage(), cause);
+            return ExecutorResult.failure("执行器调用失败: " + cause.getMessage())
+                                 .withNodeInfo(node.getId(), node.getNodeName())
+                                 .withTemplateInfo(node.getTemplateId(), null);
+        }
+    }
+
+    /**
+     * 调用节点绑定的执行器
+     */
+    private ExecutorResult invoke(WorkflowPlan plan, WorkflowNodes node, Map<String, Object> context) {
+        Long templateId = node.getTemplateId();
+        OperatorTemplates template = plan.getTemplate(templateId);
+        ExecutorManager.ExecutorInvoker invoker = plan.getInvoker(templateId);
+
+        if (templateId != null && isTemplateExecutorValid(template)) {
+            try {
+                OperatorResultCache.Key memoKey = operatorResultCache.keyFor(template, context);
+                if (memoKey != null) {
+                    ExecutorResult cached = operatorResultCache.get(memoKey);
+                    if (cached != null) {
+                        log.debug("命中算子结果缓存: nodeId={}, templateId={}", node.getId(), templateId);
+                        return cached.withExecutorInfo(template.getExecutorClass(), template.getExecutorMethod())
+                                     .withNodeInfo(node.getId(), node.getNodeName())
+                                     .withTemplateInfo(templateId, template.getTemplateName());
+                    }
+                }
+
+                logTemplateExecution(template, templateId);
+
+                ExecutorResult executorResult = invoker != null
+                        ? executorManager.executeOperator(invoker, context, templateId, template.getTemplateCode())
+                        : executorManager.executeOperator(template.getExecutorClass(), template.getExecutorMethod(), context,
+                                templateId, template.getTemplateCode());
+                if (memoKey != null) {
+                    operatorResultCache.put(memoKey, executorResult);
+                }
+
+                executorResult.withNodeInfo(node.getId(), node.getNodeName())
+                             .withTemplateInfo(templateId, template.getTemplateName());
+                return executorResult;
+            } catch (Exception e) {
+                log.error("执行器调用失败: templateId={}, 错误: {}", templateId, e.getMessage(), e);
+                return ExecutorResult.failure("执行器调用失败", e)
+                                     .withNodeInfo(node.getId(), node.getNodeName())
+                                     .withTemplateInfo(templateId, null);
+            }
+        }
+
+        if (templateId != null) {
+            if (template == null) {
+                log.warn("模板不存在: templateId={}", templateId);
+            } else if (!Boolean.TRUE.equals(template.getStatus())) {
+                log.warn("模板已禁用: templateId={}, templateName={}", templateId, template.getTemplateName());
+            } else {
+                log.warn("模板执行器信息不完整: templateId={}, templateName={}, executorClass={}, executorMethod={}",
+                        templateId, template.getTemplateName(), template.getExecutorClass(), template.getExecutorMethod());
+            }
+        }
+
+        return ExecutorResult.failure("执行器未配置")
+                    .withNodeInfo(node.getId(), node.getNodeName())
+                    .withTemplateInfo(templateId, null);
+    }
+
+    /**
+     * 验证模板执行器配置是否完整
+     */
+    static boolean isTemplateExecutorValid(OperatorTemplates template) {
+        if (template == null) {
+            return false;
+        }
+
+        String executorClass = template.getExecutorClass();
+        String executorMethod = template.getExecutorMethod();
+
+        return executorClass != null && !executorClass.trim().isEmpty() &&
+               executorMethod != null && !executorMethod.trim().isEmpty() &&
+               template.getStatus() != null && template.getStatus();
+    }
+
+    /**
+     * 打印模板执行信息（用于调试），每次节点执行都会调用，只在DEBUG级别输出
+     */
+    private void logTemplateExecution(OperatorTemplates template, Long templateId) {
+        if (template != null && log.isDebugEnabled()) {
+            log.debug("=== 算子模板执行信息 ===");
+            log.debug("模板ID: {}", templateId);
+            log.debug("模板名称: {}", template.getTemplateName());
+            log.debug("模板编码: {}", template.getTemplateCode());
+            log.debug("执行器类: {}", template.getExecutorClass());
+            log.debug("执行方法: {}", template.getExecutorMethod());
+            log.debug("是否启用: {}", template.getStatus());
+            log.debug("是否异步: {}", template.getIsAsync());
+            log.debug("是否缓存结果: {}", template.getIsMemoized());
+            log.debug("超时时间: {}秒", template.getTimeoutSeconds());
+            log.debug("重试次数: {}", template.getRetryCount());
+            log.debug("========================");
+        }
+    }
+}
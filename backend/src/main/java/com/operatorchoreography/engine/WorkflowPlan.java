@@ -0,0 +1,113 @@
+package com.operatorchoreography.engine;
+
+import com.operatorchoreography.executor.ExecutorManager;
+import com.operatorchoreography.generator.model.OperatorTemplates;
+import com.operatorchoreography.generator.model.WorkflowConnections;
+import com.operatorchoreography.generator.model.WorkflowNodes;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 编译后的工作流执行计划
+ * 包含拓扑排序后的节点、连线（含编译后的连线条件和数据映射）以及预先解析的算子模板和执行器，创建后不再修改
+ */
+public final class WorkflowPlan {
+
+    private final Long workflowId;
+    private final String workflowName;
+    private final String version;
+    private final Long revision;
+    private final List<WorkflowNodes> executionQueue;
+    private final List<WorkflowConnections> connections;
+    private final List<ConnectionRoute> routes;
+    private final Map<Long, OperatorTemplates> templates;
+    private final Map<Long, ExecutorManager.ExecutorInvoker> invokers;
+    private final boolean virtualThreadMode;
+    private final Set<Long> virtualThreadTemplateIds;
+
+    public WorkflowPlan(Long workflowId, String workflowName, String version, Long revision,
+                        List<WorkflowNodes> executionQueue, List<WorkflowConnections> connections,
+                        List<ConnectionRoute> routes,
+                        Map<Long, OperatorTemplates> templates, Map<Long, ExecutorManager.ExecutorInvoker> invokers,
+                        boolean virtualThreadMode, Set<Long> virtualThreadTemplateIds) {
+        this.workflowId = workflowId;
+        this.workflowName = workflowName;
+        this.version = version;
+        this.revision = revision;
+        this.executionQueue = Collections.unmodifiableList(executionQueue);
+        this.connections = Collections.unmodifiableList(connections);
+        this.routes = Collections.unmodifiableList(routes);
+        this.templates = Collections.unmodifiableMap(templates);
+        this.invokers = Collections.unmodifiableMap(invokers);
+        this.virtualThreadMode = virtualThreadMode;
+        this.virtualThreadTemplateIds = Collections.unmodifiableSet(virtualThreadTemplateIds);
+    }
+
+    public Long getWorkflowId() {
+        return workflowId;
+    }
+
+    public String getWorkflowName() {
+        return workflowName;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * 编译时工作流的执行计划修订号
+     */
+    public Long getRevision() {
+        return revision;
+    }
+
+    /**
+     * 拓扑排序后的节点队列
+     */
+    public List<WorkflowNodes> getExecutionQueue() {
+        return executionQueue;
+    }
+
+    public List<WorkflowConnections> getConnections() {
+        return connections;
+    }
+
+    /**
+     * 编译后的连线，与 {@link #getConnections()} 一一对应
+     */
+    public List<ConnectionRoute> getRoutes() {
+        return routes;
+    }
+
+    /**
+     * 获取节点绑定的算子模板，模板不存在时返回null
+     */
+    public OperatorTemplates getTemplate(Long templateId) {
+        return templateId == null ? null : templates.get(templateId);
+    }
+
+    /**
+     * 获取预先解析的执行器，模板不可用或执行器解析失败时返回null
+     */
+    public ExecutorManager.ExecutorInvoker getInvoker(Long templateId) {
+        return templateId == null ? null : invokers.get(templateId);
+    }
+
+    /**
+     * 工作流是否整体以虚拟线程模式执行（execution_mode = VIRTUAL）
+     */
+    public boolean isVirtualThreadMode() {
+        return virtualThreadMode;
+    }
+
+    /**
+     * 节点是否在虚拟线程上执行：工作流为虚拟线程模式，或节点绑定的模板配置为虚拟线程执行
+     */
+    public boolean runsOnVirtualThread(WorkflowNodes node) {
+        return virtualThreadMode || (node.getTemplateId() != null && virtualThreadTemplateIds.contains(node.getTemplateId()));
+    }
+}
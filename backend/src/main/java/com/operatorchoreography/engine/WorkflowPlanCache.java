@@ -0,0 +1,315 @@
+package com.operatorchoreography.engine;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.operatorchoreography.executor.ExecutorManager;
+import com.operatorchoreography.expression.CompiledExpression;
+import com.operatorchoreography.expression.ExpressionCompiler;
+import com.operatorchoreography.generator.mapper.WorkflowsMapper;
+import com.operatorchoreography.generator.model.OperatorTemplates;
+import com.operatorchoreography.generator.model.WorkflowConnections;
+import com.operatorchoreography.generator.model.WorkflowNodes;
+import com.operatorchoreography.generator.model.Workflows;
+import com.operatorchoreography.generator.service.OperatorTemplatesService;
+import com.operatorchoreography.generator.service.WorkflowConnectionsService;
+import com.operatorchoreography.generator.service.WorkflowNodesService;
+import com.operatorchoreography.service.ExecutionMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 工作流执行计划缓存
+ * 按工作流ID缓存编译后的执行计划，计划中记录编译时的工作流版本和执行计划修订号（workflows.plan_revision）。
+ * 工作流、节点或连线变更时由调用方失效对应缓存并递增修订号；按ID取用计划时每隔 revision-check-ms 才向数据库核对一次修订号，
+ * 其他实例发现修订号不一致即重新编译；
+ * 算子模板变更只清空本实例的缓存，其他实例的计划在写入 expire-seconds 后过期
+ */
+@Slf4j
+@Component
+public class WorkflowPlanCache {
+
+    /**
+     * 数据映射中常量的写法：{"目标字段": {"value": 常量}}
+     */
+    private static final String LITERAL_KEY = "value";
+
+    @Autowired
+    private WorkflowsMapper workflowsMapper;
+
+    @Autowired
+    private WorkflowNodesService workflowNodesService;
+
+    @Autowired
+    private WorkflowConnectionsService workflowConnectionsService;
+
+    @Autowired
+    private OperatorTemplatesService operatorTemplatesService;
+
+    @Autowired
+    private ExecutorManager executorManager;
+
+    @Autowired
+    private DagScheduler dagScheduler;
+
+    @Autowired
+    private ExpressionCompiler expressionCompiler;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ExecutionMetrics executionMetrics;
+
+    @Value("${workflow.engine.plan-cache.max-size:1000}")
+    private int maxSize;
+
+    @Value("${workflow.engine.plan-cache.expire-seconds:300}")
+    private long expireSeconds;
+
+    @Value("${workflow.engine.plan-cache.revision-check-ms:1000}")
+    private long revisionCheckMs;
+
+    @Value("${workflow.engine.virtual-threads.enabled:true}")
+    private boolean virtualThreadsEnabled;
+
+    /**
+     * 固定在虚拟线程上执行的算子模板编码（逗号分隔），通常为HTTP、数据库等阻塞I/O算子
+     */
+    @Value("${workflow.engine.virtual-threads.template-codes:}")
+    private String virtualThreadTemplateCodesConfig;
+
+    private Set<String> virtualThreadTemplateCodes;
+
+    @PostConstruct
+    public void init() {
+        virtualThreadTemplateCodes = new HashSet<>();
+        for (String code : virtualThreadTemplateCodesConfig.split(",")) {
+            if (!code.trim().isEmpty()) {
+                virtualThreadTemplateCodes.add(code.trim());
+            }
+        }
+        plans = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        executionMetrics.bindCache("workflowPlan", plans);
+        log.info("执行计划缓存初始化完成: maxSize={}, expireSeconds={}, revisionCheckMs={}, 虚拟线程={}, 虚拟线程模板={}",
+                maxSize, expireSeconds, revisionCheckMs, virtualThreadsEnabled, virtualThreadTemplateCodes);
+    }
+
+    private Cache<Long, CachedPlan> plans;
+
+    /**
+     * 失效代数，编译期间发生失效时丢弃本次编译结果，避免旧计划写回缓存
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * 获取工作流执行计划，缓存未命中或修订号与数据库不一致时编译
+     * 距上次核对不足 revision-check-ms 时直接使用缓存，不查询数据库
+     * @param workflowId 工作流ID
+     * @return 执行计划
+     */
+    public WorkflowPlan getPlan(Long workflowId) {
+        CachedPlan cached = plans.getIfPresent(workflowId);
+        if (cached != null) {
+            long now = System.nanoTime();
+            if (now - cached.checkedAtNanos < TimeUnit.MILLISECONDS.toNanos(revisionCheckMs)) {
+                return cached.plan;
+            }
+            if (Objects.equals(cached.plan.getRevision(), workflowsMapper.selectPlanRevision(workflowId))) {
+                cached.checkedAtNanos = now;
+                return cached.plan;
+            }
+        }
+        return compileAndCache(workflowId);
+    }
+
+    /**
+     * 获取与指定工作流版本和修订号一致的执行计划，不一致时重新编译
+     * @param workflow 已加载的工作流（从队列认领或提交时读取的最新记录）
+     * @return 执行计划
+     */
+    public WorkflowPlan getPlan(Workflows workflow) {
+        CachedPlan cached = plans.getIfPresent(workflow.getId());
+        if (cached != null && Objects.equals(cached.plan.getVersion(), workflow.getVersion())
+                && Objects.equals(cached.plan.getRevision(), workflow.getPlanRevision())) {
+            return cached.plan;
+        }
+        return compileAndCache(workflow.getId());
+    }
+
+    /**
+     * 失效指定工作流的执行计划，并递增数据库中的修订号使其他实例缓存的计划过期
+     * 在事务中调用时，提交后会再次失效，防止并发编译读到未提交前的数据
+     */
+    public void invalidate(Long workflowId) {
+        if (workflowId == null) {
+            return;
+        }
+        workflowsMapper.bumpPlanRevision(workflowId);
+        evict(workflowId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(workflowId);
+                }
+            });
+        }
+    }
+
+    /**
+     * 失效全部执行计划（算子模板变更时使用）
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        plans.invalidateAll();
+        log.debug("已清空全部工作流执行计划缓存");
+    }
+
+    private void evict(Long workflowId) {
+        generation.incrementAndGet();
+        if (plans.asMap().remove(workflowId) != null) {
+            log.debug("已失效工作流执行计划缓存: workflowId={}", workflowId);
+        }
+    }
+
+    private WorkflowPlan compileAndCache(Long workflowId) {
+        long startGeneration = generation.get();
+        WorkflowPlan plan = compile(workflowId);
+        if (generation.get() == startGeneration) {
+            plans.put(workflowId, new CachedPlan(plan));
+        }
+        return plan;
+    }
+
+    /**
+     * 编译执行计划：加载工作流、节点和连线，拓扑排序，并预先解析算子模板和执行器
+     */
+    private WorkflowPlan compile(Long workflowId) {
+        QueryWrapper<Workflows> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("id", workflowId).eq("if_delete", false);
+        Workflows workflow = workflowsMapper.selectOne(queryWrapper);
+        if (workflow == null) {
+            throw new RuntimeException("工作流不存在: " + workflowId);
+        }
+
+        QueryWrapper<WorkflowNodes> nodeQuery = new QueryWrapper<>();
+        nodeQuery.eq("workflow_id", workflowId).eq("if_delete", false);
+        List<WorkflowNodes> nodes = workflowNodesService.list(nodeQuery);
+        if (nodes.isEmpty()) {
+            throw new RuntimeException("工作流中没有节点");
+        }
+
+        QueryWrapper<WorkflowConnections> connectionQuery = new QueryWrapper<>();
+        connectionQuery.eq("workflow_id", workflowId).eq("if_delete", false);
+        List<WorkflowConnections> connections = workflowConnectionsService.list(connectionQuery);
+
+        List<WorkflowNodes> executionQueue = dagScheduler.buildExecutionQueue(nodes, connections);
+        List<ConnectionRoute> routes = new ArrayList<>(connections.size());
+        for (WorkflowConnections connection : connections) {
+            routes.add(compileRoute(connection));
+        }
+
+        Set<Long> templateIds = new HashSet<>();
+        for (WorkflowNodes node : nodes) {
+            if (node.getTemplateId() != null) {
+                templateIds.add(node.getTemplateId());
+            }
+        }
+
+        Map<Long, OperatorTemplates> templates = new HashMap<>();
+        Map<Long, ExecutorManager.ExecutorInvoker> invokers = new HashMap<>();
+        Set<Long> virtualThreadTemplateIds = new HashSet<>();
+        if (!templateIds.isEmpty()) {
+            for (OperatorTemplates template : operatorTemplatesService.listByIds(templateIds)) {
+                templates.put(template.getId(), template);
+                if (virtualThreadsEnabled && virtualThreadTemplateCodes.contains(template.getTemplateCode())) {
+                    virtualThreadTemplateIds.add(template.getId());
+                }
+                if (!WorkflowNodeRunner.isTemplateExecutorValid(template)) {
+                    continue;
+                }
+                try {
+                    invokers.put(template.getId(),
+                            executorManager.resolveInvoker(template.getExecutorClass(), template.getExecutorMethod()));
+                } catch (Exception e) {
+                    // 解析失败的执行器在执行时按原路径报错
+                    log.warn("预解析执行器失败: templateId={}, executorClass={}, 错误: {}",
+                            template.getId(), template.getExecutorClass(), e.getMessage());
+                }
+            }
+        }
+
+        boolean virtualThreadMode = virtualThreadsEnabled && "VIRTUAL".equalsIgnoreCase(workflow.getExecutionMode());
+
+        log.info("工作流执行计划编译完成: workflowId={}, version={}, revision={}, 节点数={}, 连线数={}, 虚拟线程模式={}",
+                workflowId, workflow.getVersion(), workflow.getPlanRevision(), nodes.size(), connections.size(), virtualThreadMode);
+        return new WorkflowPlan(workflowId, workflow.getWorkflowName(), workflow.getVersion(), workflow.getPlanRevision(),
+                executionQueue, connections, routes, templates, invokers, virtualThreadMode, virtualThreadTemplateIds);
+    }
+
+    /**
+     * 编译连线条件和数据映射，配置错误时编译失败，不会等到执行到该分支才暴露
+     */
+    private ConnectionRoute compileRoute(WorkflowConnections connection) {
+        CompiledExpression condition = null;
+        Map<String, Object> mappings = null;
+        try {
+            if (connection.getConditionExpression() != null && !connection.getConditionExpression().trim().isEmpty()) {
+                condition = expressionCompiler.compile(connection.getConditionExpression());
+            }
+            if (connection.getDataMapping() != null && !connection.getDataMapping().trim().isEmpty()) {
+                Map<String, Object> config = objectMapper.readValue(connection.getDataMapping(),
+                        new TypeReference<LinkedHashMap<String, Object>>() {});
+                mappings = new LinkedHashMap<>();
+                for (Map.Entry<String, Object> entry : config.entrySet()) {
+                    mappings.put(entry.getKey(), compileMapping(entry.getValue()));
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("连线配置错误: connectionId=" + connection.getId() + ", " + e.getMessage(), e);
+        }
+        return new ConnectionRoute(connection, condition, mappings);
+    }
+
+    /**
+     * 编译数据映射的值：字符串为表达式，{"value": 常量} 为常量（可传递字符串常量），其他值原样作为常量
+     */
+    private Object compileMapping(Object source) {
+        if (source instanceof String) {
+            return expressionCompiler.compile((String) source);
+        }
+        if (source instanceof Map && ((Map<?, ?>) source).size() == 1 && ((Map<?, ?>) source).containsKey(LITERAL_KEY)) {
+            return ((Map<?, ?>) source).get(LITERAL_KEY);
+        }
+        return source;
+    }
+
+    /**
+     * 缓存的执行计划及最近一次与数据库核对修订号的时间
+     */
+    private static final class CachedPlan {
+        private final WorkflowPlan plan;
+        private volatile long checkedAtNanos;
+
+        private CachedPlan(WorkflowPlan plan) {
+            this.plan = plan;
+            this.checkedAtNanos = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.operatorchoreography.engine;
+
+import com.operatorchoreography.common.util.UuidUtils;
+import com.operatorchoreography.generator.model.WorkflowExecutions;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 工作流队列工作节点
+ * 每个实例一个：轮询线程按空闲执行槽位从 {@link WorkflowExecutionQueue} 认领执行并交给执行引擎，
+ * 维护线程定时为本实例持有的执行续租，并回收任意实例遗留的过期租约。
+ * 实例停止时释放持有的租约，未完成的执行立即可被其他实例认领
+ */
+@Slf4j
+@Component
+public class WorkflowQueueWorker {
+
+    private static final long MAX_BACKOFF_MS = 30000;
+
+    @Autowired
+    private WorkflowExecutionQueue workflowExecutionQueue;
+
+    @Autowired
+    private WorkflowExecutionEngine workflowExecutionEngine;
+
+    @Value("${workflow.engine.queue.enabled:true}")
+    private boolean queueEnabled;
+
+    @Value("${workflow.engine.queue.worker-enabled:true}")
+    private boolean workerEnabled;
+
+    @Value("${workflow.engine.queue.max-in-flight:16}")
+    private int maxInFlight;
+
+    @Value("${workflow.engine.queue.claim-batch-size:16}")
+    private int claimBatchSize;
+
+    @Value("${workflow.engine.queue.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${workflow.engine.queue.lease-seconds:60}")
+    private int leaseSeconds;
+
+    @Value("${workflow.engine.queue.heartbeat-interval-seconds:15}")
+    private int heartbeatIntervalSeconds;
+
+    @Value("${workflow.engine.queue.reclaim-interval-seconds:30}")
+    private int reclaimIntervalSeconds;
+
+    @Value("${workflow.engine.queue.max-attempts:3}")
+    private int maxAttempts;
+
+    private final String workerId = buildWorkerId();
+
+    /**
+     * 本实例持有租约的执行：记录ID -> 执行记录
+     */
+    private final Map<Long, WorkflowExecutions> inFlight = new ConcurrentHashMap<>();
+
+    private Semaphore slots;
+    private Thread poller;
+    private ScheduledExecutorService maintenance;
+    private volatile boolean running;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!queueEnabled || !workerEnabled) {
+            log.info("工作流队列工作节点未启用: queueEnabled={}, workerEnabled={}", queueEnabled, workerEnabled);
+            return;
+        }
+        slots = new Semaphore(maxInFlight);
+        running = true;
+
+        poller = new Thread(this::pollLoop, "workflow-queue-poller");
+        poller.setDaemon(true);
+        poller.start();
+
+        maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "workflow-queue-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.scheduleWithFixedDelay(this::heartbeat,
+                heartbeatIntervalSeconds, heartbeatIntervalSeconds, TimeUnit.SECONDS);
+        maintenance.scheduleWithFixedDelay(this::reclaim,
+                reclaimIntervalSeconds, reclaimIntervalSeconds, TimeUnit.SECONDS);
+
+        log.info("工作流队列工作节点已启动: workerId={}, maxInFlight={}, leaseSeconds={}, heartbeatIntervalSeconds={}",
+                workerId, maxInFlight, leaseSeconds, heartbeatIntervalSeconds);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        poller.interrupt();
+        maintenance.shutdownNow();
+        List<Long> ids = new ArrayList<>(inFlight.keySet());
+        try {
+            int released = workflowExecutionQueue.release(workerId, ids);
+            log.info("工作流队列工作节点已停止: workerId={}, 释放租约数={}", workerId, released);
+        } catch (Exception e) {
+            log.warn("释放租约失败，等待租约过期后由其他实例回收: workerId={}, 错误: {}", workerId, e.getMessage());
+        }
+    }
+
+    /**
+     * 轮询认领：有空闲槽位时批量认领，队列已取空或槽位已满时等待唤醒或下一个轮询周期
+     */
+    private void pollLoop() {
+        int failures = 0;
+        while (running) {
+            try {
+                int capacity = Math.min(slots.availablePermits(), claimBatchSize);
+                int claimed = 0;
+                if (capacity > 0) {
+                    for (WorkflowExecutions execution : workflowExecutionQueue.claim(workerId, capacity, leaseSeconds)) {
+                        dispatch(execution);
+                        claimed++;
+                    }
+                }
+                failures = 0;
+                if (capacity == 0 || claimed < capacity) {
+                    workflowExecutionQueue.awaitWork(pollIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                // 数据库不可用时按 2^n 退避，最长 MAX_BACKOFF_MS
+                failures++;
+                long backoffMs = Math.min(pollIntervalMs << Math.min(failures, 10), MAX_BACKOFF_MS);
+                log.error("认领工作流执行失败: workerId={}, 连续失败={}, {}ms后重试", workerId, failures, backoffMs, e);
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    private void dispatch(WorkflowExecutions execution) {
+        slots.acquireUninterruptibly();
+        inFlight.put(execution.getId(), execution);
+        workflowExecutionEngine.executeClaimed(execution, () -> {
+            // 同一执行可能已被本实例重新认领，只移除本次认领的条目
+            inFlight.remove(execution.getId(), execution);
+            slots.release();
+            workflowExecutionQueue.signal();
+        });
+    }
+
+    /**
+     * 为本实例持有的执行续租
+     */
+    private void heartbeat() {
+        List<Long> ids = new ArrayList<>(inFlight.keySet());
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            int renewed = workflowExecutionQueue.renew(workerId, ids, leaseSeconds);
+            if (renewed < ids.size()) {
+                log.warn("部分执行租约已失效: workerId={}, 持有={}, 续租成功={}", workerId, ids.size(), renewed);
+            }
+        } catch (Exception e) {
+            log.error("执行租约续租失败: workerId={}, 持有={}", workerId, ids.size(), e);
+        }
+    }
+
+    /**
+     * 回收过期租约（各实例都会执行，UPDATE本身保证同一条记录只被回收一次）
+     */
+    private void reclaim() {
+        try {
+            workflowExecutionQueue.reclaimExpired(maxAttempts);
+        } catch (Exception e) {
+            log.error("回收过期执行租约失败: workerId={}", workerId, e);
+        }
+    }
+
+    /**
+     * 工作节点ID：主机名:进程号:随机后缀，同一主机多个实例或重启后不会重复
+     */
+    private static String buildWorkerId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + ":" + ProcessHandle.current().pid() + ":" + UuidUtils.generateUuid().substring(0, 8);
+    }
+}
@@ -0,0 +1,152 @@
+package com.operatorchoreography.executor;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.operatorchoreography.service.ExecutionMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * AES Cipher 复用池
+ * 按 加解密模式+密钥 缓存已初始化的 Cipher，避免每次调用都 getInstance 并重新展开密钥；
+ * Cipher 不是线程安全的，借出后由调用方独占，用完归还。节点运行在虚拟线程上，
+ * ThreadLocal 缓存随线程结束即失效，因此采用借还池而不是按线程缓存
+ */
+@Slf4j
+@Component
+public class AesCipherPool {
+
+    private static final String ALGORITHM = "AES";
+    private static final String TRANSFORMATION = "AES";
+    private static final String DEFAULT_KEY = "defaultkey123456"; // 默认密钥（16字节）
+    private static final int KEY_LENGTH = 16;
+
+    @Autowired
+    private ExecutionMetrics executionMetrics;
+
+    @Value("${operator.cipher.cache-size:256}")
+    private long cacheSize;
+
+    @Value("${operator.cipher.max-idle-per-key:32}")
+    private int maxIdlePerKey;
+
+    /**
+     * 模式:密钥 -> 空闲的 Cipher
+     */
+    private Cache<String, Queue<Cipher>> idleCiphers;
+
+    @PostConstruct
+    public void init() {
+        idleCiphers = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .recordStats()
+                .build();
+        executionMetrics.bindCache("aesCipher", idleCiphers);
+    }
+
+    /**
+     * 借出已按密钥初始化的 Cipher
+     * @param mode Cipher.ENCRYPT_MODE 或 Cipher.DECRYPT_MODE
+     * @param key 原始密钥，为空时使用默认密钥，不足16位补0、超过16位截断
+     * @return 租约，使用完毕后关闭以归还
+     */
+    public Lease acquire(int mode, String key) throws GeneralSecurityException {
+        String normalizedKey = normalizeKey(key);
+        String poolKey = mode + ":" + normalizedKey;
+        Queue<Cipher> queue = idleCiphers.get(poolKey, k -> new ConcurrentLinkedQueue<>());
+        Cipher cipher = queue.poll();
+        if (cipher == null) {
+            cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(mode, new SecretKeySpec(normalizedKey.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+        }
+        return new Lease(queue, cipher);
+    }
+
+    /**
+     * 规范化密钥，与历史版本保持一致：不足16位时空格替换为0并在末尾补0
+     */
+    static String normalizeKey(String key) {
+        if (key == null || key.isEmpty()) {
+            return DEFAULT_KEY;
+        }
+        if (key.length() > KEY_LENGTH) {
+            return key.substring(0, KEY_LENGTH);
+        }
+        if (key.length() == KEY_LENGTH) {
+            return key;
+        }
+        StringBuilder builder = new StringBuilder(KEY_LENGTH).append(key.replace(' ', '0'));
+        while (builder.length() < KEY_LENGTH) {
+            builder.append('0');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 获取缓存统计
+     */
+    public Map<String, Object> getStats() {
+        CacheStats stats = idleCiphers.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("size", idleCiphers.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+
+    /**
+     * Cipher 租约
+     * doFinal 失败后 Cipher 状态不确定，租约作废，不再归还到池中
+     */
+    public final class Lease implements AutoCloseable {
+        private final Queue<Cipher> queue;
+        private final Cipher cipher;
+        private boolean broken;
+
+        private Lease(Queue<Cipher> queue, Cipher cipher) {
+            this.queue = queue;
+            this.cipher = cipher;
+        }
+
+        public Cipher getCipher() {
+            return cipher;
+        }
+
+        public byte[] doFinal(byte[] input) throws GeneralSecurityException {
+            try {
+                return cipher.doFinal(input);
+            } catch (GeneralSecurityException | RuntimeException e) {
+                broken = true;
+                throw e;
+            }
+        }
+
+        /**
+         * 作废租约（流式处理中途失败时调用）
+         */
+        public void discard() {
+            broken = true;
+        }
+
+        @Override
+        public void close() {
+            if (!broken && queue.size() < maxIdlePerKey) {
+                queue.offer(cipher);
+            }
+        }
+    }
+}
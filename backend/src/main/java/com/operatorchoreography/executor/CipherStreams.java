@@ -0,0 +1,137 @@
+package com.operatorchoreography.executor;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 加解密执行器流式模式的输入输出
+ * 数据只来自节点数据：上游传入的 inputStream，或按顺序拼接的 chunks（byte[] 或按UTF-8编码的字符串）；
+ * 分块在读取时才转换为输入流，不预先拼接成完整的字节数组
+ */
+final class CipherStreams {
+
+    static final String INPUT_STREAM = "inputStream";
+    static final String CHUNKS = "chunks";
+    static final String OUTPUT_STREAM = "outputStream";
+
+    private CipherStreams() {
+    }
+
+    /**
+     * 节点数据是否为流式模式
+     */
+    static boolean isStreamInput(Map<String, Object> inputData) {
+        return inputData.get(INPUT_STREAM) instanceof InputStream || inputData.get(CHUNKS) instanceof List;
+    }
+
+    /**
+     * 打开输入：inputStream 优先，其次为 chunks
+     */
+    static InputStream openInput(Map<String, Object> inputData) {
+        Object stream = inputData.get(INPUT_STREAM);
+        if (stream instanceof InputStream) {
+            return (InputStream) stream;
+        }
+        Iterator<?> chunks = ((List<?>) inputData.get(CHUNKS)).iterator();
+        return new SequenceInputStream(new Enumeration<InputStream>() {
+            @Override
+            public boolean hasMoreElements() {
+                return chunks.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                return new ByteArrayInputStream(toBytes(chunks.next()));
+            }
+        });
+    }
+
+    /**
+     * 上游传入的输出流，未传入时返回null（由执行器写入内存并放入输出数据）
+     */
+    static OutputStream outputStream(Map<String, Object> inputData) {
+        Object stream = inputData.get(OUTPUT_STREAM);
+        return stream instanceof OutputStream ? (OutputStream) stream : null;
+    }
+
+    private static byte[] toBytes(Object chunk) {
+        if (chunk instanceof byte[]) {
+            return (byte[]) chunk;
+        }
+        if (chunk instanceof CharSequence) {
+            return chunk.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        throw new IllegalArgumentException("chunks只支持byte[]或字符串: "
+                + (chunk == null ? "null" : chunk.getClass().getSimpleName()));
+    }
+
+    /**
+     * 统计读取字节数的输入流
+     */
+    static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * 统计写出字节数的输出流
+     */
+    static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -1,16 +1,20 @@
 package com.operatorchoreography.executor;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 import java.time.LocalDateTime;
 
 /**
  * 坐标转换执行器
  * 执行经纬度坐标系转换操作
  * 支持WGS84、GCJ02、BD09坐标系之间的转换
+ * 输入包含 longitudes/latitudes 或 coordinates 时进入批量模式，坐标以 double[] 列存储并按块原地转换
  */
 @Slf4j
 @Component
@@ -19,6 +23,15 @@ public class CoordinateConvertExecutor implements BaseExecutor {
     private static final double PI = Math.PI;
     private static final double A = 6378245.0; // 长半轴
     private static final double EE = 0.00669342162296594323; // 偏心率平方
+    private static final double X_PI = PI * 3000.0 / 180.0;
+
+    /**
+     * 批量转换每块的点数，并行时按块分配给工作线程
+     */
+    private static final int BATCH_CHUNK_SIZE = 4096;
+
+    @Value("${operator.coordinate.parallel-threshold:50000}")
+    private int parallelThreshold;
 
     public ExecutorResult convert(Map<String, Object> inputData, Long templateId) throws Exception {
         return execute(inputData, templateId);
@@ -26,6 +39,10 @@ public class CoordinateConvertExecutor implements BaseExecutor {
 
     @Override
     public ExecutorResult execute(Map<String, Object> inputData, Long templateId) throws Exception {
+        if (inputData.containsKey("longitudes") || inputData.containsKey("coordinates")) {
+            return executeBatch(inputData, templateId);
+        }
+
         log.info("开始执行坐标转换: templateId={}", templateId);
         
         LocalDateTime startTime = LocalDateTime.now();
@@ -78,6 +95,233 @@ public class CoordinateConvertExecutor implements BaseExecutor {
         }
     }
     
+    /**
+     * 批量坐标转换
+     * inputData参数：
+     *   longitudes/latitudes - 经度、纬度列（double[] 或数值列表）
+     *   coordinates          - 或者使用交错排列的一维数组 [lng0, lat0, lng1, lat1, ...]
+     *   fromCrs/toCrs        - 源、目标坐标系
+     * 输出与输入形式一致：列输入返回 convertedLngs/convertedLats，交错输入返回 convertedCoordinates，均为 double[]
+     */
+    public ExecutorResult executeBatch(Map<String, Object> inputData, Long templateId) throws Exception {
+        LocalDateTime startTime = LocalDateTime.now();
+
+        try {
+            String fromCrs = (String) inputData.getOrDefault("fromCrs", "WGS84");
+            String toCrs = (String) inputData.getOrDefault("toCrs", "GCJ02");
+            boolean interleaved = !inputData.containsKey("longitudes");
+
+            double[] lngs;
+            double[] lats;
+            if (interleaved) {
+                double[] coordinates = toDoubleArray(inputData.get("coordinates"), "coordinates");
+                if (coordinates.length % 2 != 0) {
+                    throw new IllegalArgumentException("coordinates长度必须为偶数");
+                }
+                lngs = new double[coordinates.length / 2];
+                lats = new double[coordinates.length / 2];
+                for (int i = 0; i < lngs.length; i++) {
+                    lngs[i] = coordinates[2 * i];
+                    lats[i] = coordinates[2 * i + 1];
+                }
+            } else {
+                lngs = toDoubleArray(inputData.get("longitudes"), "longitudes");
+                lats = toDoubleArray(inputData.get("latitudes"), "latitudes");
+                if (lngs.length != lats.length) {
+                    throw new IllegalArgumentException("经度和纬度数量不一致: " + lngs.length + " != " + lats.length);
+                }
+            }
+
+            log.info("开始执行批量坐标转换: templateId={}, 点数={}, 从{}转换到{}", templateId, lngs.length, fromCrs, toCrs);
+            convertInPlace(lngs, lats, fromCrs, toCrs);
+
+            Map<String, Object> outputData = new HashMap<>();
+            if (interleaved) {
+                double[] converted = new double[lngs.length * 2];
+                for (int i = 0; i < lngs.length; i++) {
+                    converted[2 * i] = lngs[i];
+                    converted[2 * i + 1] = lats[i];
+                }
+                outputData.put("convertedCoordinates", converted);
+            } else {
+                outputData.put("convertedLngs", lngs);
+                outputData.put("convertedLats", lats);
+            }
+            outputData.put("count", lngs.length);
+            outputData.put("fromCrs", fromCrs);
+            outputData.put("toCrs", toCrs);
+            outputData.put("message", "批量坐标转换执行成功");
+
+            log.info("批量坐标转换成功: templateId={}, 点数={}, {}->{}", templateId, lngs.length, fromCrs, toCrs);
+
+            LocalDateTime endTime = LocalDateTime.now();
+            return ExecutorResult.success(outputData, startTime, endTime)
+                                .withTemplateInfo(templateId, null)
+                                .withLog("批量坐标转换执行成功")
+                                .withMetadata("fromCrs", fromCrs)
+                                .withMetadata("toCrs", toCrs)
+                                .withMetadata("count", lngs.length);
+
+        } catch (Exception e) {
+            log.error("批量坐标转换执行失败: templateId={}", templateId, e);
+            return ExecutorResult.failure("批量坐标转换执行失败", e)
+                                .withTemplateInfo(templateId, null)
+                                .withLog("批量坐标转换执行失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 批量转换坐标，结果写入新数组，输入数组不变
+     * @return [经度数组, 纬度数组]
+     */
+    public double[][] convertBatch(double[] lngs, double[] lats, String fromCrs, String toCrs) {
+        if (lngs.length != lats.length) {
+            throw new IllegalArgumentException("经度和纬度数量不一致: " + lngs.length + " != " + lats.length);
+        }
+        double[] outLngs = lngs.clone();
+        double[] outLats = lats.clone();
+        convertInPlace(outLngs, outLats, fromCrs, toCrs);
+        return new double[][]{outLngs, outLats};
+    }
+
+    /**
+     * 原地批量转换：与单点转换相同，先转到WGS84再转到目标坐标系，每一步是一个对块内所有点的循环
+     * 点数达到 operator.coordinate.parallel-threshold 时按块并行
+     */
+    private void convertInPlace(double[] lngs, double[] lats, String fromCrs, String toCrs) {
+        String from = fromCrs.toUpperCase();
+        String to = toCrs.toUpperCase();
+        if (!"WGS84".equals(from) && !"GCJ02".equals(from) && !"BD09".equals(from)) {
+            throw new IllegalArgumentException("不支持的源坐标系: " + fromCrs);
+        }
+        if (!"WGS84".equals(to) && !"GCJ02".equals(to) && !"BD09".equals(to)) {
+            throw new IllegalArgumentException("不支持的目标坐标系: " + toCrs);
+        }
+        if (from.equals(to)) {
+            return;
+        }
+
+        int chunks = (lngs.length + BATCH_CHUNK_SIZE - 1) / BATCH_CHUNK_SIZE;
+        IntStream range = IntStream.range(0, chunks);
+        (lngs.length >= parallelThreshold ? range.parallel() : range).forEach(chunk -> {
+            int start = chunk * BATCH_CHUNK_SIZE;
+            int end = Math.min(start + BATCH_CHUNK_SIZE, lngs.length);
+
+            if ("BD09".equals(from)) {
+                bd09ToGcj02(lngs, lats, start, end);
+            }
+            if (!"WGS84".equals(from)) {
+                gcj02ToWgs84(lngs, lats, start, end);
+            }
+            if (!"WGS84".equals(to)) {
+                wgs84ToGcj02(lngs, lats, start, end);
+            }
+            if ("BD09".equals(to)) {
+                gcj02ToBd09(lngs, lats, start, end);
+            }
+        });
+    }
+
+    /**
+     * 批量WGS84转GCJ02
+     */
+    private void wgs84ToGcj02(double[] lngs, double[] lats, int start, int end) {
+        for (int i = start; i < end; i++) {
+            double lng = lngs[i];
+            double lat = lats[i];
+            if (outOfChina(lng, lat)) {
+                continue;
+            }
+            lngs[i] = lng + deltaLng(lng, lat);
+            lats[i] = lat + deltaLat(lng, lat);
+        }
+    }
+
+    /**
+     * 批量GCJ02转WGS84
+     */
+    private void gcj02ToWgs84(double[] lngs, double[] lats, int start, int end) {
+        for (int i = start; i < end; i++) {
+            double lng = lngs[i];
+            double lat = lats[i];
+            if (outOfChina(lng, lat)) {
+                continue;
+            }
+            lngs[i] = lng - deltaLng(lng, lat);
+            lats[i] = lat - deltaLat(lng, lat);
+        }
+    }
+
+    /**
+     * 批量GCJ02转BD09
+     */
+    private void gcj02ToBd09(double[] lngs, double[] lats, int start, int end) {
+        for (int i = start; i < end; i++) {
+            double lng = lngs[i];
+            double lat = lats[i];
+            double z = Math.sqrt(lng * lng + lat * lat) + 0.00002 * Math.sin(lat * X_PI);
+            double theta = Math.atan2(lat, lng) + 0.000003 * Math.cos(lng * X_PI);
+            lngs[i] = z * Math.cos(theta) + 0.0065;
+            lats[i] = z * Math.sin(theta) + 0.006;
+        }
+    }
+
+    /**
+     * 批量BD09转GCJ02
+     */
+    private void bd09ToGcj02(double[] lngs, double[] lats, int start, int end) {
+        for (int i = start; i < end; i++) {
+            double x = lngs[i] - 0.0065;
+            double y = lats[i] - 0.006;
+            double z = Math.sqrt(x * x + y * y) - 0.00002 * Math.sin(y * X_PI);
+            double theta = Math.atan2(y, x) - 0.000003 * Math.cos(x * X_PI);
+            lngs[i] = z * Math.cos(theta);
+            lats[i] = z * Math.sin(theta);
+        }
+    }
+
+    /**
+     * GCJ02经度偏移量
+     */
+    private double deltaLng(double lng, double lat) {
+        double radlat = lat / 180.0 * PI;
+        double magic = Math.sin(radlat);
+        magic = 1 - EE * magic * magic;
+        return (transformLng(lng - 105.0, lat - 35.0) * 180.0) / (A / Math.sqrt(magic) * Math.cos(radlat) * PI);
+    }
+
+    /**
+     * GCJ02纬度偏移量
+     */
+    private double deltaLat(double lng, double lat) {
+        double radlat = lat / 180.0 * PI;
+        double magic = Math.sin(radlat);
+        magic = 1 - EE * magic * magic;
+        return (transformLat(lng - 105.0, lat - 35.0) * 180.0) / ((A * (1 - EE)) / (magic * Math.sqrt(magic)) * PI);
+    }
+
+    /**
+     * 将 double[] 或数值列表转换为新的 double[]，转换原地进行，不能修改调用方传入的数组
+     */
+    private double[] toDoubleArray(Object value, String name) {
+        if (value instanceof double[]) {
+            return ((double[]) value).clone();
+        }
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            double[] result = new double[list.size()];
+            for (int i = 0; i < result.length; i++) {
+                Double number = getDoubleValue(list.get(i));
+                if (number == null) {
+                    throw new IllegalArgumentException(name + "第" + i + "个值不是有效数值: " + list.get(i));
+                }
+                result[i] = number;
+            }
+            return result;
+        }
+        throw new IllegalArgumentException(name + "必须是数值数组");
+    }
+    
     /**
      * 执行坐标转换
      */
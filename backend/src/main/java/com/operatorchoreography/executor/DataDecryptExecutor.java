@@ -1,25 +1,33 @@
 package com.operatorchoreography.executor;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.time.LocalDateTime;
 import javax.crypto.Cipher;
-import javax.crypto.spec.SecretKeySpec;
+import javax.crypto.CipherInputStream;
 
 /**
  * 数据解密执行器
  * 数据解密处理
+ * 批量模式：encryptedTexts 列表，或 records + fields 对记录中的指定字段解密，同一次调用复用一个 Cipher；
+ * 流式模式：inputStream 或 chunks 分块输入，经 CipherInputStream 边读边写到上游传入的 outputStream（未传入时写入内存）
  */
 @Slf4j
 @Component
 public class DataDecryptExecutor implements BaseExecutor {
 
-    private static final String ALGORITHM = "AES";
-    private static final String TRANSFORMATION = "AES";
+    @Autowired
+    private AesCipherPool cipherPool;
 
     public ExecutorResult decrypt(Map<String, Object> inputData, Long templateId) throws Exception {
         return execute(inputData, templateId);
@@ -27,6 +35,13 @@ public class DataDecryptExecutor implements BaseExecutor {
 
     @Override
     public ExecutorResult execute(Map<String, Object> inputData, Long templateId) throws Exception {
+        if (CipherStreams.isStreamInput(inputData)) {
+            return executeStream(inputData, templateId);
+        }
+        if (inputData.get("encryptedTexts") instanceof List || inputData.get("records") instanceof List) {
+            return executeBatch(inputData, templateId);
+        }
+
         log.info("开始执行数据解密: templateId={}", templateId);
         
         LocalDateTime startTime = LocalDateTime.now();
@@ -47,27 +62,10 @@ public class DataDecryptExecutor implements BaseExecutor {
                     encryptionType, encryptedText.length());
             
             String plainText;
-            
-            switch (encryptionType.toUpperCase()) {
-                case "BASE64":
-                    // Base64解码
-                    byte[] decodedBytes = Base64.getDecoder().decode(encryptedText);
-                    plainText = new String(decodedBytes, StandardCharsets.UTF_8);
-                    log.debug("使用BASE64解码完成");
-                    break;
-                case "AES":
-                    // AES解密
-                    plainText = decryptWithAES(encryptedText, encryptionKey);
-                    log.debug("使用AES解密完成");
-                    break;
-                case "SIMPLE":
-                    // 简单解密（仅用于测试）
-                    plainText = simpleDecrypt(encryptedText);
-                    log.debug("使用简单解密完成");
-                    break;
-                default:
-                    throw new IllegalArgumentException("不支持的解密类型: " + encryptionType);
+            try (AesCipherPool.Lease lease = acquireCipher(encryptionType, encryptionKey)) {
+                plainText = decryptValue(encryptedText, encryptionType, lease);
             }
+            log.debug("使用{}解密完成", encryptionType);
             
             Map<String, Object> outputData = new HashMap<>();
             outputData.put("plainText", plainText);
@@ -97,27 +95,188 @@ public class DataDecryptExecutor implements BaseExecutor {
     }
     
     /**
-     * AES解密
+     * 批量解密
+     * inputData参数：
+     *   encryptedTexts - 密文列表，输出同序的 plainTexts，null 元素保持为 null
+     *   records/fields - 或者传入记录列表和需要解密的字段名，输出字段已解密的记录副本
+     *   encryptionType/encryptionKey - 同单条模式
      */
-    private String decryptWithAES(String encryptedText, String key) throws Exception {
-        if (key == null || key.isEmpty()) {
-            key = "defaultkey123456"; // 默认密钥（16字节）
+    @SuppressWarnings("unchecked")
+    public ExecutorResult executeBatch(Map<String, Object> inputData, Long templateId) throws Exception {
+        LocalDateTime startTime = LocalDateTime.now();
+
+        try {
+            String encryptionKey = (String) inputData.get("encryptionKey");
+            String encryptionType = (String) inputData.get("encryptionType");
+            if (encryptionType == null) encryptionType = "BASE64";
+
+            Map<String, Object> outputData = new HashMap<>();
+            int count;
+            try (AesCipherPool.Lease lease = acquireCipher(encryptionType, encryptionKey)) {
+                if (inputData.get("encryptedTexts") instanceof List) {
+                    List<Object> encryptedTexts = (List<Object>) inputData.get("encryptedTexts");
+                    List<String> plainTexts = new ArrayList<>(encryptedTexts.size());
+                    for (Object encryptedText : encryptedTexts) {
+                        plainTexts.add(encryptedText == null ? null : decryptValue(encryptedText.toString(), encryptionType, lease));
+                    }
+                    outputData.put("plainTexts", plainTexts);
+                    count = encryptedTexts.size();
+                } else {
+                    List<Map<String, Object>> records = (List<Map<String, Object>>) inputData.get("records");
+                    List<String> fields = (List<String>) inputData.get("fields");
+                    if (fields == null || fields.isEmpty()) {
+                        throw new IllegalArgumentException("批量解密记录时fields不能为空");
+                    }
+                    List<Map<String, Object>> decryptedRecords = new ArrayList<>(records.size());
+                    for (Map<String, Object> record : records) {
+                        Map<String, Object> decrypted = new HashMap<>(record);
+                        for (String field : fields) {
+                            Object value = record.get(field);
+                            if (value != null) {
+                                decrypted.put(field, decryptValue(value.toString(), encryptionType, lease));
+                            }
+                        }
+                        decryptedRecords.add(decrypted);
+                    }
+                    outputData.put("records", decryptedRecords);
+                    outputData.put("fields", fields);
+                    count = records.size();
+                }
+            }
+            outputData.put("count", count);
+            outputData.put("encryptionType", encryptionType);
+            outputData.put("message", "批量数据解密执行成功");
+
+            log.info("批量数据解密成功: templateId={}, 解密类型: {}, 数量: {}", templateId, encryptionType, count);
+
+            LocalDateTime endTime = LocalDateTime.now();
+            return ExecutorResult.success(outputData, startTime, endTime)
+                                .withTemplateInfo(templateId, null)
+                                .withLog("批量数据解密执行成功")
+                                .withMetadata("encryptionType", encryptionType)
+                                .withMetadata("count", count)
+                                .withMetadata("keyProvided", encryptionKey != null);
+
+        } catch (Exception e) {
+            log.error("批量数据解密执行失败: templateId={}", templateId, e);
+            return ExecutorResult.failure("批量数据解密执行失败", e)
+                                .withTemplateInfo(templateId, null)
+                                .withLog("批量数据解密执行失败: " + e.getMessage());
         }
-        
-        // 确保密钥长度为16字节
-        if (key.length() < 16) {
-            key = String.format("%-16s", key).replace(' ', '0');
-        } else if (key.length() > 16) {
-            key = key.substring(0, 16);
+    }
+
+    /**
+     * 流式解密
+     * inputData参数：
+     *   inputStream/chunks - 密文输入流，或按顺序拼接的密文分块（byte[] 或字符串）
+     *   outputStream       - 明文输出流（可选），未传入时明文放入输出数据：默认为UTF-8文本 decryptedText，
+     *                        binaryOutput 为 true 时为 decryptedBytes
+     *   encryptionType     - BASE64 或 AES（SIMPLE 不支持流式）
+     *   encodeBase64       - AES密文是否为Base64文本（默认true，与加密执行器一致）
+     */
+    public ExecutorResult executeStream(Map<String, Object> inputData, Long templateId) throws Exception {
+        LocalDateTime startTime = LocalDateTime.now();
+
+        try {
+            String encryptionKey = (String) inputData.get("encryptionKey");
+            String encryptionType = (String) inputData.get("encryptionType");
+            if (encryptionType == null) encryptionType = "BASE64";
+            boolean encodeBase64 = !Boolean.FALSE.equals(inputData.get("encodeBase64"));
+            boolean binaryOutput = Boolean.TRUE.equals(inputData.get("binaryOutput"));
+
+            log.info("开始执行流式数据解密: templateId={}, 解密类型: {}", templateId, encryptionType);
+
+            OutputStream target = CipherStreams.outputStream(inputData);
+            ByteArrayOutputStream buffer = target == null ? new ByteArrayOutputStream() : null;
+            long bytesWritten;
+            long bytesRead;
+            try (CipherStreams.CountingInputStream in = new CipherStreams.CountingInputStream(CipherStreams.openInput(inputData));
+                 OutputStream out = target != null ? target : buffer) {
+                bytesWritten = decryptStream(in, out, encryptionType, encryptionKey, encodeBase64);
+                bytesRead = in.getCount();
+            }
+
+            Map<String, Object> outputData = new HashMap<>();
+            if (buffer != null) {
+                if (binaryOutput) {
+                    outputData.put("decryptedBytes", buffer.toByteArray());
+                } else {
+                    outputData.put("decryptedText", buffer.toString(StandardCharsets.UTF_8));
+                }
+            }
+            outputData.put("bytesRead", bytesRead);
+            outputData.put("bytesWritten", bytesWritten);
+            outputData.put("encryptionType", encryptionType);
+            outputData.put("message", "流式数据解密执行成功");
+
+            log.info("流式数据解密成功: templateId={}, 读取字节: {}, 写出字节: {}", templateId, bytesRead, bytesWritten);
+
+            LocalDateTime endTime = LocalDateTime.now();
+            return ExecutorResult.success(outputData, startTime, endTime)
+                                .withTemplateInfo(templateId, null)
+                                .withLog("流式数据解密执行成功")
+                                .withMetadata("encryptionType", encryptionType)
+                                .withMetadata("bytesRead", bytesRead)
+                                .withMetadata("bytesWritten", bytesWritten);
+
+        } catch (Exception e) {
+            log.error("流式数据解密执行失败: templateId={}", templateId, e);
+            return ExecutorResult.failure("流式数据解密执行失败", e)
+                                .withTemplateInfo(templateId, null)
+                                .withLog("流式数据解密执行失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 流式解密，读完输入后关闭输入流
+     * @return 写出的明文字节数
+     */
+    public long decryptStream(InputStream in, OutputStream out, String encryptionType, String encryptionKey,
+                              boolean encodeBase64) throws Exception {
+        switch (encryptionType.toUpperCase()) {
+            case "BASE64":
+                try (InputStream decoded = Base64.getDecoder().wrap(in)) {
+                    return decoded.transferTo(out);
+                }
+            case "AES":
+                try (AesCipherPool.Lease lease = cipherPool.acquire(Cipher.DECRYPT_MODE, encryptionKey)) {
+                    try (InputStream source = encodeBase64 ? Base64.getDecoder().wrap(in) : in;
+                         CipherInputStream decrypted = new CipherInputStream(source, lease.getCipher())) {
+                        return decrypted.transferTo(out);
+                    } catch (Exception e) {
+                        lease.discard();
+                        throw e;
+                    }
+                }
+            default:
+                throw new IllegalArgumentException("流式解密不支持的解密类型: " + encryptionType);
+        }
+    }
+
+    /**
+     * AES类型时借出解密Cipher，其他类型返回null
+     */
+    private AesCipherPool.Lease acquireCipher(String encryptionType, String encryptionKey) throws Exception {
+        return "AES".equalsIgnoreCase(encryptionType) ? cipherPool.acquire(Cipher.DECRYPT_MODE, encryptionKey) : null;
+    }
+
+    /**
+     * 按加密类型解密单个值
+     */
+    private String decryptValue(String encryptedText, String encryptionType, AesCipherPool.Lease lease) throws Exception {
+        switch (encryptionType.toUpperCase()) {
+            case "BASE64":
+                // Base64解码
+                return new String(Base64.getDecoder().decode(encryptedText), StandardCharsets.UTF_8);
+            case "AES":
+                // AES解密
+                return new String(lease.doFinal(Base64.getDecoder().decode(encryptedText)), StandardCharsets.UTF_8);
+            case "SIMPLE":
+                // 简单解密（仅用于测试）
+                return simpleDecrypt(encryptedText);
+            default:
+                throw new IllegalArgumentException("不支持的解密类型: " + encryptionType);
         }
-        
-        SecretKeySpec secretKey = new SecretKeySpec(key.getBytes(), ALGORITHM);
-        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
-        cipher.init(Cipher.DECRYPT_MODE, secretKey);
-        
-        byte[] encryptedBytes = Base64.getDecoder().decode(encryptedText);
-        byte[] decryptedBytes = cipher.doFinal(encryptedBytes);
-        return new String(decryptedBytes, StandardCharsets.UTF_8);
     }
     
     /**
@@ -1,27 +1,33 @@
 package com.operatorchoreography.executor;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.time.LocalDateTime;
 import javax.crypto.Cipher;
-import javax.crypto.KeyGenerator;
-import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
+import javax.crypto.CipherOutputStream;
 
 /**
  * 数据加密执行器
  * 数据加密处理
+ * 批量模式：plainTexts 列表，或 records + fields 对记录中的指定字段加密，同一次调用复用一个 Cipher；
+ * 流式模式：inputStream 或 chunks 分块输入，经 CipherOutputStream 边读边写到上游传入的 outputStream（未传入时写入内存）
  */
 @Slf4j
 @Component
 public class DataEncryptExecutor implements BaseExecutor {
 
-    private static final String ALGORITHM = "AES";
-    private static final String TRANSFORMATION = "AES";
+    @Autowired
+    private AesCipherPool cipherPool;
 
     public ExecutorResult encrypt(Map<String, Object> inputData, Long templateId) throws Exception {
         return execute(inputData, templateId);
@@ -29,6 +35,13 @@ public class DataEncryptExecutor implements BaseExecutor {
 
     @Override
     public ExecutorResult execute(Map<String, Object> inputData, Long templateId) throws Exception {
+        if (CipherStreams.isStreamInput(inputData)) {
+            return executeStream(inputData, templateId);
+        }
+        if (inputData.get("plainTexts") instanceof List || inputData.get("records") instanceof List) {
+            return executeBatch(inputData, templateId);
+        }
+
         log.info("开始执行数据加密: templateId={}", templateId);
         
         LocalDateTime startTime = LocalDateTime.now();
@@ -50,26 +63,10 @@ public class DataEncryptExecutor implements BaseExecutor {
                     encryptionType, plainText.length());
             
             String encryptedText;
-            
-            switch (encryptionType.toUpperCase()) {
-                case "BASE64":
-                    // Base64编码
-                    encryptedText = Base64.getEncoder().encodeToString(plainText.getBytes(StandardCharsets.UTF_8));
-                    log.debug("使用BASE64编码完成");
-                    break;
-                case "AES":
-                    // AES加密
-                    encryptedText = encryptWithAES(plainText, encryptionKey);
-                    log.debug("使用AES加密完成");
-                    break;
-                case "SIMPLE":
-                    // 简单加密（仅用于测试）
-                    encryptedText = simpleEncrypt(plainText);
-                    log.debug("使用简单加密完成");
-                    break;
-                default:
-                    throw new IllegalArgumentException("不支持的加密类型: " + encryptionType);
+            try (AesCipherPool.Lease lease = acquireCipher(encryptionType, encryptionKey)) {
+                encryptedText = encryptValue(plainText, encryptionType, lease);
             }
+            log.debug("使用{}加密完成", encryptionType);
             
             Map<String, Object> outputData = new HashMap<>();
             outputData.put("encryptedText", encryptedText);
@@ -99,26 +96,186 @@ public class DataEncryptExecutor implements BaseExecutor {
     }
     
     /**
-     * AES加密
+     * 批量加密
+     * inputData参数：
+     *   plainTexts     - 明文列表，输出同序的 encryptedTexts，null 元素保持为 null
+     *   records/fields - 或者传入记录列表和需要加密的字段名，输出字段已加密的记录副本
+     *   encryptionType/encryptionKey - 同单条模式
      */
-    private String encryptWithAES(String plainText, String key) throws Exception {
-        if (key == null || key.isEmpty()) {
-            key = "defaultkey123456"; // 默认密钥（16字节）
+    @SuppressWarnings("unchecked")
+    public ExecutorResult executeBatch(Map<String, Object> inputData, Long templateId) throws Exception {
+        LocalDateTime startTime = LocalDateTime.now();
+
+        try {
+            String encryptionKey = (String) inputData.get("encryptionKey");
+            String encryptionType = (String) inputData.get("encryptionType");
+            if (encryptionType == null) encryptionType = "BASE64";
+
+            Map<String, Object> outputData = new HashMap<>();
+            int count;
+            try (AesCipherPool.Lease lease = acquireCipher(encryptionType, encryptionKey)) {
+                if (inputData.get("plainTexts") instanceof List) {
+                    List<Object> plainTexts = (List<Object>) inputData.get("plainTexts");
+                    List<String> encryptedTexts = new ArrayList<>(plainTexts.size());
+                    for (Object plainText : plainTexts) {
+                        encryptedTexts.add(plainText == null ? null : encryptValue(plainText.toString(), encryptionType, lease));
+                    }
+                    outputData.put("encryptedTexts", encryptedTexts);
+                    count = plainTexts.size();
+                } else {
+                    List<Map<String, Object>> records = (List<Map<String, Object>>) inputData.get("records");
+                    List<String> fields = (List<String>) inputData.get("fields");
+                    if (fields == null || fields.isEmpty()) {
+                        throw new IllegalArgumentException("批量加密记录时fields不能为空");
+                    }
+                    List<Map<String, Object>> encryptedRecords = new ArrayList<>(records.size());
+                    for (Map<String, Object> record : records) {
+                        Map<String, Object> encrypted = new HashMap<>(record);
+                        for (String field : fields) {
+                            Object value = record.get(field);
+                            if (value != null) {
+                                encrypted.put(field, encryptValue(value.toString(), encryptionType, lease));
+                            }
+                        }
+                        encryptedRecords.add(encrypted);
+                    }
+                    outputData.put("records", encryptedRecords);
+                    outputData.put("fields", fields);
+                    count = records.size();
+                }
+            }
+            outputData.put("count", count);
+            outputData.put("encryptionType", encryptionType);
+            outputData.put("message", "批量数据加密执行成功");
+
+            log.info("批量数据加密成功: templateId={}, 加密类型: {}, 数量: {}", templateId, encryptionType, count);
+
+            LocalDateTime endTime = LocalDateTime.now();
+            return ExecutorResult.success(outputData, startTime, endTime)
+                                .withTemplateInfo(templateId, null)
+                                .withLog("批量数据加密执行成功")
+                                .withMetadata("encryptionType", encryptionType)
+                                .withMetadata("count", count)
+                                .withMetadata("keyProvided", encryptionKey != null);
+
+        } catch (Exception e) {
+            log.error("批量数据加密执行失败: templateId={}", templateId, e);
+            return ExecutorResult.failure("批量数据加密执行失败", e)
+                                .withTemplateInfo(templateId, null)
+                                .withLog("批量数据加密执行失败: " + e.getMessage());
         }
-        
-        // 确保密钥长度为16字节
-        if (key.length() < 16) {
-            key = String.format("%-16s", key).replace(' ', '0');
-        } else if (key.length() > 16) {
-            key = key.substring(0, 16);
+    }
+
+    /**
+     * 流式加密
+     * inputData参数：
+     *   inputStream/chunks - 明文输入流，或按顺序拼接的明文分块（byte[] 或UTF-8字符串）
+     *   outputStream       - 密文输出流（可选），未传入时密文放入输出数据：文本密文为 encryptedText，二进制密文为 encryptedBytes
+     *   encryptionType     - BASE64 或 AES（SIMPLE 不支持流式）
+     *   encodeBase64       - AES密文是否以Base64文本写出（默认true，与单条模式的密文格式一致）
+     */
+    public ExecutorResult executeStream(Map<String, Object> inputData, Long templateId) throws Exception {
+        LocalDateTime startTime = LocalDateTime.now();
+
+        try {
+            String encryptionKey = (String) inputData.get("encryptionKey");
+            String encryptionType = (String) inputData.get("encryptionType");
+            if (encryptionType == null) encryptionType = "BASE64";
+            boolean encodeBase64 = !Boolean.FALSE.equals(inputData.get("encodeBase64"));
+            boolean textOutput = "BASE64".equalsIgnoreCase(encryptionType) || encodeBase64;
+
+            log.info("开始执行流式数据加密: templateId={}, 加密类型: {}", templateId, encryptionType);
+
+            OutputStream target = CipherStreams.outputStream(inputData);
+            ByteArrayOutputStream buffer = target == null ? new ByteArrayOutputStream() : null;
+            CipherStreams.CountingOutputStream out = new CipherStreams.CountingOutputStream(target != null ? target : buffer);
+            long bytesRead;
+            try (InputStream in = CipherStreams.openInput(inputData)) {
+                bytesRead = encryptStream(in, out, encryptionType, encryptionKey, encodeBase64);
+            }
+            long bytesWritten = out.getCount();
+
+            Map<String, Object> outputData = new HashMap<>();
+            if (buffer != null) {
+                if (textOutput) {
+                    outputData.put("encryptedText", buffer.toString(StandardCharsets.US_ASCII));
+                } else {
+                    outputData.put("encryptedBytes", buffer.toByteArray());
+                }
+            }
+            outputData.put("bytesRead", bytesRead);
+            outputData.put("bytesWritten", bytesWritten);
+            outputData.put("encryptionType", encryptionType);
+            outputData.put("message", "流式数据加密执行成功");
+
+            log.info("流式数据加密成功: templateId={}, 读取字节: {}, 写出字节: {}", templateId, bytesRead, bytesWritten);
+
+            LocalDateTime endTime = LocalDateTime.now();
+            return ExecutorResult.success(outputData, startTime, endTime)
+                                .withTemplateInfo(templateId, null)
+                                .withLog("流式数据加密执行成功")
+                                .withMetadata("encryptionType", encryptionType)
+                                .withMetadata("bytesRead", bytesRead)
+                                .withMetadata("bytesWritten", bytesWritten);
+
+        } catch (Exception e) {
+            log.error("流式数据加密执行失败: templateId={}", templateId, e);
+            return ExecutorResult.failure("流式数据加密执行失败", e)
+                                .withTemplateInfo(templateId, null)
+                                .withLog("流式数据加密执行失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 流式加密，读完输入后关闭输出流（写出密文末块和Base64填充）
+     * @return 读取的明文字节数
+     */
+    public long encryptStream(InputStream in, OutputStream out, String encryptionType, String encryptionKey,
+                              boolean encodeBase64) throws Exception {
+        switch (encryptionType.toUpperCase()) {
+            case "BASE64":
+                try (OutputStream encoded = Base64.getEncoder().wrap(out)) {
+                    return in.transferTo(encoded);
+                }
+            case "AES":
+                try (AesCipherPool.Lease lease = cipherPool.acquire(Cipher.ENCRYPT_MODE, encryptionKey)) {
+                    try (OutputStream target = encodeBase64 ? Base64.getEncoder().wrap(out) : out;
+                         CipherOutputStream encrypted = new CipherOutputStream(target, lease.getCipher())) {
+                        return in.transferTo(encrypted);
+                    } catch (Exception e) {
+                        lease.discard();
+                        throw e;
+                    }
+                }
+            default:
+                throw new IllegalArgumentException("流式加密不支持的加密类型: " + encryptionType);
+        }
+    }
+
+    /**
+     * AES类型时借出加密Cipher，其他类型返回null
+     */
+    private AesCipherPool.Lease acquireCipher(String encryptionType, String encryptionKey) throws Exception {
+        return "AES".equalsIgnoreCase(encryptionType) ? cipherPool.acquire(Cipher.ENCRYPT_MODE, encryptionKey) : null;
+    }
+
+    /**
+     * 按加密类型加密单个值
+     */
+    private String encryptValue(String plainText, String encryptionType, AesCipherPool.Lease lease) throws Exception {
+        switch (encryptionType.toUpperCase()) {
+            case "BASE64":
+                // Base64编码
+                return Base64.getEncoder().encodeToString(plainText.getBytes(StandardCharsets.UTF_8));
+            case "AES":
+                // AES加密
+                return Base64.getEncoder().encodeToString(lease.doFinal(plainText.getBytes(StandardCharsets.UTF_8)));
+            case "SIMPLE":
+                // 简单加密（仅用于测试）
+                return simpleEncrypt(plainText);
+            default:
+                throw new IllegalArgumentException("不支持的加密类型: " + encryptionType);
         }
-        
-        SecretKeySpec secretKey = new SecretKeySpec(key.getBytes(), ALGORITHM);
-        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
-        cipher.init(Cipher.ENCRYPT_MODE, secretKey);
-        
-        byte[] encryptedBytes = cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8));
-        return Base64.getEncoder().encodeToString(encryptedBytes);
     }
     
     /**
@@ -1,16 +1,13 @@
 package com.operatorchoreography.executor;
 
 import com.bazaarvoice.jolt.Chainr;
-import com.bazaarvoice.jolt.JsonUtils;
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
-import com.operatorchoreography.generator.model.OperatorTemplateParams;
 import com.operatorchoreography.generator.service.OperatorTemplateParamsService;
+import com.operatorchoreography.service.JoltChainrCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.List;
 import java.time.LocalDateTime;
 
 /**
@@ -24,6 +21,9 @@ public class DataMappingExecutor implements BaseExecutor {
     @Autowired
     private OperatorTemplateParamsService operatorTemplateParamsService;
 
+    @Autowired
+    private JoltChainrCache joltChainrCache;
+
     @Override
     public ExecutorResult execute(Map<String, Object> inputData, Long templateId) throws Exception {
         log.info("开始执行JOLT数据映射: templateId={}", templateId);
@@ -58,7 +58,7 @@ public class DataMappingExecutor implements BaseExecutor {
             log.debug("待转换数据类型: {}", inputToTransform.getClass().getSimpleName());
             
             // 执行JOLT转换
-            Object transformedData = executeJoltTransformation(joltSpec, inputToTransform);
+            Object transformedData = executeJoltTransformation(templateId, joltSpec, inputToTransform);
             
             log.info("JOLT数据映射执行成功: templateId={}, 输入类型: {}, 输出类型: {}", 
                     templateId, inputToTransform.getClass().getSimpleName(), 
@@ -94,20 +94,15 @@ public class DataMappingExecutor implements BaseExecutor {
     }
     
     /**
-     * 从数据库获取JOLT映射规则
+     * 从数据库获取JOLT映射规则（经模板参数缓存）
      */
     private String getMappingRulesFromDatabase(Long templateId) {
         try {
-            QueryWrapper<OperatorTemplateParams> queryWrapper = new QueryWrapper<>();
-            queryWrapper.eq("template_id", templateId)
-                       .eq("param_key", "mapping_rules")
-                       .eq("param_category", "config");
+            String mappingRules = operatorTemplateParamsService.getMappingRules(templateId);
             
-            OperatorTemplateParams param = operatorTemplateParamsService.getOne(queryWrapper);
-            
-            if (param != null && param.getDefaultValue() != null) {
+            if (mappingRules != null) {
                 log.debug("从数据库获取到JOLT规则: templateId={}", templateId);
-                return param.getDefaultValue();
+                return mappingRules;
             }
             
             log.warn("数据库中未找到mapping_rules配置: templateId={}", templateId);
@@ -135,14 +130,10 @@ public class DataMappingExecutor implements BaseExecutor {
     /**
      * 执行JOLT转换
      */
-    private Object executeJoltTransformation(String joltSpecJson, Object inputData) throws Exception {
+    private Object executeJoltTransformation(Long templateId, String joltSpecJson, Object inputData) throws Exception {
         try {
-            // 解析JOLT规则
-            List<Object> joltSpec = JsonUtils.jsonToList(joltSpecJson);
-            log.debug("解析JOLT规则成功，规则数量: {}", joltSpec.size());
-            
-            // 创建JOLT转换链
-            Chainr chainr = Chainr.fromSpec(joltSpec);
+            // 获取编译后的JOLT转换链（按模板ID + 规则内容缓存）
+            Chainr chainr = joltChainrCache.getChainr(templateId, joltSpecJson);
             
             // 执行转换
             Object transformedData = chainr.transform(inputData);
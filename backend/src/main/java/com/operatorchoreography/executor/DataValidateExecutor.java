@@ -1,94 +1,98 @@
 package com.operatorchoreography.executor;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.operatorchoreography.service.ExecutionMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.IntStream;
 import java.time.LocalDateTime;
 
 /**
  * 数据验证执行器
  * 数据格式和内容验证
+ * 验证规则编译为验证器（正则预编译、类型和范围预先解析）并按规则内容缓存；
+ * 输入中包含 records 列表时进入批量模式，逐行验证并只返回出错行的下标和错误信息
  */
 @Slf4j
 @Component
 public class DataValidateExecutor implements BaseExecutor {
 
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@([A-Za-z0-9.-]+\\.[A-Za-z]{2,})$");
+    private static final Pattern PHONE_PATTERN = Pattern.compile("^1[3-9]\\d{9}$");
+    // 简单的日期格式验证，实际项目中可以使用更复杂的日期解析
+    private static final Pattern DATE_PATTERN = Pattern.compile("^\\d{4}-\\d{2}-\\d{2}$");
+
+    @Autowired
+    private ExecutionMetrics executionMetrics;
+
+    @Value("${operator.validate.cache-size:500}")
+    private long cacheSize;
+
+    @Value("${operator.validate.parallel-threshold:1000}")
+    private int parallelThreshold;
+
+    @Value("${operator.validate.max-error-rows:1000}")
+    private int defaultMaxErrorRows;
+
+    /**
+     * 规则内容 -> 编译后的验证器
+     */
+    private Cache<List<Map<String, Object>>, CompiledValidator> validatorCache;
+
+    @PostConstruct
+    public void init() {
+        validatorCache = Caffeine.newBuilder().maximumSize(cacheSize).recordStats().build();
+        executionMetrics.bindCache("validator", validatorCache);
+    }
+
     public ExecutorResult validate(Map<String, Object> inputData, Long templateId) throws Exception {
         return execute(inputData, templateId);
     }
 
     @Override
     public ExecutorResult execute(Map<String, Object> inputData, Long templateId) throws Exception {
+        if (inputData.get("records") instanceof List || inputData.get("inputData") instanceof List) {
+            return validateBulk(inputData, templateId);
+        }
+
         log.info("开始执行数据验证: templateId={}", templateId);
-        
+
         LocalDateTime startTime = LocalDateTime.now();
         List<String> errors = new ArrayList<>();
-        
+
         try {
             Map<String, Object> data = (Map<String, Object>) inputData.get("inputData");
             List<Map<String, Object>> validationRules = (List<Map<String, Object>>) inputData.get("validationRules");
-            
+
             if (data == null) {
                 log.error("输入数据为空: templateId={}", templateId);
                 errors.add("输入数据不能为空");
             } else if (validationRules != null) {
                 log.debug("数据验证规则数量: {}, 数据字段数量: {}", validationRules.size(), data.size());
-                
-                // 执行验证规则
-                for (Map<String, Object> rule : validationRules) {
-                    String field = (String) rule.get("field");
-                    String type = (String) rule.get("type");
-                    Boolean required = (Boolean) rule.getOrDefault("required", false);
-                    String pattern = (String) rule.get("pattern");
-                    Object minValue = rule.get("minValue");
-                    Object maxValue = rule.get("maxValue");
-                    
-                    Object value = data.get(field);
-                    
-                    log.debug("验证字段: {}, 类型: {}, 必填: {}, 值: {}", field, type, required, value);
-                    
-                    // 必填验证
-                    if (required && (value == null || value.toString().trim().isEmpty())) {
-                        errors.add("字段 " + field + " 不能为空");
-                        continue;
-                    }
-                    
-                    if (value != null) {
-                        // 类型验证
-                        if (!validateType(value, type)) {
-                            errors.add("字段 " + field + " 类型不正确，期望类型: " + type);
-                        }
-                        
-                        // 正则表达式验证
-                        if (pattern != null && !validatePattern(value.toString(), pattern)) {
-                            errors.add("字段 " + field + " 格式不正确");
-                        }
-                        
-                        // 数值范围验证
-                        if (minValue != null || maxValue != null) {
-                            if (!validateRange(value, minValue, maxValue)) {
-                                errors.add("字段 " + field + " 值超出范围");
-                            }
-                        }
-                    }
-                }
+                getValidator(validationRules).validate(data, errors);
             }
-            
+
             boolean isValid = errors.isEmpty();
-            
+
             Map<String, Object> outputData = new HashMap<>();
             outputData.put("isValid", isValid);
             outputData.put("errors", errors);
             outputData.put("validatedData", data);
             outputData.put("message", isValid ? "数据验证成功" : "数据验证失败");
-            
-            log.info("数据验证完成: templateId={}, 验证结果={}, 错误数量={}", 
+
+            log.info("数据验证完成: templateId={}, 验证结果={}, 错误数量={}",
                     templateId, isValid, errors.size());
-            
+
             LocalDateTime endTime = LocalDateTime.now();
             return ExecutorResult.success(outputData, startTime, endTime)
                                 .withTemplateInfo(templateId, null)
@@ -96,7 +100,7 @@ public class DataValidateExecutor implements BaseExecutor {
                                 .withMetadata("validationResult", isValid)
                                 .withMetadata("errorCount", errors.size())
                                 .withMetadata("ruleCount", validationRules != null ? validationRules.size() : 0);
-            
+
         } catch (Exception e) {
             log.error("数据验证执行失败: templateId={}", templateId, e);
             LocalDateTime endTime = LocalDateTime.now();
@@ -105,112 +109,270 @@ public class DataValidateExecutor implements BaseExecutor {
                                 .withLog("数据验证执行失败: " + e.getMessage());
         }
     }
-    
-    /**
-     * 验证数据类型
-     */
-    private boolean validateType(Object value, String expectedType) {
-        if (expectedType == null) {
-            return true;
-        }
-        
-        switch (expectedType.toLowerCase()) {
-            case "string":
-                return value instanceof String;
-            case "number":
-            case "integer":
-                return value instanceof Number || isNumeric(value.toString());
-            case "boolean":
-                return value instanceof Boolean || 
-                       "true".equalsIgnoreCase(value.toString()) || 
-                       "false".equalsIgnoreCase(value.toString());
-            case "email":
-                return validateEmail(value.toString());
-            case "phone":
-                return validatePhone(value.toString());
-            case "date":
-                return validateDate(value.toString());
-            default:
-                return true;
-        }
-    }
-    
-    /**
-     * 验证正则表达式
-     */
-    private boolean validatePattern(String value, String pattern) {
-        try {
-            return Pattern.matches(pattern, value);
-        } catch (Exception e) {
-            return false;
-        }
-    }
-    
+
     /**
-     * 验证数值范围
+     * 批量验证
+     * inputData参数：
+     *   records         - 待验证的记录列表（也可直接以列表形式传入 inputData，便于作为流式查询的批次下游）
+     *   validationRules - 验证规则
+     *   maxErrorRows    - 返回错误详情的最大行数（可选，默认 operator.validate.max-error-rows），计数不受影响
+     * 记录数达到 operator.validate.parallel-threshold 时并行验证
      */
-    private boolean validateRange(Object value, Object minValue, Object maxValue) {
+    @SuppressWarnings("unchecked")
+    public ExecutorResult validateBulk(Map<String, Object> inputData, Long templateId) throws Exception {
+        LocalDateTime startTime = LocalDateTime.now();
+
         try {
-            double numValue = Double.parseDouble(value.toString());
-            
-            if (minValue != null) {
-                double min = Double.parseDouble(minValue.toString());
-                if (numValue < min) {
-                    return false;
-                }
+            Object recordsValue = inputData.get("records") != null ? inputData.get("records") : inputData.get("inputData");
+            List<Map<String, Object>> records = (List<Map<String, Object>>) recordsValue;
+            List<Map<String, Object>> validationRules = (List<Map<String, Object>>) inputData.get("validationRules");
+            if (records == null) {
+                throw new IllegalArgumentException("records不能为空");
             }
-            
-            if (maxValue != null) {
-                double max = Double.parseDouble(maxValue.toString());
-                if (numValue > max) {
-                    return false;
+            Object maxErrorRowsValue = inputData.get("maxErrorRows");
+            int maxErrorRows = maxErrorRowsValue != null ? Integer.parseInt(maxErrorRowsValue.toString()) : defaultMaxErrorRows;
+
+            CompiledValidator validator = getValidator(validationRules != null ? validationRules : new ArrayList<>());
+            boolean parallel = records.size() >= parallelThreshold;
+            log.info("开始执行批量数据验证: templateId={}, 记录数={}, 规则数={}, 并行={}",
+                    templateId, records.size(), validator.ruleCount(), parallel);
+
+            // 只有出错的行分配错误列表
+            List<String>[] rowErrors = new List[records.size()];
+            IntStream indexes = IntStream.range(0, records.size());
+            (parallel ? indexes.parallel() : indexes).forEach(i -> {
+                Map<String, Object> record = records.get(i);
+                List<String> errors = new ArrayList<>(0);
+                if (record == null) {
+                    errors.add("记录不能为空");
+                } else {
+                    validator.validate(record, errors);
+                }
+                if (!errors.isEmpty()) {
+                    rowErrors[i] = errors;
+                }
+            });
+
+            List<Integer> invalidIndexes = new ArrayList<>();
+            List<Map<String, Object>> errorRows = new ArrayList<>();
+            for (int i = 0; i < rowErrors.length; i++) {
+                if (rowErrors[i] == null) {
+                    continue;
+                }
+                invalidIndexes.add(i);
+                if (errorRows.size() < maxErrorRows) {
+                    Map<String, Object> errorRow = new HashMap<>();
+                    errorRow.put("index", i);
+                    errorRow.put("errors", rowErrors[i]);
+                    errorRows.add(errorRow);
                 }
             }
-            
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
+            int invalidCount = invalidIndexes.size();
+            boolean isValid = invalidCount == 0;
+
+            Map<String, Object> outputData = new HashMap<>();
+            outputData.put("isValid", isValid);
+            outputData.put("totalRecords", records.size());
+            outputData.put("validCount", records.size() - invalidCount);
+            outputData.put("invalidCount", invalidCount);
+            outputData.put("invalidIndexes", invalidIndexes);
+            outputData.put("errorRows", errorRows);
+            outputData.put("errorRowsTruncated", invalidCount > errorRows.size());
+            outputData.put("message", isValid ? "批量数据验证成功" : "批量数据验证失败");
+
+            log.info("批量数据验证完成: templateId={}, 记录数={}, 错误行数={}", templateId, records.size(), invalidCount);
+
+            LocalDateTime endTime = LocalDateTime.now();
+            return ExecutorResult.success(outputData, startTime, endTime)
+                                .withTemplateInfo(templateId, null)
+                                .withLog(isValid ? "批量数据验证成功" : "批量数据验证失败")
+                                .withMetadata("validationResult", isValid)
+                                .withMetadata("totalRecords", records.size())
+                                .withMetadata("invalidCount", invalidCount)
+                                .withMetadata("ruleCount", validator.ruleCount());
+
+        } catch (Exception e) {
+            log.error("批量数据验证执行失败: templateId={}", templateId, e);
+            return ExecutorResult.failure("批量数据验证执行失败", e)
+                                .withTemplateInfo(templateId, null)
+                                .withLog("批量数据验证执行失败: " + e.getMessage());
         }
     }
-    
+
     /**
-     * 验证是否为数字
+     * 获取编译后的验证器，按规则内容缓存
+     * 缓存中保存规则的副本，调用方之后修改规则列表不会影响已缓存的键
      */
-    private boolean isNumeric(String str) {
-        try {
-            Double.parseDouble(str);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
+    private CompiledValidator getValidator(List<Map<String, Object>> validationRules) {
+        CompiledValidator validator = validatorCache.getIfPresent(validationRules);
+        if (validator == null) {
+            List<Map<String, Object>> rulesCopy = new ArrayList<>(validationRules.size());
+            for (Map<String, Object> rule : validationRules) {
+                rulesCopy.add(new HashMap<>(rule));
+            }
+            validator = new CompiledValidator(rulesCopy);
+            validatorCache.put(rulesCopy, validator);
+            log.debug("编译数据验证规则: 规则数量={}", rulesCopy.size());
         }
+        return validator;
     }
-    
+
     /**
-     * 验证邮箱格式
+     * 编译后的验证器，创建后不可变，可并发使用
      */
-    private boolean validateEmail(String email) {
-        String emailPattern = "^[A-Za-z0-9+_.-]+@([A-Za-z0-9.-]+\\.[A-Za-z]{2,})$";
-        return Pattern.matches(emailPattern, email);
+    private static final class CompiledValidator {
+        private final FieldRule[] rules;
+
+        CompiledValidator(List<Map<String, Object>> validationRules) {
+            rules = new FieldRule[validationRules.size()];
+            for (int i = 0; i < rules.length; i++) {
+                rules[i] = new FieldRule(validationRules.get(i));
+            }
+        }
+
+        int ruleCount() {
+            return rules.length;
+        }
+
+        void validate(Map<String, Object> data, List<String> errors) {
+            for (FieldRule rule : rules) {
+                rule.validate(data, errors);
+            }
+        }
     }
-    
-    /**
-     * 验证手机号格式
-     */
-    private boolean validatePhone(String phone) {
-        String phonePattern = "^1[3-9]\\d{9}$";
-        return Pattern.matches(phonePattern, phone);
+
+    private enum FieldType {
+        ANY, STRING, NUMBER, BOOLEAN, EMAIL, PHONE, DATE;
+
+        static FieldType of(String type) {
+            if (type == null) {
+                return ANY;
+            }
+            switch (type.toLowerCase()) {
+                case "string": return STRING;
+                case "number":
+                case "integer": return NUMBER;
+                case "boolean": return BOOLEAN;
+                case "email": return EMAIL;
+                case "phone": return PHONE;
+                case "date": return DATE;
+                default: return ANY;
+            }
+        }
     }
-    
+
     /**
-     * 验证日期格式
+     * 单个字段的验证规则
      */
-    private boolean validateDate(String date) {
-        try {
-            // 简单的日期格式验证，实际项目中可以使用更复杂的日期解析
-            String datePattern = "^\\d{4}-\\d{2}-\\d{2}$";
-            return Pattern.matches(datePattern, date);
-        } catch (Exception e) {
-            return false;
+    private static final class FieldRule {
+        private final String field;
+        private final String type;
+        private final FieldType fieldType;
+        private final boolean required;
+        private final boolean hasPattern;
+        // 正则无效时为null，按格式不正确处理
+        private final Pattern pattern;
+        private final boolean hasRange;
+        // 范围值无法解析时为NaN，按超出范围处理
+        private final double min;
+        private final double max;
+        private final String requiredMessage;
+        private final String typeMessage;
+        private final String patternMessage;
+        private final String rangeMessage;
+
+        FieldRule(Map<String, Object> rule) {
+            this.field = (String) rule.get("field");
+            this.type = (String) rule.get("type");
+            this.fieldType = FieldType.of(type);
+            this.required = Boolean.TRUE.equals(rule.getOrDefault("required", false));
+            String patternText = (String) rule.get("pattern");
+            this.hasPattern = patternText != null;
+            this.pattern = compilePattern(patternText);
+            Object minValue = rule.get("minValue");
+            Object maxValue = rule.get("maxValue");
+            this.hasRange = minValue != null || maxValue != null;
+            this.min = minValue != null ? parseDouble(minValue) : Double.NEGATIVE_INFINITY;
+            this.max = maxValue != null ? parseDouble(maxValue) : Double.POSITIVE_INFINITY;
+            this.requiredMessage = "字段 " + field + " 不能为空";
+            this.typeMessage = "字段 " + field + " 类型不正确，期望类型: " + type;
+            this.patternMessage = "字段 " + field + " 格式不正确";
+            this.rangeMessage = "字段 " + field + " 值超出范围";
+        }
+
+        void validate(Map<String, Object> data, List<String> errors) {
+            Object value = data.get(field);
+
+            // 必填验证
+            if (required && (value == null || value.toString().trim().isEmpty())) {
+                errors.add(requiredMessage);
+                return;
+            }
+            if (value == null) {
+                return;
+            }
+
+            // 类型验证
+            if (!validateType(value)) {
+                errors.add(typeMessage);
+            }
+
+            // 正则表达式验证
+            if (hasPattern && (pattern == null || !pattern.matcher(value.toString()).matches())) {
+                errors.add(patternMessage);
+            }
+
+            // 数值范围验证
+            if (hasRange && !validateRange(value)) {
+                errors.add(rangeMessage);
+            }
+        }
+
+        private boolean validateType(Object value) {
+            switch (fieldType) {
+                case STRING:
+                    return value instanceof String;
+                case NUMBER:
+                    return value instanceof Number || !Double.isNaN(parseDouble(value));
+                case BOOLEAN:
+                    return value instanceof Boolean ||
+                           "true".equalsIgnoreCase(value.toString()) ||
+                           "false".equalsIgnoreCase(value.toString());
+                case EMAIL:
+                    return EMAIL_PATTERN.matcher(value.toString()).matches();
+                case PHONE:
+                    return PHONE_PATTERN.matcher(value.toString()).matches();
+                case DATE:
+                    return DATE_PATTERN.matcher(value.toString()).matches();
+                default:
+                    return true;
+            }
+        }
+
+        private boolean validateRange(Object value) {
+            double number = value instanceof Number ? ((Number) value).doubleValue() : parseDouble(value);
+            // NaN参与比较结果均为false，无法解析的值或范围都判定为超出范围
+            return number >= min && number <= max;
+        }
+
+        private static Pattern compilePattern(String patternText) {
+            if (patternText == null) {
+                return null;
+            }
+            try {
+                return Pattern.compile(patternText);
+            } catch (PatternSyntaxException e) {
+                log.warn("验证规则正则表达式无效: {}, 错误: {}", patternText, e.getMessage());
+                return null;
+            }
+        }
+
+        private static double parseDouble(Object value) {
+            try {
+                return Double.parseDouble(value.toString());
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
         }
     }
-} 
\ No newline at end of file
+}
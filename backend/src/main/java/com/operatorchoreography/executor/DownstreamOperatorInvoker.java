@@ -0,0 +1,83 @@
+package com.operatorchoreography.executor;
+
+import com.operatorchoreography.generator.model.OperatorTemplates;
+import com.operatorchoreography.generator.service.OperatorTemplatesService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 下游算子调用器
+ * 供流式查询、循环等执行器在执行过程中按批/按项调用下游算子
+ * 先解析一次算子模板和执行器，之后重复调用不再查询数据库
+ */
+@Slf4j
+@Component
+public class DownstreamOperatorInvoker {
+
+    @Autowired
+    private OperatorTemplatesService operatorTemplatesService;
+
+    @Autowired
+    private ExecutorManager executorManager;
+
+    /**
+     * 解析下游算子
+     * @param templateId 下游算子模板ID
+     * @return 已解析的下游算子
+     * @throws Exception 模板不存在、已禁用或执行器无法解析
+     */
+    public Downstream resolve(Long templateId) throws Exception {
+        OperatorTemplates template = operatorTemplatesService.getById(templateId);
+        if (template == null) {
+            throw new IllegalArgumentException("下游算子模板不存在: templateId=" + templateId);
+        }
+        if (!Boolean.TRUE.equals(template.getStatus())) {
+            throw new IllegalArgumentException("下游算子模板已禁用: templateId=" + templateId);
+        }
+        if (template.getExecutorClass() == null || template.getExecutorMethod() == null) {
+            throw new IllegalArgumentException("下游算子模板执行器信息不完整: templateId=" + templateId);
+        }
+        ExecutorManager.ExecutorInvoker invoker =
+                executorManager.resolveInvoker(template.getExecutorClass(), template.getExecutorMethod());
+        log.debug("解析下游算子: templateId={}, templateName={}", templateId, template.getTemplateName());
+        return new Downstream(templateId, template.getTemplateName(), template.getTemplateCode(), invoker);
+    }
+
+    /**
+     * 已解析的下游算子
+     */
+    public class Downstream {
+        private final Long templateId;
+        private final String templateName;
+        private final String templateCode;
+        private final ExecutorManager.ExecutorInvoker invoker;
+
+        Downstream(Long templateId, String templateName, String templateCode, ExecutorManager.ExecutorInvoker invoker) {
+            this.templateId = templateId;
+            this.templateName = templateName;
+            this.templateCode = templateCode;
+            this.invoker = invoker;
+        }
+
+        public Long getTemplateId() {
+            return templateId;
+        }
+
+        public String getTemplateName() {
+            return templateName;
+        }
+
+        /**
+         * 调用下游算子
+         * @param inputData 下游算子输入
+         * @return 执行结果
+         */
+        public ExecutorResult invoke(Map<String, Object> inputData) {
+            return executorManager.executeOperator(invoker, inputData, templateId, templateCode)
+                                  .withTemplateInfo(templateId, templateName);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.operatorchoreography.executor;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 分层执行上下文
+ * 读取时先查本层改动再查父层，写入只记录在本层，父层不被复制也不被修改；
+ * 节点输入、循环迭代都在上一层之上派生子层，只保存各自的增量。
+ * 派生出子层后父层应视为只读，层数超过 {@link #MAX_DEPTH} 时派生的子层会把父层展开为一层，控制查找链长度
+ */
+public final class ExecutionContext extends AbstractMap<String, Object> {
+
+    /**
+     * 最大层数
+     */
+    static final int MAX_DEPTH = 8;
+
+    /**
+     * 删除标记：本层删除了父层中的键
+     */
+    private static final Object REMOVED = new Object();
+
+    private final Map<String, Object> parent;
+    private final int depth;
+    private Map<String, Object> delta;
+    private Set<Entry<String, Object>> entrySet;
+
+    private ExecutionContext(Map<String, Object> parent, int depth) {
+        this.parent = parent;
+        this.depth = depth;
+    }
+
+    /**
+     * 以已有数据为最底层创建上下文，不复制数据
+     */
+    public static ExecutionContext over(Map<String, Object> base) {
+        if (base instanceof ExecutionContext) {
+            return ((ExecutionContext) base).child();
+        }
+        return new ExecutionContext(base != null ? base : Collections.emptyMap(), 1);
+    }
+
+    /**
+     * 派生子层，子层的写入不影响当前层
+     */
+    public ExecutionContext child() {
+        if (depth >= MAX_DEPTH) {
+            return new ExecutionContext(new HashMap<>(this), 1);
+        }
+        return new ExecutionContext(this, depth + 1);
+    }
+
+    /**
+     * 本层相对父层的改动（不含删除）
+     */
+    public Map<String, Object> delta() {
+        if (delta == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, Object> changes = new HashMap<>();
+        delta.forEach((key, value) -> {
+            if (value != REMOVED) {
+                changes.put(key, value);
+            }
+        });
+        return changes;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (delta != null) {
+            Object value = delta.get(key);
+            if (value != null || delta.containsKey(key)) {
+                return value == REMOVED ? null : value;
+            }
+        }
+        return parent.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (delta != null && delta.containsKey(key)) {
+            return delta.get(key) != REMOVED;
+        }
+        return parent.containsKey(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        Object previous = get(key);
+        localDelta().put(key, value);
+        return previous;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (!containsKey(key)) {
+            return null;
+        }
+        Object previous = get(key);
+        if (parent.containsKey(key)) {
+            localDelta().put((String) key, REMOVED);
+        } else {
+            delta.remove(key);
+        }
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        for (String key : parent.keySet()) {
+            localDelta().put(key, REMOVED);
+        }
+        if (delta != null) {
+            delta.values().removeIf(value -> value != REMOVED);
+        }
+    }
+
+    @Override
+    public int size() {
+        if (delta == null) {
+            return parent.size();
+        }
+        int size = parent.size();
+        for (Entry<String, Object> entry : delta.entrySet()) {
+            boolean inParent = parent.containsKey(entry.getKey());
+            if (entry.getValue() == REMOVED) {
+                size--;
+            } else if (!inParent) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private Map<String, Object> localDelta() {
+        if (delta == null) {
+            delta = new HashMap<>();
+        }
+        return delta;
+    }
+
+    /**
+     * 合并视图：先遍历本层改动，再遍历父层中未被本层覆盖的键
+     */
+    private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+        @Override
+        public int size() {
+            return ExecutionContext.this.size();
+        }
+
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+            return new Iterator<>() {
+                private final Iterator<Entry<String, Object>> local = delta != null
+                        ? delta.entrySet().iterator() : Collections.emptyIterator();
+                private final Iterator<Entry<String, Object>> inherited = parent.entrySet().iterator();
+                private Entry<String, Object> next;
+                private String lastKey;
+
+                @Override
+                public boolean hasNext() {
+                    while (next == null) {
+                        if (local.hasNext()) {
+                            Entry<String, Object> entry = local.next();
+                            if (entry.getValue() != REMOVED) {
+                                next = entry;
+                            }
+                        } else if (inherited.hasNext()) {
+                            Entry<String, Object> entry = inherited.next();
+                            if (delta == null || !delta.containsKey(entry.getKey())) {
+                                next = new SimpleImmutableEntry<>(entry);
+                            }
+                        } else {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+
+                @Override
+                public Entry<String, Object> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Entry<String, Object> entry = next;
+                    next = null;
+                    lastKey = entry.getKey();
+                    return entry;
+                }
+
+                @Override
+                public void remove() {
+                    if (lastKey == null) {
+                        throw new IllegalStateException();
+                    }
+                    // 遍历中删除只允许删除父层的键（写入删除标记，不改变本层已有键集合）
+                    if (!parent.containsKey(lastKey)) {
+                        throw new UnsupportedOperationException("遍历时不支持删除本层新增的键");
+                    }
+                    localDelta().put(lastKey, REMOVED);
+                    lastKey = null;
+                }
+            };
+        }
+    }
+}
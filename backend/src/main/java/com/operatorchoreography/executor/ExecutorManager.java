@@ -1,17 +1,24 @@
 package com.operatorchoreography.executor;
 
+import com.operatorchoreography.service.ExecutionMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 执行器管理器
- * 负责动态调用算子执行器
+ * 负责动态调用算子执行器，每个(执行器类, 方法)只解析一次并缓存为直接调用的函数
  */
 @Slf4j
 @Component
@@ -19,6 +26,15 @@ public class ExecutorManager {
     
     @Autowired
     private ApplicationContext applicationContext;
+
+    @Autowired
+    private ExecutionMetrics executionMetrics;
+    
+    /**
+     * 已解析的执行器缓存，执行器类名 -> 方法名 -> 执行器
+     * 两级查找避免每次调用拼接缓存key
+     */
+    private final Map<String, Map<String, ExecutorInvoker>> invokerCache = new ConcurrentHashMap<>();
     
     /**
      * 动态执行算子
@@ -31,34 +47,82 @@ public class ExecutorManager {
      */
     public ExecutorResult executeOperator(String executorClass, String executorMethod, 
                                          Map<String, Object> inputData, Long templateId) throws Exception {
+        return executeOperator(executorClass, executorMethod, inputData, templateId, null);
+    }
+
+    /**
+     * 动态执行算子
+     * @param executorClass 执行器类名
+     * @param executorMethod 执行器方法名
+     * @param inputData 输入数据
+     * @param templateId 模板ID
+     * @param templateCode 模板编码（用于指标标签）
+     * @return 执行结果
+     * @throws Exception 执行异常
+     */
+    public ExecutorResult executeOperator(String executorClass, String executorMethod,
+                                         Map<String, Object> inputData, Long templateId, String templateCode) throws Exception {
         
         log.info("开始执行算子: templateId={}, executorClass={}, executorMethod={}", 
                 templateId, executorClass, executorMethod);
+        
+        ExecutorInvoker invoker;
+        try {
+            invoker = resolveInvoker(executorClass, executorMethod);
+        } catch (ClassNotFoundException e) {
+            log.error("执行器类不存在: executorClass={}, templateId={}", executorClass, templateId, e);
+            return ExecutorResult.failure("执行器类不存在: " + executorClass, e)
+                                .withExecutorInfo(executorClass, executorMethod)
+                                .withTemplateInfo(templateId, null);
+        } catch (Exception e) {
+            log.error("执行器调用失败: templateId={}, executorClass={}, executorMethod={}", 
+                     templateId, executorClass, executorMethod, e);
+            return ExecutorResult.failure("执行器调用失败", e)
+                                .withExecutorInfo(executorClass, executorMethod)
+                                .withTemplateInfo(templateId, null);
+        }
+        
+        return executeOperator(invoker, inputData, templateId, templateCode);
+    }
+    
+    /**
+     * 使用已解析的执行器执行算子
+     * @param invoker 已解析的执行器
+     * @param inputData 输入数据
+     * @param templateId 模板ID
+     * @return 执行结果
+     */
+    public ExecutorResult executeOperator(ExecutorInvoker invoker, Map<String, Object> inputData, Long templateId) {
+        return executeOperator(invoker, inputData, templateId, null);
+    }
+
+    /**
+     * 使用已解析的执行器执行算子，并记录算子耗时和执行中数量指标
+     * @param invoker 已解析的执行器
+     * @param inputData 输入数据
+     * @param templateId 模板ID
+     * @param templateCode 模板编码（用于指标标签）
+     * @return 执行结果
+     */
+    public ExecutorResult executeOperator(ExecutorInvoker invoker, Map<String, Object> inputData, Long templateId,
+                                          String templateCode) {
+        long startNanos = executionMetrics.operatorStarted(invoker.getExecutorClass());
+        ExecutorResult executorResult = invokeOperator(invoker, inputData, templateId);
+        executionMetrics.operatorFinished(startNanos, templateCode, invoker.getExecutorClass(),
+                executorResult.getStatus() != null ? executorResult.getStatus().name() : null);
+        return executorResult;
+    }
+
+    private ExecutorResult invokeOperator(ExecutorInvoker invoker, Map<String, Object> inputData, Long templateId) {
+        String executorClass = invoker.getExecutorClass();
+        String executorMethod = invoker.getExecutorMethod();
         log.debug("输入参数: {}", inputData);
         
         LocalDateTime startTime = LocalDateTime.now();
         
         try {
-            // 获取执行器实例
-            Class<?> clazz = Class.forName(executorClass);
-            Object executor = applicationContext.getBean(clazz);
-            log.debug("成功获取执行器实例: {}", executorClass);
-            
-            // 获取执行方法
-            Method method;
-            try {
-                // 首先尝试调用指定的方法
-                method = clazz.getMethod(executorMethod, Map.class, Long.class);
-                log.debug("使用指定方法: {}", executorMethod);
-            } catch (NoSuchMethodException e) {
-                // 如果没有找到指定方法，则调用execute方法
-                // method = clazz.getMethod("execute", Map.class, Long.class);
-                log.error("指定方法不存在");
-                throw new RuntimeException("指定方法不存在: " + e.getMessage());
-            }
-            
             // 执行方法
-            Object result = method.invoke(executor, inputData, templateId);
+            Object result = invoker.invoke(inputData, templateId);
             LocalDateTime endTime = LocalDateTime.now();
             
             // 处理不同类型的返回值
@@ -86,14 +150,7 @@ public class ExecutorManager {
             
             return executorResult;
             
-        } catch (ClassNotFoundException e) {
-            log.error("执行器类不存在: executorClass={}, templateId={}", executorClass, templateId, e);
-            LocalDateTime endTime = LocalDateTime.now();
-            return ExecutorResult.failure("执行器类不存在: " + executorClass, e)
-                                .withExecutorInfo(executorClass, executorMethod)
-                                .withTemplateInfo(templateId, null);
         } catch (Exception e) {
-            LocalDateTime endTime = LocalDateTime.now();
             log.error("执行器调用失败: templateId={}, executorClass={}, executorMethod={}", 
                      templateId, executorClass, executorMethod, e);
             return ExecutorResult.failure("执行器调用失败", e)
@@ -102,6 +159,101 @@ public class ExecutorManager {
         }
     }
     
+    /**
+     * 获取已解析的执行器，首次调用时解析并缓存
+     * @param executorClass 执行器类名
+     * @param executorMethod 执行器方法名
+     * @return 已解析的执行器
+     * @throws ClassNotFoundException 执行器类不存在
+     */
+    public ExecutorInvoker resolveInvoker(String executorClass, String executorMethod) throws ClassNotFoundException {
+        Map<String, ExecutorInvoker> methodInvokers = invokerCache.get(executorClass);
+        ExecutorInvoker invoker = methodInvokers != null ? methodInvokers.get(executorMethod) : null;
+        if (invoker == null) {
+            // 解析失败不缓存，下次调用重新解析（如执行器在运行期才注册）
+            invoker = createInvoker(executorClass, executorMethod);
+            ExecutorInvoker existing = invokerCache
+                    .computeIfAbsent(executorClass, key -> new ConcurrentHashMap<>())
+                    .putIfAbsent(executorMethod, invoker);
+            if (existing != null) {
+                invoker = existing;
+            }
+        }
+        return invoker;
+    }
+    
+    /**
+     * 预热执行器缓存
+     * @param executorClass 执行器类名
+     * @param executorMethod 执行器方法名
+     * @return 是否解析成功
+     */
+    public boolean preload(String executorClass, String executorMethod) {
+        try {
+            resolveInvoker(executorClass, executorMethod);
+            return true;
+        } catch (Exception e) {
+            log.warn("预热执行器失败: executorClass={}, executorMethod={}, 错误: {}", 
+                    executorClass, executorMethod, e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * 已缓存的执行器数量
+     */
+    public int getCachedInvokerCount() {
+        return invokerCache.values().stream().mapToInt(Map::size).sum();
+    }
+    
+    /**
+     * 解析执行器实例和执行方法，并绑定为直接调用的函数
+     */
+    private ExecutorInvoker createInvoker(String executorClass, String executorMethod) throws ClassNotFoundException {
+        // 获取执行器实例
+        Class<?> clazz = Class.forName(executorClass);
+        Object executor = applicationContext.getBean(clazz);
+        log.debug("成功获取执行器实例: {}", executorClass);
+        
+        // 获取执行方法
+        Method method;
+        try {
+            method = clazz.getMethod(executorMethod, Map.class, Long.class);
+            log.debug("使用指定方法: {}", executorMethod);
+        } catch (NoSuchMethodException e) {
+            log.error("指定方法不存在");
+            throw new RuntimeException("指定方法不存在: " + e.getMessage());
+        }
+        
+        return new ExecutorInvoker(executorClass, executorMethod, bind(clazz, executor, method));
+    }
+    
+    /**
+     * 将执行方法绑定到执行器实例
+     * 优先通过 LambdaMetafactory 生成函数实现（可被JIT内联），失败时退回到绑定实例的 MethodHandle
+     */
+    private OperatorFunction bind(Class<?> clazz, Object executor, Method method) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle target = lookup.unreflect(method);
+            try {
+                CallSite callSite = LambdaMetafactory.metafactory(lookup, "invoke",
+                        MethodType.methodType(OperatorFunction.class, clazz),
+                        MethodType.methodType(Object.class, Map.class, Long.class),
+                        target,
+                        MethodType.methodType(method.getReturnType(), Map.class, Long.class));
+                return (OperatorFunction) callSite.getTarget().invoke(executor);
+            } catch (Throwable e) {
+                log.debug("生成执行器函数失败，使用MethodHandle调用: {}, 错误: {}", clazz.getName(), e.getMessage());
+                MethodHandle bound = target.bindTo(executor)
+                        .asType(MethodType.methodType(Object.class, Map.class, Long.class));
+                return (inputData, templateId) -> bound.invokeExact(inputData, templateId);
+            }
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("执行方法不可访问: " + e.getMessage());
+        }
+    }
+    
     /**
      * 检查执行器是否存在
      * @param executorClass 执行器类名
@@ -116,4 +268,48 @@ public class ExecutorManager {
             return false;
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 执行器调用函数
+     */
+    @FunctionalInterface
+    public interface OperatorFunction {
+        Object invoke(Map<String, Object> inputData, Long templateId) throws Throwable;
+    }
+    
+    /**
+     * 已解析的执行器
+     */
+    public static class ExecutorInvoker {
+        private final String executorClass;
+        private final String executorMethod;
+        private final OperatorFunction function;
+        
+        public ExecutorInvoker(String executorClass, String executorMethod, OperatorFunction function) {
+            this.executorClass = executorClass;
+            this.executorMethod = executorMethod;
+            this.function = function;
+        }
+        
+        public String getExecutorClass() {
+            return executorClass;
+        }
+        
+        public String getExecutorMethod() {
+            return executorMethod;
+        }
+        
+        /**
+         * 调用执行方法，Error 原样抛出，其他 Throwable 包装为 Exception
+         */
+        public Object invoke(Map<String, Object> inputData, Long templateId) throws Exception {
+            try {
+                return function.invoke(inputData, templateId);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new RuntimeException(t);
+            }
+        }
+    }
+}
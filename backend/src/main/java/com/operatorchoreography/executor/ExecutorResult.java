@@ -234,6 +234,41 @@ public class ExecutorResult {
                 .build();
     }
     
+    /**
+     * 创建跳过结果
+     */
+    public static ExecutorResult skipped(String reason) {
+        return ExecutorResult.builder()
+                .status(ExecutorStatus.SKIPPED)
+                .success(false)
+                .outputData(new HashMap<>())
+                .errorMessage(reason)
+                .errorCode("SKIPPED")
+                .startTime(LocalDateTime.now())
+                .endTime(LocalDateTime.now())
+                .executionTimeMs(0L)
+                .metadata(new HashMap<>())
+                .build();
+    }
+
+    /**
+     * 创建已异步派发结果（算子在后台继续执行，不阻塞调用方）
+     */
+    public static ExecutorResult dispatched() {
+        Map<String, Object> outputData = new HashMap<>();
+        outputData.put("async", true);
+        outputData.put("message", "算子已异步派发");
+        return ExecutorResult.builder()
+                .status(ExecutorStatus.RUNNING)
+                .success(true)
+                .outputData(outputData)
+                .startTime(LocalDateTime.now())
+                .endTime(LocalDateTime.now())
+                .executionTimeMs(0L)
+                .metadata(new HashMap<>())
+                .build();
+    }
+
     /**
      * 设置节点信息
      */
@@ -0,0 +1,59 @@
+package com.operatorchoreography.executor;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.operatorchoreography.generator.model.OperatorTemplates;
+import com.operatorchoreography.generator.service.OperatorTemplatesService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 执行器预热
+ * 应用启动完成后按 operator_templates 中启用的模板预先解析执行器，避免首次调用时的解析开销
+ */
+@Slf4j
+@Component
+public class ExecutorWarmUp {
+
+    @Autowired
+    private OperatorTemplatesService operatorTemplatesService;
+
+    @Autowired
+    private ExecutorManager executorManager;
+
+    @Value("${workflow.engine.executor.warm-up:true}")
+    private boolean warmUpEnabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!warmUpEnabled) {
+            return;
+        }
+        try {
+            QueryWrapper<OperatorTemplates> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select("id", "executor_class", "executor_method")
+                       .eq("if_delete", false)
+                       .eq("status", true)
+                       .isNotNull("executor_class")
+                       .isNotNull("executor_method");
+            List<OperatorTemplates> templates = operatorTemplatesService.list(queryWrapper);
+
+            int loaded = 0;
+            for (OperatorTemplates template : templates) {
+                if (executorManager.preload(template.getExecutorClass(), template.getExecutorMethod())) {
+                    loaded++;
+                }
+            }
+            log.info("执行器预热完成: 模板数={}, 成功={}, 缓存执行器数={}",
+                    templates.size(), loaded, executorManager.getCachedInvokerCount());
+        } catch (Exception e) {
+            // 预热失败不影响启动，执行器会在首次调用时解析
+            log.warn("执行器预热失败: {}", e.getMessage());
+        }
+    }
+}
@@ -1,112 +1,126 @@
 package com.operatorchoreography.executor;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import java.util.*;
 import java.time.LocalDateTime;
+import java.util.concurrent.*;
 
 /**
  * FOR循环执行器
  * 循环处理数据集合
+ * 支持按块并行执行（虚拟线程，限制同时执行的块数）、有序/无序输出、只返回汇总结果，
+ * 以及按项或按块调用下游算子
  */
 @Slf4j
 @Component
 public class ForLoopExecutor implements BaseExecutor {
 
+    /**
+     * 汇总模式下保留的错误样例数
+     */
+    private static final int MAX_ERROR_SAMPLES = 10;
+
+    @Autowired
+    private DownstreamOperatorInvoker downstreamOperatorInvoker;
+
+    @Value("${operator.loop.parallelism:8}")
+    private int defaultParallelism;
+
+    @Value("${operator.loop.chunk-size:100}")
+    private int defaultChunkSize;
+
+    private ExecutorService loopExecutor;
+
+    @PostConstruct
+    public void init() {
+        loopExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("for-loop-", 0).factory());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        loopExecutor.shutdownNow();
+    }
+
     public ExecutorResult loop(Map<String, Object> inputData, Long templateId) throws Exception {
         return execute(inputData, templateId);
     }
 
+    /**
+     * 执行FOR循环
+     * inputData参数：
+     *   dataArray       - 数据数组
+     *   loopVariable    - 循环变量名（可选，默认item）
+     *   loopLogic       - 内置循环逻辑（可选，transform/filter）
+     *   parallel        - 是否并行执行（可选，默认false）
+     *   concurrency     - 并行时同时执行的块数（可选，默认 operator.loop.parallelism）
+     *   chunkSize       - 每块项数（可选，并行或按块调用时生效，默认 operator.loop.chunk-size）
+     *   ordered         - 并行时结果是否按原顺序输出（可选，默认true）
+     *   resultMode      - full（默认，返回每项结果）或 summary（只返回计数，不保留每项结果）
+     *   itemTemplateId  - 每项调用的下游算子模板ID（可选），输入为 {循环变量: 项, index, inputData: 项}
+     *   chunkTemplateId - 每块调用的下游算子模板ID（可选），输入为 {inputData: 项列表, chunkIndex, startIndex}
+     */
     @Override
     public ExecutorResult execute(Map<String, Object> inputData, Long templateId) throws Exception {
         log.info("开始执行FOR循环: templateId={}", templateId);
-        
+
         LocalDateTime startTime = LocalDateTime.now();
-        
+
         try {
             List<Object> dataArray = (List<Object>) inputData.get("dataArray");
             String loopVariable = (String) inputData.get("loopVariable");
             Map<String, Object> loopLogic = (Map<String, Object>) inputData.get("loopLogic");
-            
+
             if (dataArray == null) {
                 log.error("数据数组为空: templateId={}", templateId);
                 throw new IllegalArgumentException("数据数组不能为空");
             }
-            
+
             if (loopVariable == null || loopVariable.trim().isEmpty()) {
                 loopVariable = "item"; // 默认循环变量名
             }
-            
-            log.info("FOR循环执行: templateId={}, 数组长度={}, 循环变量={}", 
-                    templateId, dataArray.size(), loopVariable);
-            
-            List<Map<String, Object>> results = new ArrayList<>();
-            int index = 0;
-            int processedCount = 0;
-            int errorCount = 0;
-            
-            // 执行循环
-            for (Object item : dataArray) {
-                log.debug("处理循环项: index={}, item={}", index, item);
-                
-                try {
-                    Map<String, Object> loopContext = new HashMap<>();
-                    loopContext.put(loopVariable, item);
-                    loopContext.put("index", index);
-                    loopContext.put("isFirst", index == 0);
-                    loopContext.put("isLast", index == dataArray.size() - 1);
-                    
-                    // 执行循环逻辑
-                    Map<String, Object> itemResult = new HashMap<>();
-                    itemResult.put("index", index);
-                    itemResult.put("input", item);
-                    itemResult.put("context", loopContext);
-                    
-                    // 如果有循环逻辑配置，可以在这里扩展
-                    if (loopLogic != null) {
-                        itemResult.put("processedData", processLoopLogic(item, loopLogic, loopContext));
-                    } else {
-                        itemResult.put("processedData", item);
-                    }
-                    
-                    itemResult.put("status", "success");
-                    results.add(itemResult);
-                    processedCount++;
-                } catch (Exception e) {
-                    log.warn("循环项处理失败: index={}, error={}", index, e.getMessage());
-                    Map<String, Object> errorResult = new HashMap<>();
-                    errorResult.put("index", index);
-                    errorResult.put("input", item);
-                    errorResult.put("status", "error");
-                    errorResult.put("error", e.getMessage());
-                    results.add(errorResult);
-                    errorCount++;
-                }
-                
-                index++;
-            }
-            
+
+            LoopOptions options = new LoopOptions(inputData, loopVariable, loopLogic);
+
+            log.info("FOR循环执行: templateId={}, 数组长度={}, 循环变量={}, 并行={}, 块大小={}, 结果模式={}",
+                    templateId, dataArray.size(), loopVariable, options.parallel, options.chunkSize,
+                    options.summaryOnly ? "summary" : "full");
+
+            LoopSummary summary = options.parallel
+                    ? executeParallel(dataArray, options)
+                    : executeSequential(dataArray, options);
+
             Map<String, Object> outputData = new HashMap<>();
-            outputData.put("results", results);
+            if (options.summaryOnly) {
+                outputData.put("errorSamples", summary.errorSamples);
+            } else {
+                outputData.put("results", summary.results);
+            }
             outputData.put("totalItems", dataArray.size());
-            outputData.put("processedItems", processedCount);
-            outputData.put("errorItems", errorCount);
+            outputData.put("processedItems", summary.processedCount);
+            outputData.put("errorItems", summary.errorCount);
             outputData.put("loopVariable", loopVariable);
             outputData.put("message", "FOR循环执行成功");
-            
-            log.info("FOR循环执行成功: templateId={}, 总项数={}, 成功项数={}, 失败项数={}", 
-                    templateId, dataArray.size(), processedCount, errorCount);
-            
+
+            log.info("FOR循环执行成功: templateId={}, 总项数={}, 成功项数={}, 失败项数={}",
+                    templateId, dataArray.size(), summary.processedCount, summary.errorCount);
+
             LocalDateTime endTime = LocalDateTime.now();
             return ExecutorResult.success(outputData, startTime, endTime)
                                 .withTemplateInfo(templateId, null)
                                 .withLog("FOR循环执行成功")
                                 .withMetadata("totalItems", dataArray.size())
-                                .withMetadata("processedItems", processedCount)
-                                .withMetadata("errorItems", errorCount)
+                                .withMetadata("processedItems", summary.processedCount)
+                                .withMetadata("errorItems", summary.errorCount)
                                 .withMetadata("loopVariable", loopVariable)
-                                .withMetadata("hasLoopLogic", loopLogic != null);
-            
+                                .withMetadata("hasLoopLogic", loopLogic != null)
+                                .withMetadata("parallel", options.parallel)
+                                .withMetadata("chunkSize", options.chunkSize);
+
         } catch (Exception e) {
             log.error("FOR循环执行失败: templateId={}", templateId, e);
             LocalDateTime endTime = LocalDateTime.now();
@@ -115,7 +129,185 @@ public class ForLoopExecutor implements BaseExecutor {
                                 .withLog("FOR循环执行失败: " + e.getMessage());
         }
     }
-    
+
+    /**
+     * 顺序执行：在当前线程上逐块执行（按项处理时块边界不影响结果）
+     */
+    private LoopSummary executeSequential(List<Object> dataArray, LoopOptions options) throws Exception {
+        if (options.chunkDownstream == null) {
+            return executeChunk(dataArray, 0, 0, dataArray.size(), options);
+        }
+        LoopSummary summary = new LoopSummary(options.summaryOnly);
+        for (int start = 0, chunkIndex = 0; start < dataArray.size(); start += options.chunkSize, chunkIndex++) {
+            summary.merge(executeChunk(dataArray, chunkIndex, start, Math.min(start + options.chunkSize, dataArray.size()), options));
+        }
+        return summary;
+    }
+
+    /**
+     * 并行执行：按块切分后在虚拟线程上执行，同时执行的块数不超过并发数
+     */
+    private LoopSummary executeParallel(List<Object> dataArray, LoopOptions options) throws Exception {
+        int chunkCount = (dataArray.size() + options.chunkSize - 1) / options.chunkSize;
+        Semaphore window = new Semaphore(options.concurrency);
+        List<Future<LoopSummary>> futures = new ArrayList<>(chunkCount);
+        // 无序输出时按块完成顺序合并
+        BlockingQueue<Future<LoopSummary>> completed = new LinkedBlockingQueue<>();
+
+        try {
+            for (int chunkIndex = 0; chunkIndex < chunkCount; chunkIndex++) {
+                int start = chunkIndex * options.chunkSize;
+                int end = Math.min(start + options.chunkSize, dataArray.size());
+                int currentChunk = chunkIndex;
+                window.acquire();
+                FutureTask<LoopSummary> task = new FutureTask<>(() -> {
+                    try {
+                        return executeChunk(dataArray, currentChunk, start, end, options);
+                    } finally {
+                        window.release();
+                    }
+                }) {
+                    @Override
+                    protected void done() {
+                        completed.add(this);
+                    }
+                };
+                futures.add(task);
+                loopExecutor.execute(task);
+            }
+
+            LoopSummary summary = new LoopSummary(options.summaryOnly);
+            for (int i = 0; i < chunkCount; i++) {
+                Future<LoopSummary> future = options.ordered ? futures.get(i) : completed.take();
+                summary.merge(getChunkSummary(future));
+            }
+            return summary;
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+    }
+
+    private LoopSummary getChunkSummary(Future<LoopSummary> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * 执行一块数据 [start, end)
+     */
+    private LoopSummary executeChunk(List<Object> dataArray, int chunkIndex, int start, int end,
+                                     LoopOptions options) throws Exception {
+        LoopSummary summary = new LoopSummary(options.summaryOnly);
+        if (options.chunkDownstream != null) {
+            executeChunkDownstream(dataArray, chunkIndex, start, end, options, summary);
+            return summary;
+        }
+
+        for (int index = start; index < end; index++) {
+            Object item = dataArray.get(index);
+            log.debug("处理循环项: index={}, item={}", index, item);
+            // 节点超时后执行线程被中断，停止后续迭代
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException("循环执行被取消");
+            }
+
+            try {
+                Object processedData = processItem(item, index, dataArray.size(), options);
+                summary.processedCount++;
+                if (!options.summaryOnly) {
+                    Map<String, Object> loopContext = new HashMap<>();
+                    loopContext.put(options.loopVariable, item);
+                    loopContext.put("index", index);
+                    loopContext.put("isFirst", index == 0);
+                    loopContext.put("isLast", index == dataArray.size() - 1);
+
+                    Map<String, Object> itemResult = new HashMap<>();
+                    itemResult.put("index", index);
+                    itemResult.put("input", item);
+                    itemResult.put("context", loopContext);
+                    itemResult.put("processedData", processedData);
+                    itemResult.put("status", "success");
+                    summary.results.add(itemResult);
+                }
+            } catch (Exception e) {
+                log.warn("循环项处理失败: index={}, error={}", index, e.getMessage());
+                summary.addError(index, item, e.getMessage());
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * 处理单项：配置了下游算子时调用下游算子，否则执行内置循环逻辑
+     */
+    private Object processItem(Object item, int index, int size, LoopOptions options) {
+        if (options.itemDownstream != null) {
+            Map<String, Object> itemInput = new HashMap<>();
+            itemInput.put(options.loopVariable, item);
+            itemInput.put("index", index);
+            itemInput.put("inputData", item);
+            ExecutorResult result = options.itemDownstream.invoke(itemInput);
+            if (!result.isSuccess()) {
+                throw new RuntimeException("下游算子执行失败: " + result.getErrorMessage());
+            }
+            return result.getOutputData();
+        }
+        if (options.loopLogic != null) {
+            Map<String, Object> loopContext = new HashMap<>();
+            loopContext.put(options.loopVariable, item);
+            loopContext.put("index", index);
+            loopContext.put("isFirst", index == 0);
+            loopContext.put("isLast", index == size - 1);
+            return processLoopLogic(item, options.loopLogic, loopContext);
+        }
+        return item;
+    }
+
+    /**
+     * 按块调用下游算子，整块成功或失败
+     */
+    private void executeChunkDownstream(List<Object> dataArray, int chunkIndex, int start, int end,
+                                        LoopOptions options, LoopSummary summary) throws Exception {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException("循环执行被取消");
+        }
+        List<Object> items = new ArrayList<>(dataArray.subList(start, end));
+        Map<String, Object> chunkInput = new HashMap<>();
+        chunkInput.put("inputData", items);
+        chunkInput.put("chunkIndex", chunkIndex);
+        chunkInput.put("startIndex", start);
+
+        ExecutorResult result = options.chunkDownstream.invoke(chunkInput);
+        int size = end - start;
+        if (result.isSuccess()) {
+            summary.processedCount += size;
+            if (!options.summaryOnly) {
+                Map<String, Object> chunkResult = new HashMap<>();
+                chunkResult.put("chunkIndex", chunkIndex);
+                chunkResult.put("startIndex", start);
+                chunkResult.put("size", size);
+                chunkResult.put("processedData", result.getOutputData());
+                chunkResult.put("status", "success");
+                summary.results.add(chunkResult);
+            }
+        } else {
+            log.warn("循环块处理失败: chunkIndex={}, error={}", chunkIndex, result.getErrorMessage());
+            summary.errorCount += size;
+            Map<String, Object> errorResult = new HashMap<>();
+            errorResult.put("chunkIndex", chunkIndex);
+            errorResult.put("startIndex", start);
+            errorResult.put("size", size);
+            errorResult.put("status", "error");
+            errorResult.put("error", result.getErrorMessage());
+            summary.addErrorResult(errorResult);
+        }
+    }
+
     /**
      * 处理循环逻辑
      * @param item 当前循环项
@@ -127,20 +319,20 @@ public class ForLoopExecutor implements BaseExecutor {
         try {
             // 简单的映射逻辑
             String operation = (String) loopLogic.get("operation");
-            
+
             if ("transform".equals(operation)) {
                 // 数据转换
                 Map<String, String> mapping = (Map<String, String>) loopLogic.get("mapping");
                 if (mapping != null && item instanceof Map) {
                     Map<String, Object> itemMap = (Map<String, Object>) item;
                     Map<String, Object> transformed = new HashMap<>();
-                    
+
                     for (Map.Entry<String, String> entry : mapping.entrySet()) {
                         String sourceKey = entry.getValue();
                         String targetKey = entry.getKey();
                         transformed.put(targetKey, itemMap.get(sourceKey));
                     }
-                    
+
                     return transformed;
                 }
             } else if ("filter".equals(operation)) {
@@ -149,11 +341,112 @@ public class ForLoopExecutor implements BaseExecutor {
                 // 简单的条件判断，可以扩展
                 return item;
             }
-            
+
             return item;
         } catch (Exception e) {
             log.warn("循环逻辑处理失败: {}", e.getMessage());
             return item;
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * 循环执行选项
+     */
+    private final class LoopOptions {
+        private final String loopVariable;
+        private final Map<String, Object> loopLogic;
+        private final boolean parallel;
+        private final int concurrency;
+        private final int chunkSize;
+        private final boolean ordered;
+        private final boolean summaryOnly;
+        private final DownstreamOperatorInvoker.Downstream itemDownstream;
+        private final DownstreamOperatorInvoker.Downstream chunkDownstream;
+
+        LoopOptions(Map<String, Object> inputData, String loopVariable, Map<String, Object> loopLogic) throws Exception {
+            this.loopVariable = loopVariable;
+            this.loopLogic = loopLogic;
+            this.parallel = getBooleanValue(inputData, "parallel", false);
+            this.concurrency = getIntValue(inputData, "concurrency", defaultParallelism);
+            this.chunkSize = getIntValue(inputData, "chunkSize", defaultChunkSize);
+            this.ordered = getBooleanValue(inputData, "ordered", true);
+            this.summaryOnly = "summary".equalsIgnoreCase(String.valueOf(inputData.get("resultMode")));
+            if (concurrency <= 0 || chunkSize <= 0) {
+                throw new IllegalArgumentException("concurrency和chunkSize必须大于0");
+            }
+            this.itemDownstream = resolveDownstream(inputData.get("itemTemplateId"));
+            this.chunkDownstream = resolveDownstream(inputData.get("chunkTemplateId"));
+            if (itemDownstream != null && chunkDownstream != null) {
+                throw new IllegalArgumentException("itemTemplateId和chunkTemplateId不能同时配置");
+            }
+        }
+    }
+
+    private DownstreamOperatorInvoker.Downstream resolveDownstream(Object templateId) throws Exception {
+        return templateId != null ? downstreamOperatorInvoker.resolve(Long.valueOf(templateId.toString())) : null;
+    }
+
+    /**
+     * 循环执行结果汇总（单块或合并后）
+     */
+    private static final class LoopSummary {
+        private final boolean summaryOnly;
+        private final List<Map<String, Object>> results = new ArrayList<>();
+        private final List<Map<String, Object>> errorSamples = new ArrayList<>();
+        private long processedCount;
+        private long errorCount;
+
+        LoopSummary(boolean summaryOnly) {
+            this.summaryOnly = summaryOnly;
+        }
+
+        void addError(int index, Object item, String error) {
+            Map<String, Object> errorResult = new HashMap<>();
+            errorResult.put("index", index);
+            errorResult.put("input", item);
+            errorResult.put("status", "error");
+            errorResult.put("error", error);
+            errorCount++;
+            addErrorResult(errorResult);
+        }
+
+        void addErrorResult(Map<String, Object> errorResult) {
+            if (!summaryOnly) {
+                results.add(errorResult);
+            } else if (errorSamples.size() < MAX_ERROR_SAMPLES) {
+                errorSamples.add(errorResult);
+            }
+        }
+
+        void merge(LoopSummary other) {
+            processedCount += other.processedCount;
+            errorCount += other.errorCount;
+            results.addAll(other.results);
+            for (Map<String, Object> sample : other.errorSamples) {
+                if (errorSamples.size() >= MAX_ERROR_SAMPLES) {
+                    break;
+                }
+                errorSamples.add(sample);
+            }
+        }
+    }
+
+    private int getIntValue(Map<String, Object> inputData, String key, int defaultValue) {
+        Object value = inputData.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        return Integer.parseInt(value.toString());
+    }
+
+    private boolean getBooleanValue(Map<String, Object> inputData, String key, boolean defaultValue) {
+        Object value = inputData.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value instanceof Boolean ? (Boolean) value : Boolean.parseBoolean(value.toString());
+    }
+}
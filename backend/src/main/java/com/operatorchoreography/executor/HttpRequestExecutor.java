@@ -1,22 +1,86 @@
 package com.operatorchoreography.executor;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.operatorchoreography.service.ConcurrencyLimiter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 
 /**
  * HTTP请求执行器
  * 发送HTTP请求调用外部服务
+ * 使用共享的JDK HttpClient（连接复用、可配置HTTP版本和超时），同一主机的并发请求数受主机级许可限制
+ * 输入中包含 requests 列表时进入批量模式，并发发送并按原顺序汇总响应
  */
 @Slf4j
 @Component
 public class HttpRequestExecutor implements BaseExecutor {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private ConcurrencyLimiter concurrencyLimiter;
+
+    @Value("${operator.concurrency.http-host-permits:64}")
+    private int httpHostPermits;
+
+    @Value("${operator.http.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${operator.http.request-timeout-ms:30000}")
+    private long requestTimeoutMs;
+
+    @Value("${operator.http.batch-concurrency:16}")
+    private int defaultBatchConcurrency;
+
+    @Value("${operator.http.batch-fail-on:ALL}")
+    private String defaultBatchFailOn;
+
+    /**
+     * HTTP_2 时 http:// 请求会尝试 h2c 升级，部分服务端和代理不支持，默认使用 HTTP_1_1
+     */
+    @Value("${operator.http.version:HTTP_1_1}")
+    private HttpClient.Version httpVersion;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ExecutorService httpExecutor;
+
+    private HttpClient httpClient;
+
+    @PostConstruct
+    public void init() {
+        httpExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-client-", 0).factory());
+        httpClient = HttpClient.newBuilder()
+                .version(httpVersion)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(httpExecutor)
+                .build();
+        log.info("HTTP客户端初始化完成: version={}, connectTimeoutMs={}, requestTimeoutMs={}, hostPermits={}",
+                httpVersion, connectTimeoutMs, requestTimeoutMs, httpHostPermits);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        httpExecutor.shutdownNow();
+    }
 
     public ExecutorResult request(Map<String, Object> inputData, Long templateId) throws Exception {
         return execute(inputData, templateId);
@@ -24,58 +88,52 @@ public class HttpRequestExecutor implements BaseExecutor {
 
     @Override
     public ExecutorResult execute(Map<String, Object> inputData, Long templateId) throws Exception {
+        if (inputData.get("requests") instanceof List) {
+            return batchRequest(inputData, templateId);
+        }
+
         log.info("开始执行HTTP请求: templateId={}", templateId);
-        
+
         LocalDateTime startTime = LocalDateTime.now();
-        
+
         try {
             String url = (String) inputData.get("request_url");
             String method = (String) inputData.getOrDefault("request_method", "GET");
-            Map<String, String> headers = (Map<String, String>) inputData.get("request_headers");
-            Object requestBody = inputData.get("request_body");
-            
+
             if (url == null || url.trim().isEmpty()) {
                 log.error("请求URL为空: templateId={}", templateId);
                 throw new IllegalArgumentException("请求URL不能为空");
             }
-            
+
             log.info("HTTP请求详情: templateId={}, url={}, method={}", templateId, url, method);
-            log.debug("请求头: {}", headers);
-            log.debug("请求体: {}", requestBody);
-            
-            // 构建请求头
-            HttpHeaders httpHeaders = new HttpHeaders();
-            if (headers != null) {
-                headers.forEach(httpHeaders::set);
-            }
-            
-            // 构建请求实体
-            HttpEntity<Object> requestEntity = new HttpEntity<>(requestBody, httpHeaders);
-            
+            log.debug("请求头: {}", inputData.get("request_headers"));
+            log.debug("请求体: {}", inputData.get("request_body"));
+
             // 发送请求
-            ResponseEntity<Object> response;
-            HttpMethod httpMethod = HttpMethod.valueOf(method.toUpperCase());
-            
-            response = restTemplate.exchange(url, httpMethod, requestEntity, Object.class);
-            
-            Map<String, Object> outputData = new HashMap<>();
-            outputData.put("response", response.getBody());
-            outputData.put("statusCode", response.getStatusCodeValue());
-            outputData.put("headers", response.getHeaders().toSingleValueMap());
+            HttpRequest request = buildRequest(inputData, requestTimeoutMs);
+            HttpResponse<String> response;
+            try (ConcurrencyLimiter.Permit permit = concurrencyLimiter.acquire(hostKey(request.uri()), httpHostPermits)) {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            }
+            if (response.statusCode() >= 400) {
+                throw new RuntimeException(response.statusCode() + " " + truncate(response.body()));
+            }
+
+            Map<String, Object> outputData = toResponseMap(response);
             outputData.put("message", "HTTP请求执行成功");
-            
-            log.info("HTTP请求执行成功: templateId={}, url={}, statusCode={}", 
-                    templateId, url, response.getStatusCodeValue());
-            
+
+            log.info("HTTP请求执行成功: templateId={}, url={}, statusCode={}, version={}",
+                    templateId, url, response.statusCode(), response.version());
+
             LocalDateTime endTime = LocalDateTime.now();
             return ExecutorResult.success(outputData, startTime, endTime)
                                 .withTemplateInfo(templateId, null)
                                 .withLog("HTTP请求执行成功")
                                 .withMetadata("url", url)
                                 .withMetadata("method", method)
-                                .withMetadata("statusCode", response.getStatusCodeValue())
-                                .withMetadata("responseSize", response.getBody() != null ? response.getBody().toString().length() : 0);
-            
+                                .withMetadata("statusCode", response.statusCode())
+                                .withMetadata("responseSize", response.body() != null ? response.body().length() : 0);
+
         } catch (Exception e) {
             log.error("HTTP请求执行失败: templateId={}", templateId, e);
             LocalDateTime endTime = LocalDateTime.now();
@@ -84,4 +142,236 @@ public class HttpRequestExecutor implements BaseExecutor {
                                 .withLog("HTTP请求执行失败: " + e.getMessage());
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * 批量HTTP请求
+     * inputData参数：
+     *   requests          - 请求列表，每项包含 request_url、request_method、request_headers、request_body
+     *   batch_concurrency - 同时在途的请求数（可选，默认 operator.http.batch-concurrency）
+     *   timeout_ms        - 单个请求超时时间（可选，默认 operator.http.request-timeout-ms）
+     *   fail_on           - 节点判定为失败的条件（可选，默认 operator.http.batch-fail-on）：
+     *                       ANY 任一请求失败，ALL 全部请求失败，NONE 始终成功
+     * 单个请求失败不影响其他请求，结果按请求顺序返回；节点失败时输出中同样包含全部响应
+     */
+    @SuppressWarnings("unchecked")
+    public ExecutorResult batchRequest(Map<String, Object> inputData, Long templateId) throws Exception {
+        LocalDateTime startTime = LocalDateTime.now();
+
+        try {
+            List<Map<String, Object>> requests = (List<Map<String, Object>>) inputData.get("requests");
+            if (requests == null || requests.isEmpty()) {
+                throw new IllegalArgumentException("requests不能为空");
+            }
+            int concurrency = getIntValue(inputData, "batch_concurrency", defaultBatchConcurrency);
+            long timeoutMs = getIntValue(inputData, "timeout_ms", (int) requestTimeoutMs);
+            if (concurrency <= 0) {
+                throw new IllegalArgumentException("batch_concurrency必须大于0");
+            }
+            String failOn = String.valueOf(inputData.getOrDefault("fail_on", defaultBatchFailOn)).trim().toUpperCase();
+            if (!"ANY".equals(failOn) && !"ALL".equals(failOn) && !"NONE".equals(failOn)) {
+                throw new IllegalArgumentException("fail_on只支持ANY、ALL、NONE: " + failOn);
+            }
+
+            log.info("开始执行批量HTTP请求: templateId={}, 请求数={}, 并发数={}", templateId, requests.size(), concurrency);
+
+            // 在途请求窗口：超过并发数时等待已发出的请求完成
+            Semaphore window = new Semaphore(concurrency);
+            List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                futures.add(sendAsync(requests.get(i), i, timeoutMs, window));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+            List<Map<String, Object>> responses = new ArrayList<>(futures.size());
+            int successCount = 0;
+            for (CompletableFuture<Map<String, Object>> future : futures) {
+                Map<String, Object> response = future.join();
+                if (Boolean.TRUE.equals(response.get("success"))) {
+                    successCount++;
+                }
+                responses.add(response);
+            }
+            int failedCount = responses.size() - successCount;
+
+            Map<String, Object> outputData = new HashMap<>();
+            outputData.put("responses", responses);
+            outputData.put("requestCount", responses.size());
+            outputData.put("successCount", successCount);
+            outputData.put("failedCount", failedCount);
+
+            LocalDateTime endTime = LocalDateTime.now();
+            boolean failed = failedCount > 0
+                    && ("ANY".equals(failOn) || ("ALL".equals(failOn) && failedCount == responses.size()));
+            if (failed) {
+                log.warn("批量HTTP请求失败: templateId={}, 成功={}, 失败={}, failOn={}",
+                        templateId, successCount, failedCount, failOn);
+                ExecutorResult result = ExecutorResult.failure(
+                        "批量HTTP请求失败: " + failedCount + "/" + responses.size() + " 个请求失败", startTime, endTime);
+                outputData.forEach(result::withOutputData);
+                return result.withTemplateInfo(templateId, null)
+                             .withLog("批量HTTP请求失败")
+                             .withMetadata("requestCount", responses.size())
+                             .withMetadata("failedCount", failedCount)
+                             .withMetadata("failOn", failOn);
+            }
+            outputData.put("message", "批量HTTP请求执行完成");
+
+            log.info("批量HTTP请求执行完成: templateId={}, 成功={}, 失败={}", templateId, successCount, failedCount);
+
+            return ExecutorResult.success(outputData, startTime, endTime)
+                                .withTemplateInfo(templateId, null)
+                                .withLog("批量HTTP请求执行完成")
+                                .withMetadata("requestCount", responses.size())
+                                .withMetadata("failedCount", failedCount)
+                                .withMetadata("batchConcurrency", concurrency);
+
+        } catch (Exception e) {
+            log.error("批量HTTP请求执行失败: templateId={}", templateId, e);
+            LocalDateTime endTime = LocalDateTime.now();
+            return ExecutorResult.failure("批量HTTP请求执行失败", e)
+                                .withTemplateInfo(templateId, null)
+                                .withLog("批量HTTP请求执行失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 异步发送单个批量请求，获取窗口和主机许可后发出，响应到达后归还
+     */
+    private CompletableFuture<Map<String, Object>> sendAsync(Map<String, Object> requestData, int index,
+                                                              long timeoutMs, Semaphore window) throws InterruptedException {
+        HttpRequest request;
+        try {
+            request = buildRequest(requestData, timeoutMs);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(errorResponse(index, requestData, e));
+        }
+
+        window.acquire();
+        ConcurrencyLimiter.Permit permit;
+        try {
+            permit = concurrencyLimiter.acquire(hostKey(request.uri()), httpHostPermits);
+        } catch (RuntimeException e) {
+            window.release();
+            return CompletableFuture.completedFuture(errorResponse(index, requestData, e));
+        }
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> {
+                    permit.close();
+                    window.release();
+                    if (error != null) {
+                        return errorResponse(index, requestData, error);
+                    }
+                    Map<String, Object> result = toResponseMap(response);
+                    result.put("index", index);
+                    result.put("url", requestData.get("request_url"));
+                    result.put("success", response.statusCode() < 400);
+                    return result;
+                });
+    }
+
+    /**
+     * 构建请求：非字符串请求体按JSON序列化，未指定Content-Type时补充application/json
+     */
+    @SuppressWarnings("unchecked")
+    private HttpRequest buildRequest(Map<String, Object> requestData, long timeoutMs) throws Exception {
+        String url = (String) requestData.get("request_url");
+        if (url == null || url.trim().isEmpty()) {
+            throw new IllegalArgumentException("请求URL不能为空");
+        }
+        String method = String.valueOf(requestData.getOrDefault("request_method", "GET")).toUpperCase();
+        Map<String, String> headers = (Map<String, String>) requestData.get("request_headers");
+        Object requestBody = requestData.get("request_body");
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url.trim()))
+                .timeout(Duration.ofMillis(timeoutMs));
+        boolean hasContentType = false;
+        if (headers != null) {
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                builder.header(header.getKey(), header.getValue());
+                hasContentType |= "Content-Type".equalsIgnoreCase(header.getKey());
+            }
+        }
+
+        HttpRequest.BodyPublisher bodyPublisher;
+        if (requestBody == null) {
+            bodyPublisher = HttpRequest.BodyPublishers.noBody();
+        } else if (requestBody instanceof String) {
+            bodyPublisher = HttpRequest.BodyPublishers.ofString((String) requestBody);
+        } else {
+            bodyPublisher = HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(requestBody));
+            if (!hasContentType) {
+                builder.header("Content-Type", "application/json");
+            }
+        }
+        return builder.method(method, bodyPublisher).build();
+    }
+
+    /**
+     * 转换响应：JSON响应体解析为对象，其他保留为字符串
+     */
+    private Map<String, Object> toResponseMap(HttpResponse<String> response) {
+        Map<String, String> headers = new HashMap<>();
+        response.headers().map().forEach((name, values) -> {
+            if (!values.isEmpty()) {
+                headers.put(name, values.get(0));
+            }
+        });
+
+        Object body = response.body();
+        String contentType = response.headers().firstValue("Content-Type").orElse("");
+        if (contentType.contains("json") && response.body() != null && !response.body().isEmpty()) {
+            try {
+                body = objectMapper.readValue(response.body(), Object.class);
+            } catch (Exception e) {
+                log.debug("响应体JSON解析失败，按字符串返回: {}", e.getMessage());
+            }
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("response", body);
+        result.put("statusCode", response.statusCode());
+        result.put("headers", headers);
+        return result;
+    }
+
+    private Map<String, Object> errorResponse(int index, Map<String, Object> requestData, Throwable error) {
+        Throwable cause = error.getCause() != null && error instanceof java.util.concurrent.CompletionException
+                ? error.getCause() : error;
+        Map<String, Object> result = new HashMap<>();
+        result.put("index", index);
+        result.put("url", requestData.get("request_url"));
+        result.put("success", false);
+        result.put("error", cause.getClass().getSimpleName() + ": " + cause.getMessage());
+        return result;
+    }
+
+    private String truncate(String body) {
+        if (body == null) {
+            return "";
+        }
+        return body.length() > 500 ? body.substring(0, 500) + "..." : body;
+    }
+
+    private int getIntValue(Map<String, Object> inputData, String key, int defaultValue) {
+        Object value = inputData.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        return Integer.parseInt(value.toString());
+    }
+
+    /**
+     * 主机许可的资源键：http:host:port
+     */
+    private String hostKey(URI uri) {
+        int port = uri.getPort();
+        if (port < 0) {
+            port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        }
+        return "http:" + uri.getHost() + ":" + port;
+    }
+}
@@ -1,7 +1,11 @@
 package com.operatorchoreography.executor;
 
+import com.operatorchoreography.expression.CompiledExpression;
+import com.operatorchoreography.expression.ExpressionCompiler;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import java.util.Collections;
 import java.util.Map;
 import java.util.HashMap;
 import java.time.LocalDateTime;
@@ -9,11 +13,15 @@ import java.time.LocalDateTime;
 /**
  * 条件分支执行器
  * 根据条件进行分支处理
+ * 条件表达式由 ExpressionCompiler 编译并缓存，字段路径从 inputData 中取值
  */
 @Slf4j
 @Component
 public class IfConditionExecutor implements BaseExecutor {
 
+    @Autowired
+    private ExpressionCompiler expressionCompiler;
+
     public ExecutorResult evaluate(Map<String, Object> inputData, Long templateId) throws Exception {
         return execute(inputData, templateId);
     }
@@ -70,37 +78,19 @@ public class IfConditionExecutor implements BaseExecutor {
     
     /**
      * 评估条件表达式
+     * inputData为Map时直接作为上下文，其他值可通过 value 引用
      */
+    @SuppressWarnings("unchecked")
     private boolean evaluateCondition(String condition, Object data) {
-        if (condition == null || data == null) {
-            return false;
-        }
-        
-        // 简单的条件评估逻辑，实际项目中可以使用表达式引擎如SpEL
+        CompiledExpression expression = expressionCompiler.compile(condition);
+        Map<String, Object> context;
         if (data instanceof Map) {
-            Map<String, Object> dataMap = (Map<String, Object>) data;
-            
-            // 支持简单的比较操作
-            if (condition.contains("==")) {
-                String[] parts = condition.split("==");
-                String field = parts[0].trim();
-                String value = parts[1].trim().replace("'", "").replace("\"", "");
-                return value.equals(String.valueOf(dataMap.get(field)));
-            } else if (condition.contains(">")) {
-                String[] parts = condition.split(">");
-                String field = parts[0].trim();
-                double value = Double.parseDouble(parts[1].trim());
-                Object fieldValue = dataMap.get(field);
-                return fieldValue instanceof Number && ((Number) fieldValue).doubleValue() > value;
-            } else if (condition.contains("<")) {
-                String[] parts = condition.split("<");
-                String field = parts[0].trim();
-                double value = Double.parseDouble(parts[1].trim());
-                Object fieldValue = dataMap.get(field);
-                return fieldValue instanceof Number && ((Number) fieldValue).doubleValue() < value;
-            }
+            context = (Map<String, Object>) data;
+        } else if (data != null) {
+            context = Collections.singletonMap("value", data);
+        } else {
+            context = Collections.emptyMap();
         }
-        
-        return false;
+        return expression.evaluateBoolean(context);
     }
-} 
\ No newline at end of file
+}
@@ -1,27 +1,26 @@
 package com.operatorchoreography.executor;
 
+import com.operatorchoreography.expression.CompiledExpression;
+import com.operatorchoreography.expression.ExpressionCompiler;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import java.util.Collections;
 import java.util.Map;
 import java.util.HashMap;
 import java.time.LocalDateTime;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
 
 /**
  * 数学计算执行器
  * 数学表达式计算
+ * 表达式由 ExpressionCompiler 编译并缓存，变量按名称（支持字段路径）从 variables 中取值
  */
 @Slf4j
 @Component
 public class MathCalculateExecutor implements BaseExecutor {
 
-    private final ScriptEngine scriptEngine;
-    
-    public MathCalculateExecutor() {
-        ScriptEngineManager manager = new ScriptEngineManager();
-        this.scriptEngine = manager.getEngineByName("JavaScript");
-    }
+    @Autowired
+    private ExpressionCompiler expressionCompiler;
 
     public ExecutorResult calculate(Map<String, Object> inputData, Long templateId) throws Exception {
         return execute(inputData, templateId);
@@ -44,38 +43,23 @@ public class MathCalculateExecutor implements BaseExecutor {
             
             log.debug("原始表达式: {}, 变量: {}", expression, variables);
             
-            // 处理变量替换
-            String processedExpression = expression;
-            if (variables != null) {
-                for (Map.Entry<String, Object> entry : variables.entrySet()) {
-                    String varName = entry.getKey();
-                    Object varValue = entry.getValue();
-                    if (varValue instanceof Number) {
-                        processedExpression = processedExpression.replace(varName, varValue.toString());
-                    }
+            CompiledExpression compiled = expressionCompiler.compile(expression);
+            Map<String, Object> context = variables != null ? variables : Collections.emptyMap();
+            for (String variable : compiled.getVariables()) {
+                if (!context.containsKey(variable)) {
+                    throw new IllegalArgumentException("表达式变量未定义: " + variable);
                 }
             }
             
-            log.debug("处理后表达式: {}", processedExpression);
-            
-            // 安全检查：只允许数学运算符
-            if (!isSafeExpression(processedExpression)) {
-                log.error("表达式包含不安全字符: {}, templateId={}", processedExpression, templateId);
-                throw new IllegalArgumentException("表达式包含不安全的字符");
-            }
-            
             // 计算表达式
-            Object calcResult = scriptEngine.eval(processedExpression);
-            double finalResult = 0.0;
-            
-            if (calcResult instanceof Number) {
-                finalResult = ((Number) calcResult).doubleValue();
+            double finalResult = compiled.evaluateNumber(context);
+            if (Double.isNaN(finalResult)) {
+                throw new IllegalArgumentException("表达式计算结果不是数字: " + expression);
             }
             
             Map<String, Object> outputData = new HashMap<>();
             outputData.put("result", finalResult);
             outputData.put("expression", expression);
-            outputData.put("processedExpression", processedExpression);
             outputData.put("variables", variables);
             outputData.put("message", "数学计算成功");
             
@@ -97,13 +81,4 @@ public class MathCalculateExecutor implements BaseExecutor {
                                 .withLog("数学计算失败: " + e.getMessage());
         }
     }
-    
-    /**
-     * 检查表达式是否安全（只包含数学运算符）
-     */
-    private boolean isSafeExpression(String expression) {
-        // 只允许数字、基本运算符、括号、小数点
-        String safePattern = "^[0-9+\\-*/().\\s]+$";
-        return expression.matches(safePattern);
-    }
-} 
\ No newline at end of file
+}
@@ -7,6 +7,7 @@ import com.operatorchoreography.generator.service.OperatorTemplateParamsService;
 import com.operatorchoreography.service.DynamicDataSourceService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
@@ -15,11 +16,13 @@ import org.springframework.stereotype.Component;
 import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 import java.time.LocalDateTime;
 
@@ -28,6 +31,7 @@ import java.time.LocalDateTime;
  * 执行MySQL插入操作
  * 支持根据templateId动态获取数据源配置
  * 支持ON DUPLICATE KEY UPDATE解决冲突
+ * 支持批量插入：按列集合分组、分块执行（多行VALUES或JDBC批处理）
  */
 @Slf4j
 @Component
@@ -40,6 +44,14 @@ public class MySqlInsertExecutor implements BaseExecutor {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    /**
+     * MySQL单条语句占位符上限
+     */
+    private static final int MAX_PLACEHOLDERS = 65535;
+
+    @Value("${operator.mysql.insert.chunk-size:500}")
+    private int defaultChunkSize;
+
     public ExecutorResult insert(Map<String, Object> inputData, Long templateId) throws Exception {
         return execute(inputData, templateId);
     }
@@ -221,6 +233,225 @@ public class MySqlInsertExecutor implements BaseExecutor {
         return new SqlWithParams(sql.toString(), parameters);
     }
 
+    /**
+     * 批量插入，按列集合分组后分块执行
+     * inputData参数：
+     *   inputData    - 行数据列表（List&lt;Map&gt;），单个Map按一行处理
+     *   table        - 表名（可选，默认取模板参数table）
+     *   chunkSize    - 每块行数（可选，默认取模板参数batch_size或 operator.mysql.insert.chunk-size）
+     *   mode         - multiValues（默认，多行VALUES）或 jdbcBatch（JdbcTemplate.batchUpdate）
+     *   upsert       - 是否使用ON DUPLICATE KEY UPDATE（默认true）
+     *   excludeFields - upsert时不更新的字段
+     * 行数据未提供id时生成UUID。jdbcBatch模式建议在数据源配置中开启 rewriteBatchedStatements
+     * @param inputData 输入数据
+     * @param templateId 模板ID
+     * @return 执行结果，包含每块的影响行数
+     * @throws Exception 执行异常
+     */
+    @SuppressWarnings("unchecked")
+    public ExecutorResult batchInsert(Map<String, Object> inputData, Long templateId) throws Exception {
+        log.info("开始执行MySQL批量插入: templateId={}", templateId);
+        
+        LocalDateTime startTime = LocalDateTime.now();
+        List<Map<String, Object>> chunkResults = new ArrayList<>();
+        
+        try {
+            // 查询模板参数
+            List<OperatorTemplateParams> params = operatorTemplateParamsService.getParametersByTemplateId(templateId);
+            if (params == null || params.isEmpty()) {
+                throw new RuntimeException("未找到模板参数配置: templateId=" + templateId);
+            }
+
+            // 获取动态JdbcTemplate
+            JdbcTemplate jdbcTemplate = dynamicDataSourceService.getJdbcTemplate(params);
+            
+            // 行数据
+            Object rowsValue = inputData.get("inputData");
+            List<Map<String, Object>> rows;
+            if (rowsValue instanceof List) {
+                rows = (List<Map<String, Object>>) rowsValue;
+            } else if (rowsValue instanceof Map) {
+                rows = List.of((Map<String, Object>) rowsValue);
+            } else {
+                throw new IllegalArgumentException("批量插入数据必须为列表");
+            }
+            if (rows.isEmpty()) {
+                throw new IllegalArgumentException("插入数据不能为空");
+            }
+            
+            String table = (String) inputData.get("table");
+            String templateBatchSize = null;
+            for (OperatorTemplateParams param : params) {
+                if ((table == null || table.trim().isEmpty()) && "table".equals(param.getParamKey())) {
+                    table = param.getDefaultValue();
+                }
+                if ("batch_size".equals(param.getParamKey())) {
+                    templateBatchSize = param.getDefaultValue();
+                }
+            }
+            if (table == null || table.trim().isEmpty()) {
+                throw new IllegalArgumentException("表名不能为空");
+            }
+            
+            int chunkSize = defaultChunkSize;
+            Object chunkSizeValue = inputData.getOrDefault("chunkSize", templateBatchSize);
+            if (chunkSizeValue != null) {
+                chunkSize = Integer.parseInt(chunkSizeValue.toString());
+            }
+            if (chunkSize <= 0) {
+                throw new IllegalArgumentException("chunkSize必须大于0");
+            }
+            
+            boolean jdbcBatch = "jdbcBatch".equals(inputData.get("mode"));
+            boolean upsert = !Boolean.FALSE.equals(inputData.get("upsert")) && !"false".equals(inputData.get("upsert"));
+            Set<String> excludeSet = new HashSet<>((List<String>) inputData.getOrDefault("excludeFields", new ArrayList<>()));
+            excludeSet.add("id");
+            
+            // 按列集合分组（列排序后作为分组键，保证同组SQL一致）
+            Map<List<String>, List<Map<String, Object>>> groups = new LinkedHashMap<>();
+            for (Map<String, Object> row : rows) {
+                if (row == null || row.isEmpty()) {
+                    continue;
+                }
+                Map<String, Object> rowData = new HashMap<>(row);
+                rowData.putIfAbsent("id", UuidUtils.generateUuid());
+                List<String> columns = new ArrayList<>(new TreeSet<>(rowData.keySet()));
+                groups.computeIfAbsent(columns, k -> new ArrayList<>()).add(rowData);
+            }
+            
+            log.info("执行MySQL批量插入: templateId={}, table={}, 行数={}, 分组数={}, chunkSize={}, mode={}", 
+                    templateId, table, rows.size(), groups.size(), chunkSize, jdbcBatch ? "jdbcBatch" : "multiValues");
+            
+            long totalAffectedRows = 0;
+            boolean affectedRowsExact = true;
+            int chunkIndex = 0;
+            for (Map.Entry<List<String>, List<Map<String, Object>>> group : groups.entrySet()) {
+                List<String> columns = group.getKey();
+                List<Map<String, Object>> groupRows = group.getValue();
+                // 多行VALUES受占位符数量限制
+                int effectiveChunkSize = jdbcBatch ? chunkSize : Math.max(1, Math.min(chunkSize, MAX_PLACEHOLDERS / columns.size()));
+                
+                for (int from = 0; from < groupRows.size(); from += effectiveChunkSize) {
+                    List<Map<String, Object>> chunk = groupRows.subList(from, Math.min(from + effectiveChunkSize, groupRows.size()));
+                    long chunkStart = System.currentTimeMillis();
+                    
+                    int affectedRows;
+                    if (jdbcBatch) {
+                        String sql = buildBatchInsertSql(table, columns, 1, upsert, excludeSet);
+                        List<Object[]> batchArgs = new ArrayList<>(chunk.size());
+                        for (Map<String, Object> row : chunk) {
+                            Object[] args = new Object[columns.size()];
+                            for (int i = 0; i < columns.size(); i++) {
+                                args[i] = row.get(columns.get(i));
+                            }
+                            batchArgs.add(args);
+                        }
+                        int[] counts = jdbcTemplate.batchUpdate(sql, batchArgs);
+                        affectedRows = 0;
+                        for (int count : counts) {
+                            if (count >= 0) {
+                                affectedRows += count;
+                            } else {
+                                // rewriteBatchedStatements 开启时驱动可能返回 SUCCESS_NO_INFO
+                                affectedRowsExact = false;
+                            }
+                        }
+                    } else {
+                        String sql = buildBatchInsertSql(table, columns, chunk.size(), upsert, excludeSet);
+                        Object[] args = new Object[chunk.size() * columns.size()];
+                        int index = 0;
+                        for (Map<String, Object> row : chunk) {
+                            for (String column : columns) {
+                                args[index++] = row.get(column);
+                            }
+                        }
+                        affectedRows = jdbcTemplate.update(sql, args);
+                    }
+                    totalAffectedRows += affectedRows;
+                    
+                    Map<String, Object> chunkResult = new HashMap<>();
+                    chunkResult.put("chunkIndex", chunkIndex++);
+                    chunkResult.put("columns", columns);
+                    chunkResult.put("rowCount", chunk.size());
+                    chunkResult.put("affectedRows", affectedRows);
+                    chunkResult.put("durationMs", System.currentTimeMillis() - chunkStart);
+                    chunkResults.add(chunkResult);
+                    log.debug("批量插入块完成: table={}, chunkIndex={}, 行数={}, 影响行数={}", 
+                            table, chunkResult.get("chunkIndex"), chunk.size(), affectedRows);
+                }
+            }
+            
+            Map<String, Object> outputData = new HashMap<>();
+            outputData.put("table", table);
+            outputData.put("rowCount", rows.size());
+            outputData.put("chunkCount", chunkResults.size());
+            outputData.put("affectedRows", totalAffectedRows);
+            outputData.put("affectedRowsExact", affectedRowsExact);
+            outputData.put("chunkResults", chunkResults);
+            outputData.put("message", "MySQL批量插入执行成功");
+            
+            log.info("MySQL批量插入执行成功: templateId={}, table={}, 块数={}, 影响行数={}", 
+                    templateId, table, chunkResults.size(), totalAffectedRows);
+            
+            LocalDateTime endTime = LocalDateTime.now();
+            return ExecutorResult.success(outputData, startTime, endTime)
+                                .withTemplateInfo(templateId, null)
+                                .withLog("MySQL批量插入执行成功")
+                                .withMetadata("batchInsert", true)
+                                .withMetadata("upsertOperation", upsert);
+            
+        } catch (Exception e) {
+            log.error("MySQL批量插入执行失败: templateId={}, 已完成块数={}", templateId, chunkResults.size(), e);
+            return ExecutorResult.failure("MySQL批量插入执行失败", e)
+                                .withTemplateInfo(templateId, null)
+                                .withOutputData("chunkResults", chunkResults)
+                                .withLog("MySQL批量插入执行失败: " + e.getMessage())
+                                .withMetadata("batchInsert", true);
+        }
+    }
+
+    /**
+     * 构建批量INSERT语句
+     * @param table 表名
+     * @param columns 列名（已排序）
+     * @param rowCount VALUES行数
+     * @param upsert 是否追加ON DUPLICATE KEY UPDATE
+     * @param excludeSet upsert时不更新的字段
+     * @return SQL语句
+     */
+    private String buildBatchInsertSql(String table, List<String> columns, int rowCount, 
+                                       boolean upsert, Set<String> excludeSet) {
+        String columnsPart = columns.stream()
+                .map(col -> "`" + col + "`")
+                .collect(Collectors.joining(", "));
+        String rowPlaceholders = columns.stream()
+                .map(col -> "?")
+                .collect(Collectors.joining(", ", "(", ")"));
+        
+        StringBuilder sql = new StringBuilder();
+        sql.append("INSERT INTO `").append(table).append("` (");
+        sql.append(columnsPart);
+        sql.append(") VALUES ");
+        for (int i = 0; i < rowCount; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(rowPlaceholders);
+        }
+        
+        if (upsert) {
+            String updatePart = columns.stream()
+                    .filter(col -> !excludeSet.contains(col))
+                    .map(col -> "`" + col + "` = VALUES(`" + col + "`)")
+                    .collect(Collectors.joining(", "));
+            if (!updatePart.isEmpty()) {
+                sql.append(" ON DUPLICATE KEY UPDATE ").append(updatePart);
+            }
+        }
+        
+        return sql.toString();
+    }
+
     /**
      * SQL和参数的包装类
      */
@@ -6,8 +6,13 @@ import com.operatorchoreography.generator.service.OperatorTemplateParamsService;
 import com.operatorchoreography.service.DynamicDataSourceService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
@@ -17,6 +22,7 @@ import java.time.LocalDateTime;
  * MySQL查询执行器
  * 执行MySQL查询操作
  * 支持根据templateId动态获取数据源配置
+ * 支持流式模式：只进游标逐行读取，按固定大小分批交给下游算子，内存中最多保留一批数据
  */
 @Slf4j
 @Component
@@ -27,8 +33,14 @@ public class MySqlQueryExecutor implements BaseExecutor {
     @Autowired
     private OperatorTemplateParamsService operatorTemplateParamsService;
 
+    @Autowired
+    private DownstreamOperatorInvoker downstreamOperatorInvoker;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    @Value("${operator.mysql.query.stream-batch-size:1000}")
+    private int defaultStreamBatchSize;
+
     public ExecutorResult query(Map<String, Object> inputData, Long templateId) throws Exception {
         return execute(inputData, templateId);
     }
@@ -47,8 +59,13 @@ public class MySqlQueryExecutor implements BaseExecutor {
                 throw new RuntimeException("未找到模板参数配置: templateId=" + templateId);
             }
 
+            // 流式查询的游标使用独立的数据源许可
+            boolean stream = Boolean.TRUE.equals(inputData.get("stream")) || "true".equals(inputData.get("stream"));
+            
             // 获取动态JdbcTemplate
-            JdbcTemplate jdbcTemplate = dynamicDataSourceService.getJdbcTemplate(params);
+            JdbcTemplate jdbcTemplate = stream
+                    ? dynamicDataSourceService.getStreamingJdbcTemplate(params)
+                    : dynamicDataSourceService.getJdbcTemplate(params);
             
             String sqlStatement = (String) inputData.get("sql_statement");
             Map<String, Object> queryParams = (Map<String, Object>) inputData.get("query_params");
@@ -66,11 +83,20 @@ public class MySqlQueryExecutor implements BaseExecutor {
             boolean useCustomDataSource = false;
             if (datasource != null && !datasource.isEmpty()) {
                 String customIdentifier = "template_" + templateId + "_custom";
-                jdbcTemplate = dynamicDataSourceService.getJdbcTemplate(datasource, customIdentifier);
+                jdbcTemplate = stream
+                        ? dynamicDataSourceService.getStreamingJdbcTemplate(datasource)
+                        : dynamicDataSourceService.getJdbcTemplate(datasource, customIdentifier);
                 useCustomDataSource = true;
                 log.info("使用自定义数据源: templateId={}", templateId);
             }
             
+            // 流式模式
+            if (stream) {
+                Object[] paramsArray = queryParams != null ? queryParams.values().toArray() : new Object[0];
+                return executeStreaming(jdbcTemplate, sqlStatement, paramsArray, inputData, templateId, startTime)
+                        .withMetadata("useCustomDataSource", useCustomDataSource);
+            }
+            
             // 执行查询
             List<Map<String, Object>> queryResult;
             boolean hasParameters = false;
@@ -115,4 +141,117 @@ public class MySqlQueryExecutor implements BaseExecutor {
                                 .withLog("MySQL查询执行失败: " + e.getMessage());
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * 流式查询
+     * inputData参数：
+     *   batchSize       - 每批行数（可选，默认 operator.mysql.query.stream-batch-size）
+     *   batchTemplateId - 下游算子模板ID（必填），每批调用一次，输入为 {inputData: 行列表, batchIndex, batchSize}
+     *   fetchSize       - 驱动抓取大小（可选，默认Integer.MIN_VALUE即MySQL逐行流式；连接URL开启useCursorFetch时可设为正数）
+     *   maxRetainedRows - 结果中保留的样例行数（可选，默认0）
+     * 下游算子处理完当前批次后才继续读取游标，读取速度受下游处理速度约束；任一批次失败即中止查询。
+     * 游标连接占用数据源的流式许可（operator.concurrency.stream-permits），不占用普通查询许可，
+     * 下游算子访问同一数据源时不会等待游标释放
+     */
+    private ExecutorResult executeStreaming(JdbcTemplate jdbcTemplate, String sqlStatement, Object[] paramsArray,
+                                            Map<String, Object> inputData, Long templateId,
+                                            LocalDateTime startTime) throws Exception {
+        int batchSize = getIntValue(inputData, "batchSize", defaultStreamBatchSize);
+        int fetchSize = getIntValue(inputData, "fetchSize", Integer.MIN_VALUE);
+        int maxRetainedRows = getIntValue(inputData, "maxRetainedRows", 0);
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize必须大于0");
+        }
+        
+        Object batchTemplateIdValue = inputData.get("batchTemplateId");
+        if (batchTemplateIdValue == null || batchTemplateIdValue.toString().trim().isEmpty()) {
+            // 没有下游算子时读取的行会被直接丢弃
+            throw new IllegalArgumentException("流式查询必须指定batchTemplateId");
+        }
+        DownstreamOperatorInvoker.Downstream downstream =
+                downstreamOperatorInvoker.resolve(Long.valueOf(batchTemplateIdValue.toString().trim()));
+        
+        log.info("执行SQL流式查询: templateId={}, batchSize={}, fetchSize={}, 下游算子={}", 
+                templateId, batchSize, fetchSize, downstream.getTemplateId());
+        
+        ColumnMapRowMapper rowMapper = new ColumnMapRowMapper();
+        List<Map<String, Object>> retainedRows = new ArrayList<>();
+        List<Map<String, Object>> batch = new ArrayList<>(batchSize);
+        long[] counters = new long[2]; // [0]: 行数, [1]: 批次数
+        
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sqlStatement,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < paramsArray.length; i++) {
+                ps.setObject(i + 1, paramsArray[i]);
+            }
+            return ps;
+        }, (ResultSet rs) -> {
+            Map<String, Object> row = rowMapper.mapRow(rs, (int) counters[0]);
+            counters[0]++;
+            if (retainedRows.size() < maxRetainedRows) {
+                retainedRows.add(row);
+            }
+            batch.add(row);
+            if (batch.size() >= batchSize) {
+                dispatchBatch(downstream, batch, counters[1]++);
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            dispatchBatch(downstream, batch, counters[1]++);
+            batch.clear();
+        }
+        
+        Map<String, Object> outputData = new HashMap<>();
+        outputData.put("queryResult", retainedRows);
+        outputData.put("rowCount", counters[0]);
+        outputData.put("batchCount", counters[1]);
+        outputData.put("batchSize", batchSize);
+        outputData.put("streamed", true);
+        outputData.put("sql", sqlStatement);
+        outputData.put("templateId", templateId);
+        outputData.put("message", "MySQL流式查询执行成功");
+        
+        log.info("MySQL流式查询执行成功: templateId={}, 读取行数={}, 批次数={}", templateId, counters[0], counters[1]);
+        
+        LocalDateTime endTime = LocalDateTime.now();
+        return ExecutorResult.success(outputData, startTime, endTime)
+                            .withTemplateInfo(templateId, null)
+                            .withLog("MySQL流式查询执行成功")
+                            .withMetadata("rowCount", counters[0])
+                            .withMetadata("streamed", true)
+                            .withMetadata("batchTemplateId", downstream.getTemplateId());
+    }
+
+    /**
+     * 将一批数据交给下游算子，失败时抛出异常中止游标读取
+     */
+    private void dispatchBatch(DownstreamOperatorInvoker.Downstream downstream, List<Map<String, Object>> batch, long batchIndex) {
+        Map<String, Object> batchInput = new HashMap<>();
+        batchInput.put("inputData", new ArrayList<>(batch));
+        batchInput.put("batchIndex", batchIndex);
+        batchInput.put("batchSize", batch.size());
+        
+        ExecutorResult result = downstream.invoke(batchInput);
+        if (!result.isSuccess()) {
+            throw new RuntimeException("下游算子处理批次失败: batchIndex=" + batchIndex + ", " + result.getErrorMessage());
+        }
+        log.debug("流式查询批次处理完成: batchIndex={}, 行数={}", batchIndex, batch.size());
+    }
+
+    /**
+     * 获取整数参数
+     */
+    private int getIntValue(Map<String, Object> inputData, String key, int defaultValue) {
+        Object value = inputData.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        return Integer.parseInt(value.toString());
+    }
+}
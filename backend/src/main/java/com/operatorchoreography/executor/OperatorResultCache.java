@@ -0,0 +1,541 @@
+package com.operatorchoreography.executor;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.operatorchoreography.generator.model.OperatorTemplates;
+import com.operatorchoreography.service.ExecutionMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 算子执行结果缓存
+ * 只用于模板配置了 is_memoized 的纯函数算子（输出只取决于输入和模板配置，如数据映射、JSON解析、字符串格式化）。
+ * 缓存键为 模板ID + 模板版本 + 模板配置代次 + 输入的128位哈希：Map和列表按遍历顺序、数值按具体类型和值
+ * （1、1L、1.0、1.00 互不相同，执行器格式化后的输出也不同），只有执行器看到完全相同的输入时才会命中；
+ * 输入中出现无法确定哈希的类型时不使用缓存。
+ * 输出数据写入和每次命中时都深拷贝，调用方或下游节点修改输出（含嵌套的Map、列表）不会影响缓存的结果。
+ * 按输出数据的估算字节数限制总容量，写入后按TTL过期；模板或模板参数变更时按模板失效
+ */
+@Slf4j
+@Component
+public class OperatorResultCache {
+
+    /**
+     * 命中缓存的执行结果带有该元数据
+     */
+    public static final String MEMOIZED_METADATA = "memoized";
+
+    /**
+     * 执行器使用了当前时间（日期格式化未传入日期时），结果不缓存
+     */
+    private static final String USED_CURRENT_TIME_METADATA = "usedCurrentTime";
+
+    private static final int MAX_DEPTH = 64;
+
+    /**
+     * 输出中含有无法深拷贝的可变对象，结果不缓存
+     */
+    private static final Object NOT_COPYABLE = new Object();
+
+    @Autowired
+    private ExecutionMetrics executionMetrics;
+
+    @Value("${operator.memoize.enabled:true}")
+    private boolean enabled;
+
+    @Value("${operator.memoize.max-weight-bytes:67108864}")
+    private long maxWeightBytes;
+
+    @Value("${operator.memoize.max-entry-bytes:1048576}")
+    private long maxEntryBytes;
+
+    @Value("${operator.memoize.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    /**
+     * 缓存键 -> 输出数据
+     */
+    private Cache<Key, Entry> results;
+
+    /**
+     * 模板ID -> 配置代次，模板变更时递增，变更前计算的键不会再命中，执行中的旧结果也不会写入新代次
+     */
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        results = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Key key, Entry entry) -> entry.weight)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        executionMetrics.bindCache("operatorResult", results);
+        log.info("算子结果缓存已初始化: enabled={}, maxWeightBytes={}, ttlSeconds={}", enabled, maxWeightBytes, ttlSeconds);
+    }
+
+    /**
+     * 计算缓存键
+     * @param template 算子模板
+     * @param input 执行器输入
+     * @return 缓存键，模板未开启缓存或输入无法哈希时返回null
+     */
+    public Key keyFor(OperatorTemplates template, Map<String, Object> input) {
+        if (!enabled || template == null || template.getId() == null || !Boolean.TRUE.equals(template.getIsMemoized())) {
+            return null;
+        }
+        Hasher hasher = new Hasher();
+        if (!hash(input, hasher, 0)) {
+            log.debug("输入包含无法哈希的数据，不使用结果缓存: templateId={}", template.getId());
+            return null;
+        }
+        return new Key(template.getId(), template.getVersion(), generation(template.getId()).get(),
+                hasher.high(), hasher.low());
+    }
+
+    /**
+     * 查询缓存的执行结果
+     * @return 成功结果（输出数据为缓存结果的深拷贝），未命中时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public ExecutorResult get(Key key) {
+        Entry entry = results.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return ExecutorResult.success((Map<String, Object>) deepCopy(entry.output, 0), now, now)
+                             .withLog("命中算子结果缓存")
+                             .withMetadata(MEMOIZED_METADATA, true);
+    }
+
+    /**
+     * 缓存执行结果，只缓存成功且未使用当前时间的结果；缓存的是输出数据的深拷贝
+     */
+    @SuppressWarnings("unchecked")
+    public void put(Key key, ExecutorResult result) {
+        if (result == null || !result.isSuccess() || result.getOutputData() == null) {
+            return;
+        }
+        Map<String, Object> metadata = result.getMetadata();
+        if (metadata != null && Boolean.TRUE.equals(metadata.get(USED_CURRENT_TIME_METADATA))) {
+            return;
+        }
+        if (key.generation != generation(key.templateId).get()) {
+            return;
+        }
+        Object copy = deepCopy(result.getOutputData(), 0);
+        if (copy == NOT_COPYABLE) {
+            log.debug("执行结果包含无法深拷贝的对象，不缓存: templateId={}", key.templateId);
+            return;
+        }
+        Map<String, Object> output = (Map<String, Object>) copy;
+        long weight = estimateWeight(output, 0);
+        if (weight > maxEntryBytes) {
+            log.debug("执行结果过大，不缓存: templateId={}, 估算字节数={}", key.templateId, weight);
+            return;
+        }
+        results.put(key, new Entry(output, (int) Math.min(weight, Integer.MAX_VALUE)));
+    }
+
+    /**
+     * 失效模板的缓存结果（模板或模板参数变更时调用）
+     */
+    public void invalidateTemplate(Long templateId) {
+        if (templateId == null) {
+            return;
+        }
+        generation(templateId).incrementAndGet();
+        results.asMap().keySet().removeIf(key -> key.templateId == templateId);
+        log.debug("已失效算子结果缓存: templateId={}", templateId);
+    }
+
+    /**
+     * 失效全部缓存结果
+     */
+    public void invalidateAll() {
+        generations.values().forEach(AtomicLong::incrementAndGet);
+        results.invalidateAll();
+    }
+
+    /**
+     * 获取缓存统计
+     */
+    public Map<String, Object> getStats() {
+        CacheStats stats = results.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("enabled", enabled);
+        result.put("size", results.estimatedSize());
+        result.put("weightedSize", results.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L));
+        result.put("maxWeightBytes", maxWeightBytes);
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+
+    private AtomicLong generation(Long templateId) {
+        return generations.computeIfAbsent(templateId, id -> new AtomicLong());
+    }
+
+    /**
+     * 按执行器看到的形式哈希：Map和列表按遍历顺序，标量按具体类型和值
+     * @return 是否可以哈希
+     */
+    private static boolean hash(Object value, Hasher hasher, int depth) {
+        if (depth > MAX_DEPTH) {
+            return false;
+        }
+        if (value == null) {
+            hasher.add(Hasher.TAG_NULL);
+            return true;
+        }
+        if (value instanceof String) {
+            hasher.addString(Hasher.TAG_STRING, (String) value);
+            return true;
+        }
+        if (value instanceof Boolean) {
+            hasher.add(Hasher.TAG_BOOLEAN);
+            hasher.add((Boolean) value ? 1 : 0);
+            return true;
+        }
+        if (value instanceof Number) {
+            return hashNumber((Number) value, hasher);
+        }
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            hasher.add(Hasher.TAG_MAP);
+            hasher.add(map.size());
+            // 不排序：字符串格式化等执行器按遍历顺序使用值，键相同但顺序不同的输入输出可能不同
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!(entry.getKey() instanceof String)) {
+                    return false;
+                }
+                hasher.addString(Hasher.TAG_STRING, (String) entry.getKey());
+                if (!hash(entry.getValue(), hasher, depth + 1)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (value instanceof List || value instanceof Object[]) {
+            List<?> list = value instanceof List ? (List<?>) value : Arrays.asList((Object[]) value);
+            hasher.add(value instanceof List ? Hasher.TAG_LIST : Hasher.TAG_ARRAY);
+            hasher.add(list.size());
+            for (Object element : list) {
+                if (!hash(element, hasher, depth + 1)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            hasher.add(Hasher.TAG_BYTES);
+            hasher.add(bytes.length);
+            for (int i = 0; i < bytes.length; i += 8) {
+                long packed = 0;
+                for (int j = i; j < Math.min(i + 8, bytes.length); j++) {
+                    packed = (packed << 8) | (bytes[j] & 0xFF);
+                }
+                hasher.add(packed);
+            }
+            return true;
+        }
+        if (value instanceof Character) {
+            hasher.add(Hasher.TAG_CHARACTER);
+            hasher.add((Character) value);
+            return true;
+        }
+        if (value instanceof Enum || value instanceof TemporalAccessor || value instanceof Date) {
+            // 类名参与哈希：同名常量、文本相同的不同日期类型（如 Date 与 Timestamp）格式化结果不同
+            hasher.addString(Hasher.TAG_TYPED, value.getClass().getName());
+            hasher.addString(Hasher.TAG_TYPED, value instanceof Date
+                    ? String.valueOf(((Date) value).getTime()) : value.toString());
+            return true;
+        }
+        // Set 等无序集合和其他对象的遍历顺序、相等性无法保证，不缓存
+        return false;
+    }
+
+    /**
+     * 数值按具体类型和值哈希，不做归一：1、1L、1.0、BigDecimal("1.00") 的 toString 不同，执行器输出也可能不同
+     */
+    private static boolean hashNumber(Number number, Hasher hasher) {
+        if (number instanceof Integer) {
+            hasher.add(Hasher.TAG_INTEGER);
+            hasher.add(number.intValue());
+        } else if (number instanceof Long) {
+            hasher.add(Hasher.TAG_LONG);
+            hasher.add(number.longValue());
+        } else if (number instanceof Double) {
+            hasher.add(Hasher.TAG_DOUBLE);
+            hasher.add(Double.doubleToLongBits(number.doubleValue()));
+        } else if (number instanceof Float) {
+            hasher.add(Hasher.TAG_FLOAT);
+            hasher.add(Float.floatToIntBits(number.floatValue()));
+        } else if (number instanceof Short) {
+            hasher.add(Hasher.TAG_SHORT);
+            hasher.add(number.shortValue());
+        } else if (number instanceof Byte) {
+            hasher.add(Hasher.TAG_BYTE);
+            hasher.add(number.byteValue());
+        } else if (number instanceof BigInteger) {
+            hasher.addString(Hasher.TAG_BIG_INTEGER, number.toString());
+        } else if (number instanceof BigDecimal) {
+            // 保留标度，1.0 与 1.00 不同
+            BigDecimal decimal = (BigDecimal) number;
+            hasher.addString(Hasher.TAG_DECIMAL, decimal.unscaledValue().toString());
+            hasher.add(decimal.scale());
+        } else {
+            // AtomicLong 等可变数值或自定义数值类型
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 深拷贝输出数据：Map、列表、集合、数组逐层复制，不可变的标量直接引用
+     * @return 拷贝结果，含有无法拷贝的可变对象时返回 {@link #NOT_COPYABLE}
+     */
+    private static Object deepCopy(Object value, int depth) {
+        if (value == null || value instanceof String || value instanceof Boolean || value instanceof Character
+                || value instanceof Enum || isImmutableNumber(value) || isImmutableTemporal(value)) {
+            return value;
+        }
+        if (depth > MAX_DEPTH) {
+            return NOT_COPYABLE;
+        }
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                Object element = deepCopy(entry.getValue(), depth + 1);
+                if (element == NOT_COPYABLE) {
+                    return NOT_COPYABLE;
+                }
+                copy.put(entry.getKey(), element);
+            }
+            return copy;
+        }
+        if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            Collection<Object> copy = value instanceof Set
+                    ? new LinkedHashSet<>() : new ArrayList<>(collection.size());
+            for (Object element : collection) {
+                Object elementCopy = deepCopy(element, depth + 1);
+                if (elementCopy == NOT_COPYABLE) {
+                    return NOT_COPYABLE;
+                }
+                copy.add(elementCopy);
+            }
+            return copy;
+        }
+        if (value instanceof Object[]) {
+            Object[] copy = ((Object[]) value).clone();
+            for (int i = 0; i < copy.length; i++) {
+                Object element = deepCopy(copy[i], depth + 1);
+                if (element == NOT_COPYABLE) {
+                    return NOT_COPYABLE;
+                }
+                copy[i] = element;
+            }
+            return copy;
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        }
+        if (value instanceof Date) {
+            return ((Date) value).clone();
+        }
+        return NOT_COPYABLE;
+    }
+
+    private static boolean isImmutableNumber(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Double || value instanceof Float
+                || value instanceof Short || value instanceof Byte || value instanceof BigInteger
+                || value instanceof BigDecimal;
+    }
+
+    /**
+     * java.time 下的日期时间类型均不可变
+     */
+    private static boolean isImmutableTemporal(Object value) {
+        return value instanceof TemporalAccessor && value.getClass().getPackageName().startsWith("java.time");
+    }
+
+    /**
+     * 估算输出数据占用的字节数，用于按容量淘汰
+     */
+    private static long estimateWeight(Object value, int depth) {
+        if (value == null || depth > MAX_DEPTH) {
+            return 8;
+        }
+        if (value instanceof CharSequence) {
+            return 40 + 2L * ((CharSequence) value).length();
+        }
+        if (value instanceof Map) {
+            long weight = 48;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                weight += 32 + estimateWeight(entry.getKey(), depth + 1) + estimateWeight(entry.getValue(), depth + 1);
+            }
+            return weight;
+        }
+        if (value instanceof Collection) {
+            long weight = 32;
+            for (Object element : (Collection<?>) value) {
+                weight += 8 + estimateWeight(element, depth + 1);
+            }
+            return weight;
+        }
+        if (value instanceof byte[]) {
+            return 16 + ((byte[]) value).length;
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return 16;
+        }
+        return 64;
+    }
+
+    /**
+     * 缓存键
+     */
+    public static final class Key {
+        private final long templateId;
+        private final String version;
+        private final long generation;
+        private final long hash1;
+        private final long hash2;
+
+        private Key(long templateId, String version, long generation, long hash1, long hash2) {
+            this.templateId = templateId;
+            this.version = version;
+            this.generation = generation;
+            this.hash1 = hash1;
+            this.hash2 = hash2;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash1 == other.hash1 && hash2 == other.hash2 && templateId == other.templateId
+                    && generation == other.generation && Objects.equals(version, other.version);
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (hash1 ^ (hash1 >>> 32));
+        }
+
+        @Override
+        public String toString() {
+            return templateId + "@" + version + "#" + generation + ":" + Long.toHexString(hash1) + Long.toHexString(hash2);
+        }
+    }
+
+    private static final class Entry {
+        private final Map<String, Object> output;
+        private final int weight;
+
+        private Entry(Map<String, Object> output, int weight) {
+            this.output = output;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * 两路独立的64位乘法-循环移位哈希，结束时各自做一次 fmix64 混合
+     */
+    private static final class Hasher {
+        static final long TAG_NULL = 1;
+        static final long TAG_STRING = 2;
+        static final long TAG_BOOLEAN = 3;
+        static final long TAG_LONG = 4;
+        static final long TAG_DOUBLE = 5;
+        static final long TAG_DECIMAL = 6;
+        static final long TAG_MAP = 7;
+        static final long TAG_LIST = 8;
+        static final long TAG_BYTES = 9;
+        static final long TAG_TYPED = 10;
+        static final long TAG_INTEGER = 11;
+        static final long TAG_FLOAT = 12;
+        static final long TAG_SHORT = 13;
+        static final long TAG_BYTE = 14;
+        static final long TAG_BIG_INTEGER = 15;
+        static final long TAG_CHARACTER = 16;
+        static final long TAG_ARRAY = 17;
+
+        private static final long P1 = 0x9E3779B97F4A7C15L;
+        private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+        private static final long P3 = 0x165667B19E3779F9L;
+        private static final long P4 = 0xD6E8FEB86659FD93L;
+
+        private long h1 = 0x243F6A8885A308D3L;
+        private long h2 = 0x13198A2E03707344L;
+        private long count;
+
+        void add(long value) {
+            h1 = Long.rotateLeft(h1 ^ (value * P1), 31) * P2;
+            h2 = Long.rotateLeft(h2 ^ (value * P3), 29) * P4 + (h1 >>> 17);
+            count++;
+        }
+
+        void addString(long tag, String value) {
+            add(tag);
+            int length = value.length();
+            add(length);
+            for (int i = 0; i < length; i += 4) {
+                long packed = 0;
+                for (int j = i; j < Math.min(i + 4, length); j++) {
+                    packed = (packed << 16) | value.charAt(j);
+                }
+                add(packed);
+            }
+        }
+
+        long high() {
+            return fmix(h1 ^ count);
+        }
+
+        long low() {
+            return fmix(h2 ^ Long.rotateLeft(count, 32));
+        }
+
+        private static long fmix(long z) {
+            z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+            z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+            return z ^ (z >>> 33);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.operatorchoreography.executor;
 
+import com.operatorchoreography.expression.CompiledExpression;
+import com.operatorchoreography.expression.ExpressionCompiler;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import java.util.*;
 import java.time.LocalDateTime;
@@ -8,6 +12,9 @@ import java.time.LocalDateTime;
 /**
  * WHILE循环执行器
  * 根据条件循环执行
+ * 循环条件在循环开始前编译一次，每次迭代直接对当前数据求值
+ * 每次迭代在上一次的数据之上派生一层 {@link ExecutionContext}，只记录本次改动的字段，不复制整份数据；
+ * 迭代明细默认只保留最后 operator.loop.max-iteration-details 次，可通过 maxIterationDetails 调整，为0时不保留
  */
 @Slf4j
 @Component
@@ -15,6 +22,12 @@ public class WhileLoopExecutor implements BaseExecutor {
 
     private static final int MAX_ITERATIONS = 1000; // 最大循环次数，防止无限循环
 
+    @Autowired
+    private ExpressionCompiler expressionCompiler;
+
+    @Value("${operator.loop.max-iteration-details:100}")
+    private int defaultMaxIterationDetails;
+
     // 由于while是Java关键字，使用executeWhile方法名
     @SuppressWarnings("unchecked")
     public ExecutorResult executeWhile(Map<String, Object> inputData, Long templateId) throws Exception {
@@ -29,10 +42,13 @@ public class WhileLoopExecutor implements BaseExecutor {
         LocalDateTime startTime = LocalDateTime.now();
         
         try {
-            Map<String, Object> conditionConfig = (Map<String, Object>) inputData.get("condition");
-            Map<String, Object> currentData = new HashMap<>((Map<String, Object>) inputData.get("inputData"));
+            Object conditionConfig = inputData.get("condition");
+            ExecutionContext currentData = ExecutionContext.over((Map<String, Object>) inputData.get("inputData"));
             Map<String, Object> loopLogic = (Map<String, Object>) inputData.get("loopLogic");
             Integer maxIterations = (Integer) inputData.get("maxIterations");
+            Object maxIterationDetailsValue = inputData.get("maxIterationDetails");
+            int maxIterationDetails = maxIterationDetailsValue instanceof Number
+                    ? ((Number) maxIterationDetailsValue).intValue() : defaultMaxIterationDetails;
             
             if (conditionConfig == null) {
                 log.error("循环条件配置为空: templateId={}", templateId);
@@ -45,58 +61,70 @@ public class WhileLoopExecutor implements BaseExecutor {
             
             log.info("WHILE循环开始: templateId={}, 最大迭代次数={}", templateId, maxIter);
             log.debug("初始条件配置: {}", conditionConfig);
+            CompiledExpression condition = compileCondition(conditionConfig);
             log.debug("初始数据: {}", currentData);
             
-            List<Map<String, Object>> iterations = new ArrayList<>();
+            // 只保留最近的迭代明细
+            Deque<Map<String, Object>> iterations = new ArrayDeque<>();
             int iterationCount = 0;
             boolean hasLogicErrors = false;
             
             // 执行WHILE循环
-            while (evaluateCondition(conditionConfig, currentData) && iterationCount < maxIter) {
+            while (evaluateCondition(condition, currentData) && iterationCount < maxIter) {
                 log.debug("执行循环迭代: iteration={}", iterationCount);
+                // 节点超时后执行线程被中断，停止后续迭代
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException("循环执行被取消");
+                }
                 
+                Map<String, Object> iterationData = new HashMap<>();
                 try {
-                    Map<String, Object> iterationData = new HashMap<>();
                     iterationData.put("iteration", iterationCount);
-                    iterationData.put("inputData", new HashMap<>(currentData));
+                    iterationData.put("inputData", currentData);
                     
-                    // 执行循环体逻辑
+                    // 执行循环体逻辑，结果是当前数据之上的新一层，之前的数据保持不变，明细中可直接引用
+                    ExecutionContext nextData = currentData.child();
                     if (loopLogic != null) {
-                        currentData = processLoopBody(currentData, loopLogic, iterationCount);
-                        iterationData.put("outputData", new HashMap<>(currentData));
+                        processLoopBody(nextData, loopLogic, iterationCount);
                     } else {
                         // 默认逻辑：增加计数器
-                        Integer counter = (Integer) currentData.get("counter");
+                        Integer counter = (Integer) nextData.get("counter");
                         if (counter == null) {
                             counter = 0;
                         }
-                        currentData.put("counter", counter + 1);
-                        iterationData.put("outputData", new HashMap<>(currentData));
+                        nextData.put("counter", counter + 1);
                     }
-                    
+                    currentData = nextData;
+                    iterationData.put("outputData", currentData);
+                    iterationData.put("changes", currentData.delta());
                     iterationData.put("status", "success");
-                    iterations.add(iterationData);
                 } catch (Exception e) {
                     log.warn("循环体执行错误: iteration={}, error={}", iterationCount, e.getMessage());
-                    Map<String, Object> errorIteration = new HashMap<>();
-                    errorIteration.put("iteration", iterationCount);
-                    errorIteration.put("status", "error");
-                    errorIteration.put("error", e.getMessage());
-                    iterations.add(errorIteration);
+                    iterationData.clear();
+                    iterationData.put("iteration", iterationCount);
+                    iterationData.put("status", "error");
+                    iterationData.put("error", e.getMessage());
                     hasLogicErrors = true;
                 }
+                if (maxIterationDetails > 0) {
+                    if (iterations.size() >= maxIterationDetails) {
+                        iterations.pollFirst();
+                    }
+                    iterations.addLast(iterationData);
+                }
                 
                 iterationCount++;
             }
             
             // 检查是否因为最大循环次数而结束
             boolean reachedMaxIterations = iterationCount >= maxIter;
-            boolean conditionStillTrue = evaluateCondition(conditionConfig, currentData);
+            boolean conditionStillTrue = evaluateCondition(condition, currentData);
             
             Map<String, Object> outputData = new HashMap<>();
             outputData.put("finalResult", currentData);
             outputData.put("iterations", iterationCount);
-            outputData.put("iterationDetails", iterations);
+            outputData.put("iterationDetails", new ArrayList<>(iterations));
+            outputData.put("iterationDetailsTruncated", iterationCount > iterations.size());
             outputData.put("reachedMaxIterations", reachedMaxIterations);
             outputData.put("conditionStillTrue", conditionStillTrue);
             outputData.put("hasLogicErrors", hasLogicErrors);
@@ -130,82 +158,39 @@ public class WhileLoopExecutor implements BaseExecutor {
     }
     
     /**
-     * 评估循环条件
+     * 编译循环条件
+     * 支持表达式字符串、{expression: "..."} 以及 {field, operator, value} 三种配置
      */
     @SuppressWarnings("unchecked")
-    private boolean evaluateCondition(Map<String, Object> conditionConfig, Map<String, Object> currentData) {
-        try {
-            String field = (String) conditionConfig.get("field");
-            String operator = (String) conditionConfig.get("operator");
-            Object expectedValue = conditionConfig.get("value");
-            
-            if (field == null || operator == null) {
-                log.warn("条件配置不完整: field={}, operator={}", field, operator);
-                return false;
-            }
-            
-            Object actualValue = currentData.get(field);
-            
-            switch (operator.toLowerCase()) {
-                case "eq":
-                case "equals":
-                    return Objects.equals(actualValue, expectedValue);
-                case "ne":
-                case "not_equals":
-                    return !Objects.equals(actualValue, expectedValue);
-                case "gt":
-                case "greater_than":
-                    return compareValues(actualValue, expectedValue) > 0;
-                case "gte":
-                case "greater_than_or_equals":
-                    return compareValues(actualValue, expectedValue) >= 0;
-                case "lt":
-                case "less_than":
-                    return compareValues(actualValue, expectedValue) < 0;
-                case "lte":
-                case "less_than_or_equals":
-                    return compareValues(actualValue, expectedValue) <= 0;
-                default:
-                    log.warn("未知的条件操作符: {}", operator);
-                    return false;
-            }
-        } catch (Exception e) {
-            log.error("条件评估失败: {}", e.getMessage());
-            return false;
+    private CompiledExpression compileCondition(Object conditionConfig) {
+        if (conditionConfig instanceof String) {
+            return expressionCompiler.compile((String) conditionConfig);
         }
+        Map<String, Object> config = (Map<String, Object>) conditionConfig;
+        Object expression = config.get("expression");
+        if (expression instanceof String) {
+            return expressionCompiler.compile((String) expression);
+        }
+        return expressionCompiler.compileComparison((String) config.get("field"), (String) config.get("operator"),
+                config.get("value"));
     }
-    
+
     /**
-     * 比较两个值
+     * 评估循环条件
      */
-    @SuppressWarnings("unchecked")
-    private int compareValues(Object actual, Object expected) {
-        if (actual == null && expected == null) return 0;
-        if (actual == null) return -1;
-        if (expected == null) return 1;
-        
-        if (actual instanceof Number && expected instanceof Number) {
-            double actualNum = ((Number) actual).doubleValue();
-            double expectedNum = ((Number) expected).doubleValue();
-            return Double.compare(actualNum, expectedNum);
-        }
-        
-        if (actual instanceof Comparable && expected instanceof Comparable) {
-            return ((Comparable<Object>) actual).compareTo(expected);
+    private boolean evaluateCondition(CompiledExpression condition, Map<String, Object> currentData) {
+        try {
+            return condition.evaluateBoolean(currentData);
+        } catch (Exception e) {
+            log.error("条件评估失败: {}", e.getMessage());
+            return false;
         }
-        
-        return actual.toString().compareTo(expected.toString());
     }
     
     /**
-     * 处理循环体
+     * 处理循环体，改动直接写入本次迭代的数据层
      */
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> processLoopBody(Map<String, Object> currentData, 
-                                              Map<String, Object> loopLogic, 
-                                              int iteration) {
-        Map<String, Object> newData = new HashMap<>(currentData);
-        
+    private void processLoopBody(ExecutionContext newData, Map<String, Object> loopLogic, int iteration) {
         try {
             String operation = (String) loopLogic.get("operation");
             
@@ -224,7 +209,5 @@ public class WhileLoopExecutor implements BaseExecutor {
         } catch (Exception e) {
             log.warn("循环体处理失败: {}", e.getMessage());
         }
-        
-        return newData;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.operatorchoreography.expression;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 编译后的表达式
+ * 不可变、线程安全，可在循环中对不同上下文重复求值
+ */
+public final class CompiledExpression {
+
+    private final String expression;
+    private final ExpressionNode root;
+    private final Set<String> variables;
+
+    CompiledExpression(String expression, ExpressionNode root) {
+        this.expression = expression;
+        this.root = root;
+        Set<String> collected = new LinkedHashSet<>();
+        root.collectVariables(collected);
+        this.variables = Collections.unmodifiableSet(collected);
+    }
+
+    /**
+     * 求值
+     * @param context 变量上下文，字段路径从这里取值
+     * @return 结果（数值运算结果为Double，比较和逻辑运算结果为Boolean）
+     */
+    public Object evaluate(Map<String, Object> context) {
+        return root.evaluate(context);
+    }
+
+    /**
+     * 按条件求值，非布尔结果按真值规则转换（null、0、空字符串、空集合为false）
+     */
+    public boolean evaluateBoolean(Map<String, Object> context) {
+        return root.evaluateBoolean(context);
+    }
+
+    /**
+     * 按数值求值，无法转换为数值时返回NaN
+     */
+    public double evaluateNumber(Map<String, Object> context) {
+        return root.evaluateNumber(context);
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * 表达式引用的根变量名
+     */
+    public Set<String> getVariables() {
+        return variables;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
@@ -0,0 +1,125 @@
+package com.operatorchoreography.expression;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.operatorchoreography.service.ExecutionMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 表达式编译器
+ * 将条件、计算表达式解析为语法树并按表达式文本缓存，供条件分支、WHILE循环、数学计算等执行器共用
+ * 支持：|| && ! 逻辑运算（也可写作 or and not），== != > >= < <= 比较，+ - * / % 算术，
+ * 字段路径（user.address.city、items[0].price），数学函数 abs min max round floor ceil sqrt pow
+ */
+@Slf4j
+@Component
+public class ExpressionCompiler {
+
+    @Autowired
+    private ExecutionMetrics executionMetrics;
+
+    @Value("${operator.expression-cache.max-size:2000}")
+    private long maxSize;
+
+    private Cache<String, CompiledExpression> expressionCache;
+
+    @PostConstruct
+    public void init() {
+        expressionCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        executionMetrics.bindCache("expression", expressionCache);
+        log.info("表达式缓存初始化完成: maxSize={}", maxSize);
+    }
+
+    /**
+     * 编译表达式，相同文本只解析一次
+     * @param expression 表达式文本
+     * @return 编译后的表达式
+     * @throws IllegalArgumentException 表达式为空或语法错误
+     */
+    public CompiledExpression compile(String expression) {
+        if (expression == null || expression.trim().isEmpty()) {
+            throw new IllegalArgumentException("表达式不能为空");
+        }
+        return expressionCache.get(expression, text -> {
+            log.debug("编译表达式: {}", text);
+            return new CompiledExpression(text, ExpressionParser.parse(text));
+        });
+    }
+
+    /**
+     * 将 {field, operator, value} 形式的条件配置编译为表达式
+     * @param field 字段路径
+     * @param operator 操作符：eq/equals、ne/not_equals、gt/greater_than、gte/greater_than_or_equals、
+     *                 lt/less_than、lte/less_than_or_equals，或直接使用 == != > >= < <=
+     * @param value 比较值（常量）
+     * @return 编译后的表达式
+     */
+    public CompiledExpression compileComparison(String field, String operator, Object value) {
+        if (field == null || operator == null) {
+            throw new IllegalArgumentException("条件配置不完整: field=" + field + ", operator=" + operator);
+        }
+        String symbol = toSymbol(operator);
+        ExpressionNode fieldNode = ExpressionParser.parse(field);
+        if (!(fieldNode instanceof ExpressionNode.FieldPath)) {
+            throw new IllegalArgumentException("条件字段必须是字段路径: " + field);
+        }
+        ExpressionNode node = new ExpressionNode.Compare(symbol, fieldNode, new ExpressionNode.Literal(value));
+        return new CompiledExpression(field + " " + symbol + " " + value, node);
+    }
+
+    private String toSymbol(String operator) {
+        switch (operator.toLowerCase()) {
+            case "eq":
+            case "equals":
+            case "==":
+                return "==";
+            case "ne":
+            case "not_equals":
+            case "!=":
+                return "!=";
+            case "gt":
+            case "greater_than":
+            case ">":
+                return ">";
+            case "gte":
+            case "greater_than_or_equals":
+            case ">=":
+                return ">=";
+            case "lt":
+            case "less_than":
+            case "<":
+                return "<";
+            case "lte":
+            case "less_than_or_equals":
+            case "<=":
+                return "<=";
+            default:
+                throw new IllegalArgumentException("未知的条件操作符: " + operator);
+        }
+    }
+
+    /**
+     * 获取缓存统计
+     */
+    public Map<String, Object> getStats() {
+        CacheStats stats = expressionCache.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("size", expressionCache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+}
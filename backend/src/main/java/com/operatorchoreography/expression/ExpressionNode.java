@@ -0,0 +1,445 @@
+package com.operatorchoreography.expression;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 表达式语法树节点
+ * 数值运算和比较节点直接在 double/boolean 上求值，只有最外层结果需要装箱；
+ * 节点创建后不可变，可在多线程间共享
+ */
+abstract class ExpressionNode {
+
+    /**
+     * 求值为对象
+     */
+    abstract Object evaluate(Map<String, Object> context);
+
+    /**
+     * 求值为数值，非数值结果按 {@link #toDouble(Object)} 转换
+     */
+    double evaluateNumber(Map<String, Object> context) {
+        return toDouble(evaluate(context));
+    }
+
+    /**
+     * 求值为布尔值，非布尔结果按 {@link #truthy(Object)} 转换
+     */
+    boolean evaluateBoolean(Map<String, Object> context) {
+        return truthy(evaluate(context));
+    }
+
+    /**
+     * 结果是否一定为数值（用于比较时走无装箱的数值路径）
+     */
+    boolean isNumeric() {
+        return false;
+    }
+
+    /**
+     * 收集引用的根变量名
+     */
+    void collectVariables(Set<String> variables) {
+    }
+
+    static double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        if (value instanceof String) {
+            try {
+                return Double.parseDouble(((String) value).trim());
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+        return Double.NaN;
+    }
+
+    static boolean truthy(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Number) {
+            double number = ((Number) value).doubleValue();
+            return number != 0 && !Double.isNaN(number);
+        }
+        if (value instanceof String) {
+            return !((String) value).isEmpty();
+        }
+        if (value instanceof Map) {
+            return !((Map<?, ?>) value).isEmpty();
+        }
+        if (value instanceof List) {
+            return !((List<?>) value).isEmpty();
+        }
+        return true;
+    }
+
+    /**
+     * 数值与可解析为数值的字符串之间按数值比较
+     */
+    private static boolean isNumberLike(Object value) {
+        return value instanceof Number || (value instanceof String && !Double.isNaN(toDouble(value)));
+    }
+
+    static boolean valueEquals(Object left, Object right) {
+        if (left == null || right == null) {
+            return left == right;
+        }
+        if ((left instanceof Number || right instanceof Number) && isNumberLike(left) && isNumberLike(right)) {
+            return toDouble(left) == toDouble(right);
+        }
+        if (left.equals(right)) {
+            return true;
+        }
+        return (left instanceof String || right instanceof String) && String.valueOf(left).equals(String.valueOf(right));
+    }
+
+    /**
+     * 比较两个值，无法比较（含null、NaN）时返回null
+     */
+    @SuppressWarnings("unchecked")
+    static Integer compareValues(Object left, Object right) {
+        if (left == null || right == null) {
+            return null;
+        }
+        if ((left instanceof Number || right instanceof Number) && isNumberLike(left) && isNumberLike(right)) {
+            double l = toDouble(left);
+            double r = toDouble(right);
+            return Double.isNaN(l) || Double.isNaN(r) ? null : Double.compare(l, r);
+        }
+        if (left instanceof Comparable && left.getClass() == right.getClass()) {
+            return ((Comparable<Object>) left).compareTo(right);
+        }
+        return String.valueOf(left).compareTo(String.valueOf(right));
+    }
+
+    // ==================== 节点实现 ====================
+
+    /**
+     * 常量
+     */
+    static final class Literal extends ExpressionNode {
+        private final Object value;
+        private final double number;
+
+        Literal(Object value) {
+            this.value = value;
+            this.number = toDouble(value);
+        }
+
+        @Override
+        Object evaluate(Map<String, Object> context) {
+            return value;
+        }
+
+        @Override
+        double evaluateNumber(Map<String, Object> context) {
+            return number;
+        }
+
+        @Override
+        boolean isNumeric() {
+            return value instanceof Number;
+        }
+    }
+
+    /**
+     * 字段路径，如 user.address.city、items[0].price
+     */
+    static final class FieldPath extends ExpressionNode {
+        private final String root;
+        private final Object[] segments;
+
+        /**
+         * @param segments 路径段，String为Map键，Integer为列表下标
+         */
+        FieldPath(Object[] segments) {
+            this.root = (String) segments[0];
+            this.segments = segments;
+        }
+
+        @Override
+        Object evaluate(Map<String, Object> context) {
+            Object current = context.get(root);
+            for (int i = 1; i < segments.length && current != null; i++) {
+                Object segment = segments[i];
+                if (segment instanceof Integer) {
+                    int index = (Integer) segment;
+                    current = current instanceof List && index < ((List<?>) current).size()
+                            ? ((List<?>) current).get(index) : null;
+                } else {
+                    current = current instanceof Map ? ((Map<?, ?>) current).get(segment) : null;
+                }
+            }
+            return current;
+        }
+
+        @Override
+        void collectVariables(Set<String> variables) {
+            variables.add(root);
+        }
+    }
+
+    /**
+     * 逻辑非
+     */
+    static final class Not extends ExpressionNode {
+        private final ExpressionNode operand;
+
+        Not(ExpressionNode operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        Object evaluate(Map<String, Object> context) {
+            return evaluateBoolean(context);
+        }
+
+        @Override
+        boolean evaluateBoolean(Map<String, Object> context) {
+            return !operand.evaluateBoolean(context);
+        }
+
+        @Override
+        void collectVariables(Set<String> variables) {
+            operand.collectVariables(variables);
+        }
+    }
+
+    /**
+     * 取负
+     */
+    static final class Negate extends ExpressionNode {
+        private final ExpressionNode operand;
+
+        Negate(ExpressionNode operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        Object evaluate(Map<String, Object> context) {
+            return evaluateNumber(context);
+        }
+
+        @Override
+        double evaluateNumber(Map<String, Object> context) {
+            return -operand.evaluateNumber(context);
+        }
+
+        @Override
+        boolean isNumeric() {
+            return true;
+        }
+
+        @Override
+        void collectVariables(Set<String> variables) {
+            operand.collectVariables(variables);
+        }
+    }
+
+    /**
+     * 二元运算基类
+     */
+    abstract static class Binary extends ExpressionNode {
+        final ExpressionNode left;
+        final ExpressionNode right;
+
+        Binary(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        void collectVariables(Set<String> variables) {
+            left.collectVariables(variables);
+            right.collectVariables(variables);
+        }
+    }
+
+    /**
+     * 短路与/或
+     */
+    static final class Logical extends Binary {
+        private final boolean and;
+
+        Logical(boolean and, ExpressionNode left, ExpressionNode right) {
+            super(left, right);
+            this.and = and;
+        }
+
+        @Override
+        Object evaluate(Map<String, Object> context) {
+            return evaluateBoolean(context);
+        }
+
+        @Override
+        boolean evaluateBoolean(Map<String, Object> context) {
+            return and
+                    ? left.evaluateBoolean(context) && right.evaluateBoolean(context)
+                    : left.evaluateBoolean(context) || right.evaluateBoolean(context);
+        }
+    }
+
+    /**
+     * 比较运算：== != > >= < <=
+     */
+    static final class Compare extends Binary {
+        private final String operator;
+        private final boolean numeric;
+
+        Compare(String operator, ExpressionNode left, ExpressionNode right) {
+            super(left, right);
+            this.operator = operator;
+            // 任一侧一定为数值时按数值比较，另一侧（字段、字符串）转换为double，不产生装箱
+            this.numeric = left.isNumeric() || right.isNumeric();
+        }
+
+        @Override
+        Object evaluate(Map<String, Object> context) {
+            return evaluateBoolean(context);
+        }
+
+        @Override
+        boolean evaluateBoolean(Map<String, Object> context) {
+            if (numeric) {
+                double l = left.evaluateNumber(context);
+                double r = right.evaluateNumber(context);
+                switch (operator) {
+                    case "==": return l == r;
+                    case "!=": return l != r;
+                    case ">": return l > r;
+                    case ">=": return l >= r;
+                    case "<": return l < r;
+                    default: return l <= r;
+                }
+            }
+
+            Object l = left.evaluate(context);
+            Object r = right.evaluate(context);
+            if ("==".equals(operator)) {
+                return valueEquals(l, r);
+            }
+            if ("!=".equals(operator)) {
+                return !valueEquals(l, r);
+            }
+            Integer comparison = compareValues(l, r);
+            if (comparison == null) {
+                return false;
+            }
+            switch (operator) {
+                case ">": return comparison > 0;
+                case ">=": return comparison >= 0;
+                case "<": return comparison < 0;
+                default: return comparison <= 0;
+            }
+        }
+    }
+
+    /**
+     * 算术运算：+ - * / %，加法中任一侧为非数值字符串时按字符串拼接
+     */
+    static final class Arithmetic extends Binary {
+        private final char operator;
+
+        Arithmetic(char operator, ExpressionNode left, ExpressionNode right) {
+            super(left, right);
+            this.operator = operator;
+        }
+
+        @Override
+        Object evaluate(Map<String, Object> context) {
+            if (operator == '+' && !(left.isNumeric() && right.isNumeric())) {
+                Object l = left.evaluate(context);
+                Object r = right.evaluate(context);
+                if ((l instanceof String && Double.isNaN(toDouble(l))) || (r instanceof String && Double.isNaN(toDouble(r)))) {
+                    return String.valueOf(l) + r;
+                }
+                return toDouble(l) + toDouble(r);
+            }
+            return evaluateNumber(context);
+        }
+
+        @Override
+        double evaluateNumber(Map<String, Object> context) {
+            double l = left.evaluateNumber(context);
+            double r = right.evaluateNumber(context);
+            switch (operator) {
+                case '+': return l + r;
+                case '-': return l - r;
+                case '*': return l * r;
+                case '/': return l / r;
+                default: return l % r;
+            }
+        }
+
+        @Override
+        boolean isNumeric() {
+            return operator != '+' || (left.isNumeric() && right.isNumeric());
+        }
+    }
+
+    /**
+     * 数学函数：abs min max round floor ceil sqrt pow
+     */
+    static final class MathFunction extends ExpressionNode {
+        private final String name;
+        private final ExpressionNode[] arguments;
+
+        MathFunction(String name, ExpressionNode[] arguments) {
+            this.name = name;
+            this.arguments = arguments;
+        }
+
+        @Override
+        Object evaluate(Map<String, Object> context) {
+            return evaluateNumber(context);
+        }
+
+        @Override
+        double evaluateNumber(Map<String, Object> context) {
+            switch (name) {
+                case "abs": return Math.abs(arguments[0].evaluateNumber(context));
+                case "round": return Math.round(arguments[0].evaluateNumber(context));
+                case "floor": return Math.floor(arguments[0].evaluateNumber(context));
+                case "ceil": return Math.ceil(arguments[0].evaluateNumber(context));
+                case "sqrt": return Math.sqrt(arguments[0].evaluateNumber(context));
+                case "pow": return Math.pow(arguments[0].evaluateNumber(context), arguments[1].evaluateNumber(context));
+                case "min": {
+                    double result = arguments[0].evaluateNumber(context);
+                    for (int i = 1; i < arguments.length; i++) {
+                        result = Math.min(result, arguments[i].evaluateNumber(context));
+                    }
+                    return result;
+                }
+                default: {
+                    double result = arguments[0].evaluateNumber(context);
+                    for (int i = 1; i < arguments.length; i++) {
+                        result = Math.max(result, arguments[i].evaluateNumber(context));
+                    }
+                    return result;
+                }
+            }
+        }
+
+        @Override
+        boolean isNumeric() {
+            return true;
+        }
+
+        @Override
+        void collectVariables(Set<String> variables) {
+            for (ExpressionNode argument : arguments) {
+                argument.collectVariables(variables);
+            }
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.operatorchoreography.expression;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 表达式解析器（递归下降）
+ * 优先级从低到高：|| / or，&& / and，== !=，> >= < <=，+ -，* / %，一元 ! not -
+ * 操作数：数字、'字符串'、"字符串"、true、false、null、字段路径（a.b[0].c）、数学函数调用、括号
+ */
+final class ExpressionParser {
+
+    private static final Set<String> FUNCTIONS = Set.of("abs", "min", "max", "round", "floor", "ceil", "sqrt", "pow");
+
+    private final String text;
+    private int pos;
+
+    private ExpressionParser(String text) {
+        this.text = text;
+    }
+
+    static ExpressionNode parse(String expression) {
+        ExpressionParser parser = new ExpressionParser(expression);
+        ExpressionNode node = parser.parseOr();
+        parser.skipWhitespace();
+        if (parser.pos < parser.text.length()) {
+            throw parser.error("无法识别的内容");
+        }
+        return node;
+    }
+
+    private ExpressionNode parseOr() {
+        ExpressionNode left = parseAnd();
+        while (matchSymbol("||") || matchKeyword("or")) {
+            left = new ExpressionNode.Logical(false, left, parseAnd());
+        }
+        return left;
+    }
+
+    private ExpressionNode parseAnd() {
+        ExpressionNode left = parseEquality();
+        while (matchSymbol("&&") || matchKeyword("and")) {
+            left = new ExpressionNode.Logical(true, left, parseEquality());
+        }
+        return left;
+    }
+
+    private ExpressionNode parseEquality() {
+        ExpressionNode left = parseComparison();
+        while (true) {
+            if (matchSymbol("==")) {
+                left = new ExpressionNode.Compare("==", left, parseComparison());
+            } else if (matchSymbol("!=")) {
+                left = new ExpressionNode.Compare("!=", left, parseComparison());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private ExpressionNode parseComparison() {
+        ExpressionNode left = parseAdditive();
+        while (true) {
+            String operator;
+            if (matchSymbol(">=")) {
+                operator = ">=";
+            } else if (matchSymbol("<=")) {
+                operator = "<=";
+            } else if (matchSymbol(">")) {
+                operator = ">";
+            } else if (matchSymbol("<")) {
+                operator = "<";
+            } else {
+                return left;
+            }
+            left = new ExpressionNode.Compare(operator, left, parseAdditive());
+        }
+    }
+
+    private ExpressionNode parseAdditive() {
+        ExpressionNode left = parseMultiplicative();
+        while (true) {
+            if (matchSymbol("+")) {
+                left = new ExpressionNode.Arithmetic('+', left, parseMultiplicative());
+            } else if (matchSymbol("-")) {
+                left = new ExpressionNode.Arithmetic('-', left, parseMultiplicative());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private ExpressionNode parseMultiplicative() {
+        ExpressionNode left = parseUnary();
+        while (true) {
+            if (matchSymbol("*")) {
+                left = new ExpressionNode.Arithmetic('*', left, parseUnary());
+            } else if (matchSymbol("/")) {
+                left = new ExpressionNode.Arithmetic('/', left, parseUnary());
+            } else if (matchSymbol("%")) {
+                left = new ExpressionNode.Arithmetic('%', left, parseUnary());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private ExpressionNode parseUnary() {
+        skipWhitespace();
+        if (peek() == '!' && peek(1) != '=') {
+            pos++;
+            return new ExpressionNode.Not(parseUnary());
+        }
+        if (matchKeyword("not")) {
+            return new ExpressionNode.Not(parseUnary());
+        }
+        if (matchSymbol("-")) {
+            ExpressionNode operand = parseUnary();
+            if (operand instanceof ExpressionNode.Literal && operand.isNumeric()) {
+                return new ExpressionNode.Literal(-operand.evaluateNumber(null));
+            }
+            return new ExpressionNode.Negate(operand);
+        }
+        return parsePrimary();
+    }
+
+    private ExpressionNode parsePrimary() {
+        skipWhitespace();
+        char c = peek();
+        if (c == '(') {
+            pos++;
+            ExpressionNode node = parseOr();
+            expect(')');
+            return node;
+        }
+        if (c == '\'' || c == '"') {
+            return new ExpressionNode.Literal(parseString());
+        }
+        if (Character.isDigit(c) || (c == '.' && Character.isDigit(peek(1)))) {
+            return new ExpressionNode.Literal(parseNumber());
+        }
+        if (isIdentifierStart(c)) {
+            String identifier = parseIdentifier();
+            switch (identifier) {
+                case "true": return new ExpressionNode.Literal(Boolean.TRUE);
+                case "false": return new ExpressionNode.Literal(Boolean.FALSE);
+                case "null": return new ExpressionNode.Literal(null);
+                default: break;
+            }
+            skipWhitespace();
+            if (peek() == '(' && FUNCTIONS.contains(identifier)) {
+                pos++;
+                return parseFunction(identifier);
+            }
+            return parseFieldPath(identifier);
+        }
+        throw error(c == 0 ? "表达式不完整" : "无法识别的字符 '" + c + "'");
+    }
+
+    private ExpressionNode parseFunction(String name) {
+        List<ExpressionNode> arguments = new ArrayList<>();
+        skipWhitespace();
+        if (peek() != ')') {
+            do {
+                arguments.add(parseOr());
+            } while (matchSymbol(","));
+        }
+        expect(')');
+        int expected = "pow".equals(name) ? 2 : ("min".equals(name) || "max".equals(name) ? -1 : 1);
+        if ((expected > 0 && arguments.size() != expected) || (expected < 0 && arguments.isEmpty())) {
+            throw error("函数 " + name + " 参数个数错误");
+        }
+        return new ExpressionNode.MathFunction(name, arguments.toArray(new ExpressionNode[0]));
+    }
+
+    private ExpressionNode parseFieldPath(String root) {
+        List<Object> segments = new ArrayList<>();
+        segments.add(root);
+        while (true) {
+            if (peek() == '.' && isIdentifierStart(peek(1))) {
+                pos++;
+                segments.add(parseIdentifier());
+            } else if (peek() == '[') {
+                pos++;
+                skipWhitespace();
+                char c = peek();
+                if (c == '\'' || c == '"') {
+                    segments.add(parseString());
+                } else {
+                    int start = pos;
+                    while (Character.isDigit(peek())) {
+                        pos++;
+                    }
+                    if (start == pos) {
+                        throw error("下标必须是整数或字符串");
+                    }
+                    segments.add(Integer.parseInt(text.substring(start, pos)));
+                }
+                expect(']');
+            } else {
+                return new ExpressionNode.FieldPath(segments.toArray());
+            }
+        }
+    }
+
+    private String parseString() {
+        char quote = text.charAt(pos++);
+        StringBuilder builder = new StringBuilder();
+        while (pos < text.length() && text.charAt(pos) != quote) {
+            char c = text.charAt(pos++);
+            if (c == '\\' && pos < text.length()) {
+                c = text.charAt(pos++);
+            }
+            builder.append(c);
+        }
+        if (pos >= text.length()) {
+            throw error("字符串未结束");
+        }
+        pos++;
+        return builder.toString();
+    }
+
+    private Number parseNumber() {
+        int start = pos;
+        while (Character.isDigit(peek()) || peek() == '.') {
+            pos++;
+        }
+        if (peek() == 'e' || peek() == 'E') {
+            pos++;
+            if (peek() == '+' || peek() == '-') {
+                pos++;
+            }
+            while (Character.isDigit(peek())) {
+                pos++;
+            }
+        }
+        String number = text.substring(start, pos);
+        try {
+            if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                long value = Long.parseLong(number);
+                return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? (Number) (int) value : (Number) value;
+            }
+            return Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            throw error("数字格式错误: " + number);
+        }
+    }
+
+    private String parseIdentifier() {
+        int start = pos;
+        while (pos < text.length() && (isIdentifierStart(text.charAt(pos)) || Character.isDigit(text.charAt(pos)))) {
+            pos++;
+        }
+        return text.substring(start, pos);
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return c == '_' || c == '$' || Character.isLetter(c);
+    }
+
+    private boolean matchSymbol(String symbol) {
+        skipWhitespace();
+        if (text.startsWith(symbol, pos)) {
+            pos += symbol.length();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean matchKeyword(String keyword) {
+        skipWhitespace();
+        int end = pos + keyword.length();
+        if (text.regionMatches(true, pos, keyword, 0, keyword.length())
+                && (end >= text.length() || !(isIdentifierStart(text.charAt(end)) || Character.isDigit(text.charAt(end))))) {
+            pos = end;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        skipWhitespace();
+        if (peek() != c) {
+            throw error("缺少 '" + c + "'");
+        }
+        pos++;
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private char peek() {
+        return peek(0);
+    }
+
+    private char peek(int offset) {
+        return pos + offset < text.length() ? text.charAt(pos + offset) : 0;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("表达式解析失败: " + message + "，位置 " + pos + "，表达式: " + text);
+    }
+}
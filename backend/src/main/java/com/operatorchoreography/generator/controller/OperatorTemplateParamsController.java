@@ -10,6 +10,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * <p>
@@ -63,6 +64,7 @@ public class OperatorTemplateParamsController {
         try {
             boolean success = operatorTemplateParamsService.save(param);
             if (success) {
+                operatorTemplateParamsService.invalidateCache(param.getTemplateId());
                 return Result.success(param, "参数创建成功");
             } else {
                 return Result.error("参数创建失败");
@@ -80,8 +82,11 @@ public class OperatorTemplateParamsController {
     public Result<OperatorTemplateParams> updateParam(@PathVariable Long id, @RequestBody OperatorTemplateParams param) {
         try {
             param.setId(id);
+            OperatorTemplateParams existing = operatorTemplateParamsService.getById(id);
             boolean success = operatorTemplateParamsService.updateById(param);
             if (success) {
+                invalidateCache(existing);
+                operatorTemplateParamsService.invalidateCache(param.getTemplateId());
                 return Result.success(param, "参数更新成功");
             } else {
                 return Result.error(404, "参数不存在或更新失败");
@@ -98,8 +103,10 @@ public class OperatorTemplateParamsController {
     @DeleteMapping("/{id}")
     public Result<Void> deleteParam(@PathVariable Long id) {
         try {
+            OperatorTemplateParams existing = operatorTemplateParamsService.getById(id);
             boolean success = operatorTemplateParamsService.removeById(id);
             if (success) {
+                invalidateCache(existing);
                 return Result.success(null, "参数删除成功");
             } else {
                 return Result.error(404, "参数不存在或删除失败");
@@ -125,6 +132,7 @@ public class OperatorTemplateParamsController {
             // 批量保存新参数
             if (!params.isEmpty()) {
                 boolean success = operatorTemplateParamsService.saveBatch(params);
+                operatorTemplateParamsService.invalidateCache(templateId);
                 if (success) {
                     return Result.success(params, "参数批量保存成功");
                 } else {
@@ -137,4 +145,22 @@ public class OperatorTemplateParamsController {
             return Result.error("批量保存参数时发生错误: " + e.getMessage());
         }
     }
+
+    /**
+     * 获取模板参数缓存统计
+     */
+    @Operation(summary = "获取模板参数缓存统计", description = "获取模板参数缓存的命中、未命中及淘汰次数")
+    @GetMapping("/cache/stats")
+    public Result<Map<String, Object>> getCacheStats() {
+        return Result.success(operatorTemplateParamsService.getCacheStats());
+    }
+
+    /**
+     * 失效参数所属模板的缓存
+     */
+    private void invalidateCache(OperatorTemplateParams param) {
+        if (param != null) {
+            operatorTemplateParamsService.invalidateCache(param.getTemplateId());
+        }
+    }
 }
@@ -6,6 +6,8 @@ import com.operatorchoreography.generator.service.OperatorTemplatesService;
 import com.operatorchoreography.generator.service.OperatorTemplateParamsService;
 import com.operatorchoreography.common.Result;
 import com.operatorchoreography.executor.ExecutorResult;
+import com.operatorchoreography.executor.OperatorResultCache;
+import com.operatorchoreography.engine.WorkflowPlanCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -38,6 +40,12 @@ public class OperatorTemplatesController {
     @Autowired
     private OperatorTemplateParamsService operatorTemplateParamsService;
 
+    @Autowired
+    private WorkflowPlanCache workflowPlanCache;
+
+    @Autowired
+    private OperatorResultCache operatorResultCache;
+
     /**
      * 获取所有算子模板
      */
@@ -120,6 +128,9 @@ public class OperatorTemplatesController {
             template.setId(id);
             boolean success = operatorTemplatesService.updateById(template);
             if (success) {
+                // 执行计划中预解析了算子模板，模板变更后全部重新编译
+                workflowPlanCache.invalidateAll();
+                operatorResultCache.invalidateTemplate(id);
                 return Result.success(template, "算子模板更新成功");
             } else {
                 return Result.error(404, "算子模板不存在或更新失败");
@@ -138,6 +149,8 @@ public class OperatorTemplatesController {
         try {
             boolean success = operatorTemplatesService.removeById(id);
             if (success) {
+                workflowPlanCache.invalidateAll();
+                operatorResultCache.invalidateTemplate(id);
                 return Result.success(null, "算子模板删除成功");
             } else {
                 return Result.error(404, "算子模板不存在或删除失败");
@@ -162,6 +175,7 @@ public class OperatorTemplatesController {
             template.setStatus(!template.getStatus());
             boolean success = operatorTemplatesService.updateById(template);
             if (success) {
+                workflowPlanCache.invalidateAll();
                 String message = template.getStatus() ? "算子模板已启用" : "算子模板已禁用";
                 return Result.success(template, message);
             } else {
@@ -172,6 +186,15 @@ public class OperatorTemplatesController {
         }
     }
 
+    /**
+     * 获取算子结果缓存统计
+     */
+    @Operation(summary = "获取算子结果缓存统计", description = "获取开启了结果缓存的算子模板的缓存命中率、容量及淘汰次数")
+    @GetMapping("/result-cache/stats")
+    public Result<Map<String, Object>> getResultCacheStats() {
+        return Result.success(operatorResultCache.getStats());
+    }
+
     /**
      * 测试算子模板执行
      */
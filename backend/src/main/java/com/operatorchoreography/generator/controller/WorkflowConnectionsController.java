@@ -3,6 +3,7 @@ package com.operatorchoreography.generator.controller;
 import com.operatorchoreography.generator.model.WorkflowConnections;
 import com.operatorchoreography.generator.service.WorkflowConnectionsService;
 import com.operatorchoreography.common.Result;
+import com.operatorchoreography.engine.WorkflowPlanCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -27,6 +28,9 @@ public class WorkflowConnectionsController {
     @Autowired
     private WorkflowConnectionsService workflowConnectionsService;
 
+    @Autowired
+    private WorkflowPlanCache workflowPlanCache;
+
     /**
      * 获取工作流的所有连接
      */
@@ -63,6 +67,7 @@ public class WorkflowConnectionsController {
         try {
             boolean success = workflowConnectionsService.save(connection);
             if (success) {
+                workflowPlanCache.invalidate(connection.getWorkflowId());
                 return Result.success(connection, "工作流连接创建成功");
             } else {
                 return Result.error("工作流连接创建失败");
@@ -81,6 +86,10 @@ public class WorkflowConnectionsController {
         try {
             boolean success = workflowConnectionsService.saveBatch(connections);
             if (success) {
+                connections.stream()
+                           .map(WorkflowConnections::getWorkflowId)
+                           .distinct()
+                           .forEach(workflowPlanCache::invalidate);
                 return Result.success(connections, "工作流连接批量创建成功");
             } else {
                 return Result.error("工作流连接批量创建失败");
@@ -98,8 +107,11 @@ public class WorkflowConnectionsController {
     public Result<WorkflowConnections> updateConnection(@PathVariable Long id, @RequestBody WorkflowConnections connection) {
         try {
             connection.setId(id);
+            WorkflowConnections existing = workflowConnectionsService.getById(id);
             boolean success = workflowConnectionsService.updateById(connection);
             if (success) {
+                invalidatePlan(existing);
+                workflowPlanCache.invalidate(connection.getWorkflowId());
                 return Result.success(connection, "工作流连接更新成功");
             } else {
                 return Result.error(404, "工作流连接不存在或更新失败");
@@ -116,8 +128,10 @@ public class WorkflowConnectionsController {
     @DeleteMapping("/{id}")
     public Result<Void> deleteConnection(@PathVariable Long id) {
         try {
+            WorkflowConnections existing = workflowConnectionsService.getById(id);
             boolean success = workflowConnectionsService.removeById(id);
             if (success) {
+                invalidatePlan(existing);
                 return Result.success(null, "工作流连接删除成功");
             } else {
                 return Result.error(404, "工作流连接不存在或删除失败");
@@ -136,6 +150,7 @@ public class WorkflowConnectionsController {
         try {
             boolean success = workflowConnectionsService.deleteByWorkflowId(workflowId);
             if (success) {
+                workflowPlanCache.invalidate(workflowId);
                 return Result.success(null, "工作流连接删除成功");
             } else {
                 return Result.error("工作流连接删除失败");
@@ -144,4 +159,13 @@ public class WorkflowConnectionsController {
             return Result.error("删除工作流连接时发生错误: " + e.getMessage());
         }
     }
+
+    /**
+     * 失效连接所属工作流的执行计划缓存
+     */
+    private void invalidatePlan(WorkflowConnections connection) {
+        if (connection != null) {
+            workflowPlanCache.invalidate(connection.getWorkflowId());
+        }
+    }
 }
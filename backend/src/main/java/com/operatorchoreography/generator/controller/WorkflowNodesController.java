@@ -3,6 +3,7 @@ package com.operatorchoreography.generator.controller;
 import com.operatorchoreography.generator.model.WorkflowNodes;
 import com.operatorchoreography.generator.service.WorkflowNodesService;
 import com.operatorchoreography.common.Result;
+import com.operatorchoreography.engine.WorkflowPlanCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -28,6 +29,9 @@ public class WorkflowNodesController {
     @Autowired
     private WorkflowNodesService workflowNodesService;
 
+    @Autowired
+    private WorkflowPlanCache workflowPlanCache;
+
     /**
      * 获取工作流的所有节点
      */
@@ -64,6 +68,7 @@ public class WorkflowNodesController {
         try {
             boolean success = workflowNodesService.save(node);
             if (success) {
+                workflowPlanCache.invalidate(node.getWorkflowId());
                 return Result.success(node, "工作流节点创建成功");
             } else {
                 return Result.error("工作流节点创建失败");
@@ -81,8 +86,11 @@ public class WorkflowNodesController {
     public Result<WorkflowNodes> updateNode(@PathVariable Long id, @RequestBody WorkflowNodes node) {
         try {
             node.setId(id);
+            WorkflowNodes existing = workflowNodesService.getById(id);
             boolean success = workflowNodesService.updateById(node);
             if (success) {
+                invalidatePlan(existing);
+                workflowPlanCache.invalidate(node.getWorkflowId());
                 return Result.success(node, "工作流节点更新成功");
             } else {
                 return Result.error(404, "工作流节点不存在或更新失败");
@@ -99,8 +107,10 @@ public class WorkflowNodesController {
     @DeleteMapping("/{id}")
     public Result<Void> deleteNode(@PathVariable Long id) {
         try {
+            WorkflowNodes existing = workflowNodesService.getById(id);
             boolean success = workflowNodesService.removeById(id);
             if (success) {
+                invalidatePlan(existing);
                 return Result.success(null, "工作流节点删除成功");
             } else {
                 return Result.error(404, "工作流节点不存在或删除失败");
@@ -171,4 +181,13 @@ public class WorkflowNodesController {
             return Result.error("更新节点参数时发生错误: " + e.getMessage());
         }
     }
+
+    /**
+     * 失效节点所属工作流的执行计划缓存
+     */
+    private void invalidatePlan(WorkflowNodes node) {
+        if (node != null) {
+            workflowPlanCache.invalidate(node.getWorkflowId());
+        }
+    }
 }
@@ -4,6 +4,7 @@ import com.operatorchoreography.generator.model.Workflows;
 import com.operatorchoreography.generator.service.WorkflowsService;
 import com.operatorchoreography.generator.dto.WorkflowSaveRequest;
 import com.operatorchoreography.common.Result;
+import com.operatorchoreography.engine.WorkflowPlanCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -29,6 +30,9 @@ public class WorkflowsController {
     @Autowired
     private WorkflowsService workflowsService;
 
+    @Autowired
+    private WorkflowPlanCache workflowPlanCache;
+
     /**
      * 获取所有工作流
      */
@@ -77,6 +81,7 @@ public class WorkflowsController {
             workflow.setId(id);
             boolean success = workflowsService.updateById(workflow);
             if (success) {
+                workflowPlanCache.invalidate(id);
                 return Result.success(workflow, "工作流更新成功");
             } else {
                 return Result.error(404, "工作流不存在或更新失败");
@@ -94,6 +99,7 @@ public class WorkflowsController {
         try {
             boolean success = workflowsService.removeById(id);
             if (success) {
+                workflowPlanCache.invalidate(id);
                 return Result.success(null, "工作流删除成功");
             } else {
                 return Result.error(404, "工作流不存在或删除失败");
@@ -104,13 +110,13 @@ public class WorkflowsController {
     }
 
     /**
-     * 执行工作流
+     * 执行工作流（异步提交，通过执行ID查询结果）
      */
     @PostMapping("/{id}/execute")
     public Result<Map<String, Object>> executeWorkflow(@PathVariable Long id, @RequestBody Map<String, Object> inputData) {
         try {
             Map<String, Object> result = workflowsService.executeWorkflow(id, inputData);
-            return Result.success(result, "工作流执行成功");
+            return Result.success(result, "工作流已提交执行");
         } catch (Exception e) {
             return Result.error("执行工作流时发生错误: " + e.getMessage());
         }
@@ -146,10 +152,37 @@ public class WorkflowsController {
         }
     }
 
+    /**
+     * 获取工作流执行结果
+     */
+    @GetMapping("/{id}/executions/{executionId}")
+    public Result<Map<String, Object>> getExecutionResult(@PathVariable Long id, @PathVariable String executionId) {
+        try {
+            Map<String, Object> result = workflowsService.getExecutionResult(id, executionId);
+            return Result.success(result);
+        } catch (Exception e) {
+            return Result.error("获取工作流执行结果时发生错误: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 从失败节点恢复执行（异步提交，通过执行ID查询结果）
+     */
+    @Operation(summary = "恢复执行", description = "从失败节点恢复失败的执行，已成功的节点使用检查点中的输出，不再重新执行")
+    @PostMapping("/{id}/executions/{executionId}/resume")
+    public Result<Map<String, Object>> resumeExecution(@PathVariable Long id, @PathVariable String executionId) {
+        try {
+            Map<String, Object> result = workflowsService.resumeExecution(id, executionId);
+            return Result.success(result, "工作流已提交恢复执行");
+        } catch (Exception e) {
+            return Result.error("恢复工作流执行时发生错误: " + e.getMessage());
+        }
+    }
+
     /**
      * 测试工作流
      */
-    @Operation(summary = "测试工作流", description = "使用指定输入数据测试工作流，通过队列方式顺序执行")
+    @Operation(summary = "测试工作流", description = "使用指定输入数据测试工作流，按DAG依赖调度，独立分支并发执行")
     @PostMapping("/{id}/test")
     public Result<Map<String, Object>> testWorkflow(@PathVariable Long id, @RequestBody Map<String, Object> inputData) {
         try {
@@ -66,5 +66,9 @@ public class WorkflowSaveRequest {
         private Integer sourceCanvasNodeId;  // 前端画布节点ID
         private Integer targetCanvasNodeId;  // 前端画布节点ID
         private String connectionType;
+        private String sourcePort;
+        private String targetPort;
+        private String conditionExpression;  // 连线条件表达式，不满足时下游分支跳过
+        private String dataMapping;          // 数据映射JSON：{"目标字段": "表达式"}
     }
 } 
\ No newline at end of file
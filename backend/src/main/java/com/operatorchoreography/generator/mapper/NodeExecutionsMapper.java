@@ -2,7 +2,13 @@ package com.operatorchoreography.generator.mapper;
 
 import com.operatorchoreography.generator.model.NodeExecutions;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
 
 /**
  * <p>
@@ -15,4 +21,45 @@ import org.apache.ibatis.annotations.Mapper;
 @Mapper
 public interface NodeExecutionsMapper extends BaseMapper<NodeExecutions> {
 
+    /**
+     * 多行插入节点执行记录
+     * @param records 节点执行记录
+     * @return 插入条数
+     */
+    @Insert("<script>INSERT INTO node_executions (execution_id, node_id, execution_order, status, start_time, end_time, "
+            + "duration_ms, input_data, output_data, error_message, error_stack, retry_count, resume_count, attempt_count) VALUES "
+            + "<foreach collection='records' item='r' separator=','>"
+            + "(#{r.executionId}, #{r.nodeId}, #{r.executionOrder}, #{r.status}, #{r.startTime}, #{r.endTime}, "
+            + "#{r.durationMs}, #{r.inputData}, #{r.outputData}, #{r.errorMessage}, #{r.errorStack}, #{r.retryCount}, "
+            + "#{r.resumeCount}, #{r.attemptCount})"
+            + "</foreach></script>")
+    int insertBatch(@Param("records") List<NodeExecutions> records);
+
+    /**
+     * 插入认领执行的节点记录：只有工作流执行仍由记录中的工作节点、在同一次恢复和认领中持有时才会写入
+     * @param record 节点执行记录（workerId不为空）
+     * @return 插入条数，0表示租约已失效
+     */
+    @Insert("INSERT INTO node_executions (execution_id, node_id, execution_order, status, start_time, end_time, "
+            + "duration_ms, input_data, output_data, error_message, error_stack, retry_count, resume_count, attempt_count) "
+            + "SELECT #{r.executionId}, #{r.nodeId}, #{r.executionOrder}, #{r.status}, #{r.startTime}, #{r.endTime}, "
+            + "#{r.durationMs}, #{r.inputData}, #{r.outputData}, #{r.errorMessage}, #{r.errorStack}, #{r.retryCount}, "
+            + "#{r.resumeCount}, #{r.attemptCount} FROM workflow_executions "
+            + "WHERE execution_id = #{r.executionId} AND worker_id = #{r.workerId} "
+            + "AND COALESCE(resume_count, 0) = #{r.resumeCount} AND COALESCE(attempt_count, 0) = #{r.attemptCount}")
+    @Options(useGeneratedKeys = true, keyProperty = "r.id", keyColumn = "id")
+    int insertFenced(@Param("r") NodeExecutions record);
+
+    /**
+     * 更新认领执行的节点记录（异步节点完成），条件同 {@link #insertFenced}
+     * @param record 节点执行记录（id、workerId不为空）
+     * @return 更新条数，0表示租约已失效或记录已被新一次执行清理
+     */
+    @Update("UPDATE node_executions SET status = #{r.status}, start_time = #{r.startTime}, end_time = #{r.endTime}, "
+            + "duration_ms = #{r.durationMs}, output_data = #{r.outputData}, error_message = #{r.errorMessage}, "
+            + "retry_count = #{r.retryCount} "
+            + "WHERE id = #{r.id} AND EXISTS (SELECT 1 FROM workflow_executions w "
+            + "WHERE w.execution_id = #{r.executionId} AND w.worker_id = #{r.workerId} "
+            + "AND COALESCE(w.resume_count, 0) = #{r.resumeCount} AND COALESCE(w.attempt_count, 0) = #{r.attemptCount})")
+    int updateFenced(@Param("r") NodeExecutions record);
 }
@@ -3,6 +3,11 @@ package com.operatorchoreography.generator.mapper;
 import com.operatorchoreography.generator.model.WorkflowExecutions;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
 
 /**
  * <p>
@@ -15,4 +20,90 @@ import org.apache.ibatis.annotations.Mapper;
 @Mapper
 public interface WorkflowExecutionsMapper extends BaseMapper<WorkflowExecutions> {
 
+    /**
+     * 锁定待执行的记录（需在事务中调用），已被其他实例锁定的行直接跳过
+     * @param limit 最多锁定条数
+     * @return 待执行记录
+     */
+    @Select("SELECT id, workflow_id, execution_id, trigger_type, trigger_by, input_data, attempt_count, resume_count "
+            + "FROM workflow_executions WHERE status = 'WAITING' ORDER BY id LIMIT #{limit} FOR UPDATE SKIP LOCKED")
+    List<WorkflowExecutions> selectWaitingForUpdate(@Param("limit") int limit);
+
+    /**
+     * 认领已锁定的记录：置为RUNNING并写入租约
+     * @param ids 记录ID
+     * @param workerId 工作节点ID
+     * @param leaseSeconds 租约时长（秒）
+     * @return 更新条数
+     */
+    @Update("<script>UPDATE workflow_executions SET status = 'RUNNING', worker_id = #{workerId}, "
+            + "start_time = NOW(), heartbeat_time = NOW(), "
+            + "lease_expire_time = TIMESTAMPADD(SECOND, #{leaseSeconds}, NOW()), "
+            + "attempt_count = COALESCE(attempt_count, 0) + 1 "
+            + "WHERE status = 'WAITING' AND id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int markClaimed(@Param("ids") List<Long> ids, @Param("workerId") String workerId,
+                    @Param("leaseSeconds") int leaseSeconds);
+
+    /**
+     * 续租：只续仍由该工作节点持有的RUNNING记录
+     * @return 续租成功条数
+     */
+    @Update("<script>UPDATE workflow_executions SET heartbeat_time = NOW(), "
+            + "lease_expire_time = TIMESTAMPADD(SECOND, #{leaseSeconds}, NOW()) "
+            + "WHERE status = 'RUNNING' AND worker_id = #{workerId} AND id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int renewLeases(@Param("ids") List<Long> ids, @Param("workerId") String workerId,
+                    @Param("leaseSeconds") int leaseSeconds);
+
+    /**
+     * 释放租约，记录回到WAITING等待重新认领
+     * @return 释放条数
+     */
+    @Update("<script>UPDATE workflow_executions SET status = 'WAITING', worker_id = NULL, lease_expire_time = NULL "
+            + "WHERE status = 'RUNNING' AND worker_id = #{workerId} AND id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int releaseLeases(@Param("ids") List<Long> ids, @Param("workerId") String workerId);
+
+    /**
+     * 租约过期且未超过最大认领次数的记录回到WAITING
+     * @return 回收条数
+     */
+    @Update("UPDATE workflow_executions SET status = 'WAITING', worker_id = NULL, lease_expire_time = NULL "
+            + "WHERE status = 'RUNNING' AND lease_expire_time < NOW() AND COALESCE(attempt_count, 0) < #{maxAttempts}")
+    int requeueExpired(@Param("maxAttempts") int maxAttempts);
+
+    /**
+     * 租约过期且已达到最大认领次数的记录置为FAILED，同时清空 worker_id，原工作节点不能再写入节点记录
+     * @return 更新条数
+     */
+    @Update("UPDATE workflow_executions SET status = 'FAILED', worker_id = NULL, lease_expire_time = NULL, end_time = NOW(), "
+            + "error_message = #{errorMessage} "
+            + "WHERE status = 'RUNNING' AND lease_expire_time < NOW() AND COALESCE(attempt_count, 0) >= #{maxAttempts}")
+    int failExpired(@Param("maxAttempts") int maxAttempts, @Param("errorMessage") String errorMessage);
+
+    /**
+     * 将失败的执行重新置为待执行（从失败节点恢复），同时清空上一次的结果和租约
+     * @param id 执行记录ID
+     * @return 更新条数，0表示记录不是FAILED状态
+     */
+    @Update("UPDATE workflow_executions SET status = 'WAITING', end_time = NULL, duration_ms = NULL, "
+            + "output_data = NULL, error_message = NULL, error_stack = NULL, worker_id = NULL, "
+            + "lease_expire_time = NULL, heartbeat_time = NULL, attempt_count = 0, "
+            + "resume_count = COALESCE(resume_count, 0) + 1 "
+            + "WHERE id = #{id} AND status = 'FAILED'")
+    int reopenFailed(@Param("id") Long id);
+
+    /**
+     * 写入执行最终状态；认领执行的记录（workerId不为空）只有仍由该工作节点在同一次恢复和认领中持有时才会更新
+     * @param execution 执行记录
+     * @return 更新条数，0表示租约已失效
+     */
+    @Update("<script>UPDATE workflow_executions SET status = #{e.status}, start_time = #{e.startTime}, "
+            + "end_time = #{e.endTime}, duration_ms = #{e.durationMs}, output_data = #{e.outputData}, "
+            + "error_message = #{e.errorMessage}, error_stack = #{e.errorStack}, lease_expire_time = NULL "
+            + "WHERE id = #{e.id}"
+            + "<if test='e.workerId != null'> AND worker_id = #{e.workerId} AND status = 'RUNNING' "
+            + "AND COALESCE(attempt_count, 0) = #{e.attemptCount} AND COALESCE(resume_count, 0) = #{e.resumeCount}</if></script>")
+    int completeExecution(@Param("e") WorkflowExecutions execution);
 }
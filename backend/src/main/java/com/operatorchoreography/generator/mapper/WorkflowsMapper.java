@@ -3,6 +3,9 @@ package com.operatorchoreography.generator.mapper;
 import com.operatorchoreography.generator.model.Workflows;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
 /**
  * <p>
@@ -15,4 +18,15 @@ import org.apache.ibatis.annotations.Mapper;
 @Mapper
 public interface WorkflowsMapper extends BaseMapper<Workflows> {
 
+    /**
+     * 递增执行计划修订号，各实例据此判断缓存的执行计划是否过期
+     */
+    @Update("UPDATE workflows SET plan_revision = plan_revision + 1 WHERE id = #{id}")
+    int bumpPlanRevision(@Param("id") Long id);
+
+    /**
+     * 查询执行计划修订号
+     */
+    @Select("SELECT plan_revision FROM workflows WHERE id = #{id} AND if_delete = 0")
+    Long selectPlanRevision(@Param("id") Long id);
 }
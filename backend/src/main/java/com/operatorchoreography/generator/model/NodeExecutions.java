@@ -79,6 +79,18 @@ public class NodeExecutions implements Serializable {
     @TableField("retry_count")
     private Integer retryCount;
 
+    @Schema(description = "写入时工作流执行的恢复次数")
+    @TableField("resume_count")
+    private Integer resumeCount;
+
+    @Schema(description = "写入时工作流执行的认领次数")
+    @TableField("attempt_count")
+    private Integer attemptCount;
+
+    @Schema(description = "写入时持有执行租约的工作节点ID（不持久化，用于条件写入）")
+    @TableField(exist = false)
+    private String workerId;
+
     @Schema(description = "创建时间")
     @TableField(value = "created_at", fill = FieldFill.INSERT)
     private LocalDateTime createdAt;
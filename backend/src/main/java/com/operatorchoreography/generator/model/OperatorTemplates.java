@@ -75,6 +75,10 @@ public class OperatorTemplates implements Serializable {
     @TableField("is_async")
     private Boolean isAsync;
 
+    @Schema(description = "是否缓存执行结果（仅适用于纯函数算子）")
+    @TableField("is_memoized")
+    private Boolean isMemoized;
+
     @Schema(description = "超时时间(秒)")
     @TableField("timeout_seconds")
     private Integer timeoutSeconds;
@@ -79,6 +79,26 @@ public class WorkflowExecutions implements Serializable {
     @TableField("error_stack")
     private String errorStack;
 
+    @Schema(description = "认领执行的工作节点ID")
+    @TableField("worker_id")
+    private String workerId;
+
+    @Schema(description = "租约到期时间")
+    @TableField("lease_expire_time")
+    private LocalDateTime leaseExpireTime;
+
+    @Schema(description = "最近心跳时间")
+    @TableField("heartbeat_time")
+    private LocalDateTime heartbeatTime;
+
+    @Schema(description = "已认领执行次数")
+    @TableField("attempt_count")
+    private Integer attemptCount;
+
+    @Schema(description = "从失败节点恢复执行的次数")
+    @TableField("resume_count")
+    private Integer resumeCount;
+
     @Schema(description = "创建时间")
     @TableField(value = "created_at", fill = FieldFill.INSERT)
     private LocalDateTime createdAt;
@@ -1,6 +1,7 @@
 package com.operatorchoreography.generator.model;
 
 import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.FieldStrategy;
 import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
@@ -47,6 +48,10 @@ public class Workflows implements Serializable {
     @TableField("version")
     private String version;
 
+    @Schema(description = "执行计划修订号，工作流、节点或连线变更时递增")
+    @TableField(value = "plan_revision", insertStrategy = FieldStrategy.NEVER, updateStrategy = FieldStrategy.NEVER)
+    private Long planRevision;
+
     @Schema(description = "状态: DRAFT,PUBLISHED,ARCHIVED")
     @TableField("status")
     private String status;
@@ -4,6 +4,7 @@ import com.operatorchoreography.generator.model.OperatorTemplateParams;
 import com.baomidou.mybatisplus.extension.service.IService;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * <p>
@@ -16,12 +17,19 @@ import java.util.List;
 public interface OperatorTemplateParamsService extends IService<OperatorTemplateParams> {
 
     /**
-     * 根据模板ID获取参数列表
+     * 根据模板ID获取参数列表（带缓存，返回的列表不可修改）
      * @param templateId 模板ID
      * @return 参数列表
      */
     List<OperatorTemplateParams> getParametersByTemplateId(Long templateId);
 
+    /**
+     * 获取模板的JOLT映射规则（config类参数mapping_rules的默认值）
+     * @param templateId 模板ID
+     * @return 映射规则，未配置时返回null
+     */
+    String getMappingRules(Long templateId);
+
     /**
      * 根据模板ID删除参数
      * @param templateId 模板ID
@@ -29,4 +37,16 @@ public interface OperatorTemplateParamsService extends IService<OperatorTemplate
      */
     boolean removeByTemplateId(Long templateId);
 
+    /**
+     * 失效模板参数缓存
+     * @param templateId 模板ID
+     */
+    void invalidateCache(Long templateId);
+
+    /**
+     * 获取模板参数缓存统计（命中/未命中等）
+     * @return 缓存统计
+     */
+    Map<String, Object> getCacheStats();
+
 }
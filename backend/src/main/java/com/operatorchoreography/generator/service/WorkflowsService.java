@@ -18,7 +18,7 @@ import java.util.Map;
 public interface WorkflowsService extends IService<Workflows> {
 
     /**
-     * 执行工作流
+     * 执行工作流（异步提交，返回执行ID）
      */
     Map<String, Object> executeWorkflow(Long workflowId, Map<String, Object> inputData);
 
@@ -32,6 +32,16 @@ public interface WorkflowsService extends IService<Workflows> {
      */
     List<Map<String, Object>> getExecutionHistory(Long workflowId);
 
+    /**
+     * 获取工作流执行结果（包含节点执行记录）
+     */
+    Map<String, Object> getExecutionResult(Long workflowId, String executionId);
+
+    /**
+     * 从失败节点恢复执行，已成功的节点使用检查点中的输出
+     */
+    Map<String, Object> resumeExecution(Long workflowId, String executionId);
+
     /**
      * 测试工作流
      */
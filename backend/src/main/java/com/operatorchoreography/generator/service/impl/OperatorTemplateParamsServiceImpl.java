@@ -1,13 +1,27 @@
 package com.operatorchoreography.generator.service.impl;
 
+import com.operatorchoreography.executor.OperatorResultCache;
 import com.operatorchoreography.generator.model.OperatorTemplateParams;
 import com.operatorchoreography.generator.mapper.OperatorTemplateParamsMapper;
 import com.operatorchoreography.generator.service.OperatorTemplateParamsService;
+import com.operatorchoreography.service.ExecutionMetrics;
+import com.operatorchoreography.service.JoltChainrCache;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * <p>
@@ -17,21 +31,95 @@ import java.util.List;
  * @author MyBatis-Plus Generator
  * @since 2025-06-30
  */
+@Slf4j
 @Service
 public class OperatorTemplateParamsServiceImpl extends ServiceImpl<OperatorTemplateParamsMapper, OperatorTemplateParams> implements OperatorTemplateParamsService {
 
+    @Autowired
+    private JoltChainrCache joltChainrCache;
+
+    @Autowired
+    private OperatorResultCache operatorResultCache;
+
+    @Autowired
+    private ExecutionMetrics executionMetrics;
+
+    @Value("${operator.params-cache.max-size:1000}")
+    private long cacheMaxSize;
+
+    @Value("${operator.params-cache.expire-seconds:300}")
+    private long cacheExpireSeconds;
+
+    /**
+     * 模板参数缓存，key: 模板ID
+     */
+    private Cache<Long, List<OperatorTemplateParams>> paramsCache;
+
+    @PostConstruct
+    public void initCache() {
+        paramsCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheExpireSeconds))
+                .recordStats()
+                .build();
+        executionMetrics.bindCache("templateParams", paramsCache);
+        log.info("模板参数缓存初始化完成: maxSize={}, expireSeconds={}", cacheMaxSize, cacheExpireSeconds);
+    }
+
     @Override
     public List<OperatorTemplateParams> getParametersByTemplateId(Long templateId) {
-        QueryWrapper<OperatorTemplateParams> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("template_id", templateId).eq("if_delete", false);
-        return this.list(queryWrapper);
+        if (templateId == null) {
+            return Collections.emptyList();
+        }
+        return paramsCache.get(templateId, id -> {
+            QueryWrapper<OperatorTemplateParams> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("template_id", id).eq("if_delete", false);
+            return Collections.unmodifiableList(this.list(queryWrapper));
+        });
+    }
+
+    @Override
+    public String getMappingRules(Long templateId) {
+        for (OperatorTemplateParams param : getParametersByTemplateId(templateId)) {
+            if ("mapping_rules".equals(param.getParamKey()) && "config".equals(param.getParamCategory())) {
+                return param.getDefaultValue();
+            }
+        }
+        return null;
     }
 
     @Override
     public boolean removeByTemplateId(Long templateId) {
         QueryWrapper<OperatorTemplateParams> queryWrapper = new QueryWrapper<>();
         queryWrapper.eq("template_id", templateId).eq("if_delete", false);
-        return this.remove(queryWrapper);
+        boolean removed = this.remove(queryWrapper);
+        invalidateCache(templateId);
+        return removed;
+    }
+
+    @Override
+    public void invalidateCache(Long templateId) {
+        if (templateId != null) {
+            paramsCache.invalidate(templateId);
+            // mapping_rules 属于模板参数，同时失效已编译的JOLT转换链
+            joltChainrCache.invalidate(templateId);
+            // 模板参数属于算子配置，按旧参数缓存的执行结果不再有效
+            operatorResultCache.invalidateTemplate(templateId);
+            log.debug("已失效模板参数缓存: templateId={}", templateId);
+        }
+    }
+
+    @Override
+    public Map<String, Object> getCacheStats() {
+        CacheStats stats = paramsCache.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("size", paramsCache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("loadFailureCount", stats.loadFailureCount());
+        return result;
     }
 
 }
@@ -86,7 +86,8 @@ public class OperatorTemplatesServiceImpl extends ServiceImpl<OperatorTemplatesM
                         templateId, executorClass, executorMethod);
                 
                 // 使用真实的执行器
-                ExecutorResult executorResult = executorManager.executeOperator(executorClass, executorMethod, inputData, templateId);
+                ExecutorResult executorResult = executorManager.executeOperator(executorClass, executorMethod, inputData, templateId,
+                        template.getTemplateCode());
                 
                 // 补充模板信息
                 executorResult.withTemplateInfo(templateId, template.getTemplateName());
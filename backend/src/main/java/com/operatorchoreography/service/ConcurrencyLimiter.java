@@ -0,0 +1,118 @@
+package com.operatorchoreography.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 按资源限流的并发控制器
+ * 每个资源（数据源、HTTP主机等）一个公平信号量，超出许可数的调用排队等待；
+ * 节点在虚拟线程上执行时并发数不再受线程池大小约束，由这里的许可数保护下游资源
+ */
+@Slf4j
+@Component
+public class ConcurrencyLimiter {
+
+    @Value("${operator.concurrency.acquire-timeout-seconds:60}")
+    private long acquireTimeoutSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, LimitedResource> resources = new ConcurrentHashMap<>();
+
+    /**
+     * 获取资源许可，超时未获取到时抛出异常
+     * @param resourceKey 资源键，如 datasource:host:port:db、http:host:port
+     * @param permits 资源许可数（首次访问该资源时生效）
+     * @return 许可，使用完毕后关闭以归还
+     */
+    public Permit acquire(String resourceKey, int permits) {
+        LimitedResource resource = resources.computeIfAbsent(resourceKey, key -> {
+            log.info("创建资源并发限制: resource={}, permits={}", key, permits);
+            LimitedResource created = new LimitedResource(permits);
+            created.meters = List.of(
+                    Gauge.builder("operator.concurrency.available", created.semaphore, Semaphore::availablePermits)
+                            .description("资源剩余许可数").tag("resource", key).register(meterRegistry),
+                    Gauge.builder("operator.concurrency.queued", created.semaphore, Semaphore::getQueueLength)
+                            .description("等待资源许可的调用数").tag("resource", key).register(meterRegistry));
+            return created;
+        });
+        try {
+            if (!resource.semaphore.tryAcquire(acquireTimeoutSeconds, TimeUnit.SECONDS)) {
+                throw new RuntimeException("等待资源许可超时: resource=" + resourceKey + ", permits=" + resource.permits);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待资源许可被中断: resource=" + resourceKey, e);
+        }
+        return new Permit(resource.semaphore);
+    }
+
+    /**
+     * 移除资源的并发限制（资源关闭时调用），已发放的许可归还到旧信号量不受影响
+     */
+    public void remove(String resourceKey) {
+        LimitedResource resource = resources.remove(resourceKey);
+        if (resource != null && resource.meters != null) {
+            resource.meters.forEach(meterRegistry::remove);
+        }
+    }
+
+    /**
+     * 获取各资源的许可使用情况
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        resources.forEach((key, resource) -> {
+            Map<String, Object> item = new HashMap<>();
+            item.put("permits", resource.permits);
+            item.put("available", resource.semaphore.availablePermits());
+            item.put("queued", resource.semaphore.getQueueLength());
+            stats.put(key, item);
+        });
+        return stats;
+    }
+
+    private static final class LimitedResource {
+        private final int permits;
+        private final Semaphore semaphore;
+        private List<Meter> meters;
+
+        LimitedResource(int permits) {
+            this.permits = permits;
+            this.semaphore = new Semaphore(permits, true);
+        }
+    }
+
+    /**
+     * 资源许可，重复关闭只归还一次
+     */
+    public static final class Permit implements AutoCloseable {
+        private final Semaphore semaphore;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release();
+            }
+        }
+    }
+}
@@ -5,13 +5,17 @@ import com.operatorchoreography.generator.model.OperatorTemplateParams;
 import com.operatorchoreography.generator.service.OperatorTemplateParamsService;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import javax.sql.DataSource;
 import jakarta.annotation.PreDestroy;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -22,7 +26,9 @@ import java.util.regex.Pattern;
  * 动态数据源管理服务
  * 支持根据算子模板ID动态创建和管理数据库连接
  * 使用URL中的IP+端口+数据库名作为缓存键，实现DataSource复用
- * JdbcTemplate实时创建，不进行缓存
+ * 每个数据源解析一次，解析后的配置、缓存键和可复用的JdbcTemplate保存在数据源句柄中，
+ * 之后按原始配置字符串直接命中句柄，不再重复解析JSON和URL
+ * 句柄中的JdbcTemplate获取连接前先获取数据源许可，虚拟线程下大量并发调用在许可上排队
  */
 @Slf4j
 @Service
@@ -31,10 +37,35 @@ public class DynamicDataSourceService {
     @Autowired
     private OperatorTemplateParamsService operatorTemplateParamsService;
 
+    @Autowired
+    private ConcurrencyLimiter concurrencyLimiter;
+
+    @Autowired
+    private ExecutionMetrics executionMetrics;
+
+    /**
+     * 每个数据源的并发许可数，0表示与连接池大小（maxPoolSize）一致
+     */
+    @Value("${operator.concurrency.datasource-permits:0}")
+    private int datasourcePermits;
+
+    /**
+     * 每个数据源同时打开的流式查询游标数，单独计算许可并在连接池中额外预留连接，
+     * 游标读取期间下游算子访问同一数据源不会与游标争用许可
+     */
+    @Value("${operator.concurrency.stream-permits:1}")
+    private int streamPermits;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
     
-    // 数据源缓存，键格式：host:port:database
-    private final Map<String, DataSource> dataSourceCache = new ConcurrentHashMap<>();
+    // 数据源句柄缓存，键格式：host:port:database
+    private final Map<String, DataSourceHandle> dataSourceCache = new ConcurrentHashMap<>();
+    
+    // 原始datasource配置字符串 -> 数据源句柄，跳过JSON解析和URL匹配
+    private final Map<String, DataSourceHandle> configIndex = new ConcurrentHashMap<>();
+    
+    // 原始配置索引的最大条目数，超出时清空索引（数据源本身不受影响）
+    private static final int MAX_CONFIG_INDEX_SIZE = 1000;
     
     // URL解析正则表达式
     private static final Pattern URL_PATTERN = Pattern.compile(
@@ -55,57 +86,104 @@ public class DynamicDataSourceService {
     );
 
     /**
-     * 根据模板ID获取JdbcTemplate（实时创建）
-     * @param templateId 模板ID
+     * 根据模板参数获取JdbcTemplate（复用数据源句柄中的实例）
+     * @param params 模板参数
      * @return JdbcTemplate实例
      * @throws Exception 获取失败异常
      */
     public JdbcTemplate getJdbcTemplate(List<OperatorTemplateParams> params) throws Exception {
+        return getDataSourceHandle(params).getJdbcTemplate();
+    }
+
+    /**
+     * 根据自定义数据源配置获取JdbcTemplate（复用数据源句柄中的实例）
+     * @param datasourceConfig 数据源配置
+     * @param identifier 标识符（已弃用，使用URL生成缓存键）
+     * @return JdbcTemplate实例
+     * @throws Exception 创建失败异常
+     */
+    public JdbcTemplate getJdbcTemplate(Map<String, Object> datasourceConfig, String identifier) throws Exception {
+        log.debug("获取自定义JdbcTemplate: identifier={}", identifier);
         
+        // 生成基于URL的缓存键
+        String cacheKey = generateCacheKey(datasourceConfig);
         
+        return getOrCreateHandle(datasourceConfig, cacheKey).getJdbcTemplate();
+    }
+
+    /**
+     * 根据模板参数获取流式查询使用的JdbcTemplate（使用独立的游标许可）
+     * @param params 模板参数
+     * @return JdbcTemplate实例
+     * @throws Exception 获取失败异常
+     */
+    public JdbcTemplate getStreamingJdbcTemplate(List<OperatorTemplateParams> params) throws Exception {
+        return getDataSourceHandle(params).getStreamingJdbcTemplate();
+    }
+
+    /**
+     * 根据自定义数据源配置获取流式查询使用的JdbcTemplate（使用独立的游标许可）
+     * @param datasourceConfig 数据源配置
+     * @return JdbcTemplate实例
+     * @throws Exception 创建失败异常
+     */
+    public JdbcTemplate getStreamingJdbcTemplate(Map<String, Object> datasourceConfig) throws Exception {
+        return getOrCreateHandle(datasourceConfig, generateCacheKey(datasourceConfig)).getStreamingJdbcTemplate();
+    }
+
+    /**
+     * 根据模板ID获取数据源句柄（模板参数走参数缓存）
+     * @param templateId 模板ID
+     * @return 数据源句柄
+     * @throws Exception 获取失败异常
+     */
+    public DataSourceHandle getDataSourceHandle(Long templateId) throws Exception {
+        return getDataSourceHandle(operatorTemplateParamsService.getParametersByTemplateId(templateId));
+    }
+
+    /**
+     * 根据模板参数获取数据源句柄
+     * @param params 模板参数
+     * @return 数据源句柄
+     * @throws Exception 获取失败异常
+     */
+    public DataSourceHandle getDataSourceHandle(List<OperatorTemplateParams> params) throws Exception {
         // 查找datasource参数
         OperatorTemplateParams datasourceParam = params.stream()
                 .filter(p -> "datasource".equals(p.getParamKey()))
                 .findFirst()
                 .orElseThrow(() -> new RuntimeException("未找到datasource参数配置"));
         
-        // 解析datasource配置
-        Map<String, Object> datasourceConfig = parseDataSourceConfig(datasourceParam.getDefaultValue());
-        
-        // 生成基于URL的缓存键
-        String cacheKey = generateCacheKey(datasourceConfig);
-        
-        // 获取或创建数据源
-        DataSource dataSource = getOrCreateDataSource(datasourceConfig, cacheKey);
-        
-        // 实时创建JdbcTemplate
-        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
-        
-        log.info("成功创建JdbcTemplate: cacheKey={}", cacheKey);
-        return jdbcTemplate;
+        return getDataSourceHandle(datasourceParam.getDefaultValue());
     }
 
     /**
-     * 根据自定义数据源配置获取JdbcTemplate（实时创建）
-     * @param datasourceConfig 数据源配置
-     * @param identifier 标识符（已弃用，使用URL生成缓存键）
-     * @return JdbcTemplate实例
-     * @throws Exception 创建失败异常
+     * 根据原始datasource配置字符串获取数据源句柄
+     * @param datasourceConfigStr datasource配置JSON
+     * @return 数据源句柄
+     * @throws Exception 获取失败异常
      */
-    public JdbcTemplate getJdbcTemplate(Map<String, Object> datasourceConfig, String identifier) throws Exception {
-        log.info("获取自定义JdbcTemplate: identifier={}", identifier);
+    public DataSourceHandle getDataSourceHandle(String datasourceConfigStr) throws Exception {
+        if (datasourceConfigStr != null) {
+            DataSourceHandle handle = configIndex.get(datasourceConfigStr);
+            // 句柄被清理后索引可能残留，需确认句柄仍在缓存中
+            if (handle != null && dataSourceCache.get(handle.getCacheKey()) == handle) {
+                return handle;
+            }
+        }
+        
+        // 解析datasource配置
+        Map<String, Object> datasourceConfig = parseDataSourceConfig(datasourceConfigStr);
         
         // 生成基于URL的缓存键
         String cacheKey = generateCacheKey(datasourceConfig);
         
-        // 获取或创建数据源
-        DataSource dataSource = getOrCreateDataSource(datasourceConfig, cacheKey);
-        
-        // 实时创建JdbcTemplate
-        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
-        
-        log.info("成功创建自定义JdbcTemplate: identifier={}, cacheKey={}", identifier, cacheKey);
-        return jdbcTemplate;
+        DataSourceHandle handle = getOrCreateHandle(datasourceConfig, cacheKey);
+        if (configIndex.size() >= MAX_CONFIG_INDEX_SIZE) {
+            configIndex.clear();
+        }
+        configIndex.put(datasourceConfigStr, handle);
+        return handle;
     }
 
     /**
@@ -181,23 +259,32 @@ public class DynamicDataSourceService {
     }
 
     /**
-     * 获取或创建数据源（支持缓存）
+     * 获取或创建数据源句柄（同一缓存键并发首次访问时只创建一个连接池）
      */
-    private DataSource getOrCreateDataSource(Map<String, Object> config, String cacheKey) throws Exception {
-        // 先从缓存获取
-        DataSource cachedDataSource = dataSourceCache.get(cacheKey);
-        if (cachedDataSource != null) {
-            log.debug("从缓存获取数据源: cacheKey={}", cacheKey);
-            return cachedDataSource;
+    private DataSourceHandle getOrCreateHandle(Map<String, Object> config, String cacheKey) throws Exception {
+        DataSourceHandle cachedHandle = dataSourceCache.get(cacheKey);
+        if (cachedHandle != null) {
+            return cachedHandle;
         }
         
-        // 创建新的数据源
-        DataSource dataSource = createDataSource(config, cacheKey);
-        
-        // 缓存数据源
-        dataSourceCache.put(cacheKey, dataSource);
-        
-        return dataSource;
+        try {
+            return dataSourceCache.computeIfAbsent(cacheKey, key -> {
+                try {
+                    DataSource dataSource = createDataSource(config, key);
+                    int permits = datasourcePermits > 0 ? datasourcePermits : getIntValue(config, "maxPoolSize", 10);
+                    return new DataSourceHandle(key, config, dataSource,
+                            new LimitedDataSource(dataSource, concurrencyLimiter, permitKey(key), permits),
+                            new LimitedDataSource(dataSource, concurrencyLimiter, streamPermitKey(key), streamPermits));
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new RuntimeException(e.getMessage(), e);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("创建数据源失败: cacheKey={}, 错误: {}", cacheKey, e.getMessage());
+            throw e;
+        }
     }
 
     /**
@@ -232,14 +319,19 @@ public class DynamicDataSourceService {
         hikariConfig.setUsername(username);
         hikariConfig.setPassword(password);
         
-        // 连接池配置
-        hikariConfig.setMaximumPoolSize(getIntValue(config, "maxPoolSize", 10));
+        // 连接池配置，流式查询游标的连接在 maxPoolSize 之外预留
+        hikariConfig.setMaximumPoolSize(getIntValue(config, "maxPoolSize", 10) + streamPermits);
         hikariConfig.setMinimumIdle(getIntValue(config, "minPoolSize", 1));
         hikariConfig.setConnectionTimeout(getIntValue(config, "connectionTimeout", 30000));
         hikariConfig.setIdleTimeout(getIntValue(config, "idleTimeout", 600000));
         hikariConfig.setMaxLifetime(getIntValue(config, "maxLifetime", 1800000));
         hikariConfig.setLeakDetectionThreshold(getIntValue(config, "leakDetectionThreshold", 60000));
         
+        // 批量写入时由驱动将批处理改写为多行语句（MySQL）
+        if (Boolean.parseBoolean(String.valueOf(config.get("rewriteBatchedStatements")))) {
+            hikariConfig.addDataSourceProperty("rewriteBatchedStatements", "true");
+        }
+        
         // 连接测试
         hikariConfig.setConnectionTestQuery("SELECT 1");
         hikariConfig.setValidationTimeout(5000);
@@ -247,6 +339,9 @@ public class DynamicDataSourceService {
         // 连接池名称
         hikariConfig.setPoolName("DynamicPool-" + cacheKey);
         
+        // 连接池指标（hikaricp_connections_*，按 pool 标签区分），连接池关闭时自动移除
+        hikariConfig.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(executionMetrics.getMeterRegistry()));
+        
         // 创建数据源
         HikariDataSource dataSource = new HikariDataSource(hikariConfig);
         
@@ -254,6 +349,20 @@ public class DynamicDataSourceService {
         return dataSource;
     }
 
+    /**
+     * 数据源并发许可的资源键
+     */
+    private static String permitKey(String cacheKey) {
+        return "datasource:" + cacheKey;
+    }
+
+    /**
+     * 数据源流式查询游标许可的资源键
+     */
+    private static String streamPermitKey(String cacheKey) {
+        return "datasource-stream:" + cacheKey;
+    }
+
     /**
      * 获取整数配置值
      */
@@ -279,10 +388,11 @@ public class DynamicDataSourceService {
         Map<String, Object> cacheInfo = Map.of(
             "dataSourceCacheSize", dataSourceCache.size(),
             "cacheKeys", dataSourceCache.keySet(),
-            "jdbcTemplateCache", "实时创建，无缓存"
+            "configIndexSize", configIndex.size(),
+            "jdbcTemplateCache", "随数据源句柄复用"
         );
         
-        log.info("缓存信息: {}", cacheInfo);
+        log.debug("缓存信息: {}", cacheInfo);
         return cacheInfo;
     }
 
@@ -293,12 +403,16 @@ public class DynamicDataSourceService {
         log.info("清理数据源缓存，当前缓存大小: dataSource={}", dataSourceCache.size());
         
         // 关闭数据源
-        dataSourceCache.values().forEach(dataSource -> {
+        configIndex.clear();
+        dataSourceCache.values().forEach(handle -> {
+            DataSource dataSource = handle.getDataSource();
             if (dataSource instanceof HikariDataSource) {
                 HikariDataSource hikariDataSource = (HikariDataSource) dataSource;
                 log.info("关闭数据源: poolName={}", hikariDataSource.getPoolName());
                 hikariDataSource.close();
             }
+            concurrencyLimiter.remove(permitKey(handle.getCacheKey()));
+            concurrencyLimiter.remove(streamPermitKey(handle.getCacheKey()));
         });
         dataSourceCache.clear();
         
@@ -311,7 +425,13 @@ public class DynamicDataSourceService {
     public boolean clearCacheByKey(String cacheKey) {
         log.info("清理指定缓存键的连接: cacheKey={}", cacheKey);
         
-        DataSource removedDataSource = dataSourceCache.remove(cacheKey);
+        DataSourceHandle removedHandle = dataSourceCache.remove(cacheKey);
+        DataSource removedDataSource = removedHandle != null ? removedHandle.getDataSource() : null;
+        if (removedHandle != null) {
+            configIndex.values().removeIf(handle -> handle == removedHandle);
+            concurrencyLimiter.remove(permitKey(cacheKey));
+            concurrencyLimiter.remove(streamPermitKey(cacheKey));
+        }
         
         if (removedDataSource instanceof HikariDataSource) {
             HikariDataSource hikariDataSource = (HikariDataSource) removedDataSource;
@@ -332,4 +452,52 @@ public class DynamicDataSourceService {
         log.info("应用关闭，清理数据源资源");
         clearCache();
     }
-} 
\ No newline at end of file
+
+    /**
+     * 数据源句柄
+     * 保存解析后的数据源配置、缓存键、连接池以及可复用的JdbcTemplate（线程安全）
+     * JdbcTemplate基于带并发许可的数据源创建，流式查询的JdbcTemplate使用独立的游标许可，getDataSource()返回原始连接池
+     */
+    public static class DataSourceHandle {
+        private final String cacheKey;
+        private final Map<String, Object> config;
+        private final DataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+        private final JdbcTemplate streamingJdbcTemplate;
+
+        DataSourceHandle(String cacheKey, Map<String, Object> config, DataSource dataSource, DataSource limitedDataSource,
+                         DataSource streamingDataSource) {
+            this.cacheKey = cacheKey;
+            this.config = Collections.unmodifiableMap(config);
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(limitedDataSource);
+            this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+            this.streamingJdbcTemplate = new JdbcTemplate(streamingDataSource);
+        }
+
+        public String getCacheKey() {
+            return cacheKey;
+        }
+
+        public Map<String, Object> getConfig() {
+            return config;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public JdbcTemplate getJdbcTemplate() {
+            return jdbcTemplate;
+        }
+
+        public NamedParameterJdbcTemplate getNamedParameterJdbcTemplate() {
+            return namedParameterJdbcTemplate;
+        }
+
+        public JdbcTemplate getStreamingJdbcTemplate() {
+            return streamingJdbcTemplate;
+        }
+    }
+}
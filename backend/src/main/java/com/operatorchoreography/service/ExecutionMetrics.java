@@ -0,0 +1,178 @@
+package com.operatorchoreography.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 执行指标
+ * 算子、工作流节点、工作流三级的耗时（含分位数和直方图）、执行中数量、重试和超时次数，
+ * 通过 /actuator/prometheus 暴露；只依赖 MeterRegistry，执行器层和引擎层都可以注入
+ */
+@Slf4j
+@Component
+public class ExecutionMetrics {
+
+    private static final String NONE = "none";
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+    private static final Duration MIN_EXPECTED = Duration.ofMillis(1);
+    private static final Duration MAX_EXPECTED = Duration.ofMinutes(10);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 执行器类 -> 执行中的算子数
+     */
+    private final Map<String, AtomicInteger> operatorsInFlight = new ConcurrentHashMap<>();
+
+    private final AtomicInteger workflowsInFlight = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("workflow.in.flight", workflowsInFlight, AtomicInteger::get)
+                .description("执行中的工作流数")
+                .register(meterRegistry);
+    }
+
+    // ==================== 算子 ====================
+
+    /**
+     * 算子开始执行
+     * @return 开始时间（纳秒），传给 {@link #operatorFinished}
+     */
+    public long operatorStarted(String executorClass) {
+        operatorGauge(executorClass).incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * 算子执行结束
+     */
+    public void operatorFinished(long startNanos, String templateCode, String executorClass, String status) {
+        operatorGauge(executorClass).decrementAndGet();
+        timer("operator.execution", "算子执行耗时",
+                Tags.of("templateCode", tagValue(templateCode), "executorClass", simpleName(executorClass),
+                        "status", tagValue(status)))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private AtomicInteger operatorGauge(String executorClass) {
+        String name = simpleName(executorClass);
+        return operatorsInFlight.computeIfAbsent(name, key -> {
+            AtomicInteger inFlight = new AtomicInteger();
+            Gauge.builder("operator.in.flight", inFlight, AtomicInteger::get)
+                    .description("执行中的算子数")
+                    .tag("executorClass", key)
+                    .register(meterRegistry);
+            return inFlight;
+        });
+    }
+
+    // ==================== 工作流节点 ====================
+
+    /**
+     * 记录节点执行耗时（含重试和超时等待）
+     */
+    public void nodeFinished(long startNanos, Long workflowId, String templateCode, String status) {
+        timer("workflow.node.execution", "工作流节点执行耗时",
+                Tags.of("workflowId", tagValue(workflowId), "templateCode", tagValue(templateCode),
+                        "status", tagValue(status)))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 节点重试一次
+     */
+    public void nodeRetried(Long workflowId, String templateCode) {
+        Counter.builder("workflow.node.retries")
+                .description("工作流节点重试次数")
+                .tags("workflowId", tagValue(workflowId), "templateCode", tagValue(templateCode))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 节点执行超时一次
+     */
+    public void nodeTimedOut(Long workflowId, String templateCode) {
+        Counter.builder("workflow.node.timeouts")
+                .description("工作流节点超时次数")
+                .tags("workflowId", tagValue(workflowId), "templateCode", tagValue(templateCode))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // ==================== 工作流 ====================
+
+    /**
+     * 工作流开始执行
+     * @return 开始时间（纳秒），传给 {@link #workflowFinished}
+     */
+    public long workflowStarted() {
+        workflowsInFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * 工作流执行结束
+     * @param mode 执行方式：EXECUTE（异步执行）、TEST（同步测试）
+     */
+    public void workflowFinished(long startNanos, Long workflowId, String status, String mode) {
+        workflowsInFlight.decrementAndGet();
+        timer("workflow.execution", "工作流执行耗时",
+                Tags.of("workflowId", tagValue(workflowId), "status", tagValue(status), "mode", tagValue(mode)))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // ==================== 缓存 ====================
+
+    /**
+     * 绑定Caffeine缓存统计（缓存需开启 recordStats）
+     */
+    public void bindCache(String cacheName, Cache<?, ?> cache) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, cacheName);
+        log.debug("绑定缓存指标: cache={}", cacheName);
+    }
+
+    public MeterRegistry getMeterRegistry() {
+        return meterRegistry;
+    }
+
+    private Timer timer(String name, String description, Tags tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED)
+                .maximumExpectedValue(MAX_EXPECTED)
+                .register(meterRegistry);
+    }
+
+    private static String simpleName(String className) {
+        if (className == null) {
+            return NONE;
+        }
+        int index = className.lastIndexOf('.');
+        return index >= 0 ? className.substring(index + 1) : className;
+    }
+
+    private static String tagValue(Object value) {
+        return value != null ? value.toString() : NONE;
+    }
+}
@@ -0,0 +1,131 @@
+package com.operatorchoreography.service;
+
+import com.bazaarvoice.jolt.Chainr;
+import com.bazaarvoice.jolt.JsonUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * JOLT转换链缓存
+ * 按模板ID + 规则内容缓存编译后的 Chainr，规则内容变化时自然生成新的缓存项
+ * Chainr 编译后无状态，可在多线程间共享
+ */
+@Slf4j
+@Service
+public class JoltChainrCache {
+
+    @Autowired
+    private ExecutionMetrics executionMetrics;
+
+    @Value("${operator.chainr-cache.max-size:500}")
+    private long maxSize;
+
+    @Value("${operator.chainr-cache.expire-after-access-seconds:1800}")
+    private long expireAfterAccessSeconds;
+
+    private Cache<ChainrKey, Chainr> chainrCache;
+
+    @PostConstruct
+    public void init() {
+        chainrCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(Duration.ofSeconds(expireAfterAccessSeconds))
+                .recordStats()
+                .build();
+        executionMetrics.bindCache("joltChainr", chainrCache);
+        log.info("JOLT转换链缓存初始化完成: maxSize={}, expireAfterAccessSeconds={}", maxSize, expireAfterAccessSeconds);
+    }
+
+    /**
+     * 获取编译后的转换链，未命中时解析并编译规则
+     * @param templateId 模板ID，临时规则（如测试接口）传null
+     * @param joltSpecJson JOLT规则JSON
+     * @return 转换链
+     */
+    public Chainr getChainr(Long templateId, String joltSpecJson) {
+        return chainrCache.get(new ChainrKey(templateId, joltSpecJson), key -> {
+            List<Object> joltSpec = JsonUtils.jsonToList(key.spec);
+            log.debug("编译JOLT规则: templateId={}, 规则数量: {}", templateId, joltSpec.size());
+            return Chainr.fromSpec(joltSpec);
+        });
+    }
+
+    /**
+     * 获取编译后的转换链，规则可以是JSON字符串或已解析的对象
+     * @param templateId 模板ID，临时规则传null
+     * @param joltSpec JOLT规则
+     * @return 转换链
+     */
+    public Chainr getChainr(Long templateId, Object joltSpec) {
+        if (joltSpec instanceof String) {
+            return getChainr(templateId, (String) joltSpec);
+        }
+        return getChainr(templateId, JsonUtils.toJsonString(joltSpec));
+    }
+
+    /**
+     * 失效模板的全部转换链（mapping_rules 变更时调用）
+     */
+    public void invalidate(Long templateId) {
+        chainrCache.asMap().keySet().removeIf(key -> Objects.equals(key.templateId, templateId));
+    }
+
+    /**
+     * 获取缓存统计
+     */
+    public Map<String, Object> getStats() {
+        CacheStats stats = chainrCache.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("size", chainrCache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("loadFailureCount", stats.loadFailureCount());
+        return result;
+    }
+
+    /**
+     * 缓存键：模板ID + 规则内容（哈希由规则内容计算，相等比较使用完整内容避免哈希冲突）
+     */
+    private static final class ChainrKey {
+        private final Long templateId;
+        private final String spec;
+        private final int hash;
+
+        ChainrKey(Long templateId, String spec) {
+            this.templateId = templateId;
+            this.spec = spec;
+            this.hash = 31 * Objects.hashCode(templateId) + spec.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ChainrKey)) {
+                return false;
+            }
+            ChainrKey other = (ChainrKey) o;
+            return hash == other.hash && Objects.equals(templateId, other.templateId) && spec.equals(other.spec);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.operatorchoreography.service;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 带并发许可的数据源
+ * 获取连接前先获取数据源许可，连接关闭时归还；
+ * 许可数默认与连接池大小一致，等待由公平信号量排队，而不是在连接池内等到 connectionTimeout 后失败
+ */
+class LimitedDataSource extends DelegatingDataSource {
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final String resourceKey;
+    private final int permits;
+
+    LimitedDataSource(DataSource targetDataSource, ConcurrencyLimiter concurrencyLimiter, String resourceKey, int permits) {
+        super(targetDataSource);
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.resourceKey = resourceKey;
+        this.permits = permits;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        ConcurrencyLimiter.Permit permit = concurrencyLimiter.acquire(resourceKey, permits);
+        try {
+            return wrap(obtainTargetDataSource().getConnection(), permit);
+        } catch (SQLException | RuntimeException e) {
+            permit.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        ConcurrencyLimiter.Permit permit = concurrencyLimiter.acquire(resourceKey, permits);
+        try {
+            return wrap(obtainTargetDataSource().getConnection(username, password), permit);
+        } catch (SQLException | RuntimeException e) {
+            permit.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 包装连接，close 时归还许可
+     */
+    private Connection wrap(Connection target, ConcurrencyLimiter.Permit permit) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                        try {
+                            target.close();
+                        } finally {
+                            permit.close();
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -44,7 +44,12 @@ INSERT IGNORE INTO operator_template_params (template_id, param_key, param_name,
 -- 8. 超时配置参数
 (9, 'timeout_seconds', '执行超时时间', 'number', 'config', 0, 
 '30',
-'{"type": "number", "minimum": 1, "maximum": 300, "description": "SQL执行超时时间，单位：秒"}');
+'{"type": "number", "minimum": 1, "maximum": 300, "description": "SQL执行超时时间，单位：秒"}'),
+
+-- 9. 批量插入分块大小参数
+(9, 'batch_size', '批量插入分块大小', 'number', 'config', 0, 
+'500',
+'{"type": "number", "minimum": 1, "maximum": 10000, "description": "批量插入时每块的行数（batchInsert方法）"}');
 
 -- 查询验证插入结果
 SELECT 
@@ -37,6 +37,7 @@ CREATE TABLE IF NOT EXISTS operator_templates (
     
     -- 其他属性
     is_async TINYINT DEFAULT 0 COMMENT '是否异步执行',
+    is_memoized TINYINT DEFAULT 0 COMMENT '是否缓存执行结果（仅适用于纯函数算子）',
     timeout_seconds INT DEFAULT 30 COMMENT '超时时间(秒)',
     retry_count INT DEFAULT 0 COMMENT '重试次数',
     
@@ -82,12 +83,13 @@ CREATE TABLE IF NOT EXISTS workflows (
     workflow_name VARCHAR(200) NOT NULL COMMENT '工作流名称',
     description TEXT COMMENT '工作流描述',
     version VARCHAR(20) DEFAULT '1.0.0' COMMENT '版本号',
+    plan_revision BIGINT DEFAULT 0 COMMENT '执行计划修订号，工作流、节点或连线变更时递增',
     
     -- 状态管理
     status VARCHAR(50) DEFAULT 'DRAFT' COMMENT '状态: DRAFT,PUBLISHED,ARCHIVED',
     
     -- 执行配置
-    execution_mode VARCHAR(50) DEFAULT 'SYNC' COMMENT '执行模式: SYNC,ASYNC',
+    execution_mode VARCHAR(50) DEFAULT 'SYNC' COMMENT '执行模式: SYNC,ASYNC,VIRTUAL',
     max_execution_time INT DEFAULT 300 COMMENT '最大执行时间(秒)',
     
     -- 元数据
@@ -223,12 +225,20 @@ CREATE TABLE IF NOT EXISTS workflow_executions (
     error_message TEXT COMMENT '错误信息',
     error_stack TEXT COMMENT '错误堆栈',
     
+    -- 执行队列（WAITING 待认领，RUNNING 由 worker_id 持有租约）
+    worker_id VARCHAR(100) NULL COMMENT '认领执行的工作节点ID',
+    lease_expire_time TIMESTAMP NULL COMMENT '租约到期时间',
+    heartbeat_time TIMESTAMP NULL COMMENT '最近心跳时间',
+    attempt_count INT DEFAULT 0 COMMENT '已认领执行次数',
+    resume_count INT DEFAULT 0 COMMENT '从失败节点恢复执行的次数',
+    
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     
     FOREIGN KEY (workflow_id) REFERENCES workflows(id),
     INDEX idx_workflow (workflow_id),
     INDEX idx_execution_id (execution_id),
     INDEX idx_status (status),
+    INDEX idx_status_lease (status, lease_expire_time),
     INDEX idx_start_time (start_time)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='工作流执行记录表';
 
@@ -254,6 +264,10 @@ CREATE TABLE IF NOT EXISTS node_executions (
     error_stack TEXT COMMENT '错误堆栈',
     retry_count INT DEFAULT 0 COMMENT '已重试次数',
     
+    -- 写入记录的那一次执行（对应 workflow_executions 的 resume_count / attempt_count）
+    resume_count INT DEFAULT 0 COMMENT '写入时工作流执行的恢复次数',
+    attempt_count INT DEFAULT 0 COMMENT '写入时工作流执行的认领次数',
+    
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     
     FOREIGN KEY (node_id) REFERENCES workflow_nodes(id),
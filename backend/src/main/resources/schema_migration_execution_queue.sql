@@ -0,0 +1,16 @@
+-- ========================================
+-- 工作流执行队列迁移
+-- 已有库升级：workflow_executions 增加租约、心跳和认领次数字段
+-- （新建库直接使用 schema_enhanced.sql，无需执行本脚本）
+-- ========================================
+
+ALTER TABLE workflow_executions
+    ADD COLUMN worker_id VARCHAR(100) NULL COMMENT '认领执行的工作节点ID' AFTER error_stack,
+    ADD COLUMN lease_expire_time TIMESTAMP NULL COMMENT '租约到期时间' AFTER worker_id,
+    ADD COLUMN heartbeat_time TIMESTAMP NULL COMMENT '最近心跳时间' AFTER lease_expire_time,
+    ADD COLUMN attempt_count INT DEFAULT 0 COMMENT '已认领执行次数' AFTER heartbeat_time,
+    ADD INDEX idx_status_lease (status, lease_expire_time);
+
+-- 升级前遗留的 RUNNING 记录没有租约，不会被自动回收，按需手工处理：
+-- UPDATE workflow_executions SET status = 'FAILED', error_message = '升级前未完成的执行'
+--  WHERE status = 'RUNNING' AND lease_expire_time IS NULL;
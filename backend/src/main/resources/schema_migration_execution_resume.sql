@@ -0,0 +1,8 @@
+-- ========================================
+-- 工作流执行恢复迁移
+-- 已有库升级：workflow_executions 增加恢复执行次数字段
+-- （新建库直接使用 schema_enhanced.sql，无需执行本脚本）
+-- ========================================
+
+ALTER TABLE workflow_executions
+    ADD COLUMN resume_count INT DEFAULT 0 COMMENT '从失败节点恢复执行的次数' AFTER attempt_count;
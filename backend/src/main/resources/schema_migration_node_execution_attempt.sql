@@ -0,0 +1,10 @@
+-- ========================================
+-- 节点执行记录归属迁移
+-- 已有库升级：node_executions 记录写入时工作流执行的恢复次数和认领次数，
+-- 恢复执行只清理之前各次执行留下的记录，租约失效的执行不能再写入节点记录
+-- （新建库直接使用 schema_enhanced.sql，无需执行本脚本）
+-- ========================================
+
+ALTER TABLE node_executions
+    ADD COLUMN resume_count INT DEFAULT 0 COMMENT '写入时工作流执行的恢复次数' AFTER retry_count,
+    ADD COLUMN attempt_count INT DEFAULT 0 COMMENT '写入时工作流执行的认领次数' AFTER resume_count;
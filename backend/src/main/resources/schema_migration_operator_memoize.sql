@@ -0,0 +1,19 @@
+-- ========================================
+-- 算子结果缓存迁移
+-- 已有库升级：operator_templates 增加是否缓存执行结果字段，并为内置的纯函数算子开启
+-- （新建库直接使用 schema_enhanced.sql，无需执行本脚本）
+-- ========================================
+
+ALTER TABLE operator_templates
+    ADD COLUMN is_memoized TINYINT DEFAULT 0 COMMENT '是否缓存执行结果（仅适用于纯函数算子）' AFTER is_async;
+
+-- 输出只取决于输入和模板配置的算子
+UPDATE operator_templates
+SET is_memoized = 1
+WHERE executor_class IN (
+    'com.operatorchoreography.executor.DataMappingExecutor',
+    'com.operatorchoreography.executor.JsonParseExecutor',
+    'com.operatorchoreography.executor.StringFormatExecutor',
+    'com.operatorchoreography.executor.DateFormatExecutor',
+    'com.operatorchoreography.executor.CoordinateConvertExecutor'
+);
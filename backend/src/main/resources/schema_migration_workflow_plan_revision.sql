@@ -0,0 +1,8 @@
+-- ========================================
+-- 工作流执行计划修订号迁移
+-- 已有库升级：workflows 增加执行计划修订号字段，多实例据此失效缓存的执行计划
+-- （新建库直接使用 schema_enhanced.sql，无需执行本脚本）
+-- ========================================
+
+ALTER TABLE workflows
+    ADD COLUMN plan_revision BIGINT DEFAULT 0 COMMENT '执行计划修订号，工作流、节点或连线变更时递增' AFTER version;